@@ -16,6 +16,7 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 
 import ipCore.TrafficGenerator;
 import myLogger.MyLogger;
+import testing.BatchRunner;
 import testing.MeshTest;
 
 import javax.swing.*;
@@ -23,10 +24,29 @@ import java.util.logging.Level;
 
 public class Main {
 
+    /**
+     * Usage:
+     *      java Main <experiment file>     headless batch experiment (see testing.BatchRunner)
+     *      java Main --gui                 interactive simulation: parameters are asked with dialogs
+     */
     public static void main(String[] args){
         /* Initialize loggers: debug and result */
         MyLogger loggers = new MyLogger(Level.INFO);
 
+        if(args.length == 1 && args[0].equals("--gui")){
+            runGUI();
+        } else if(args.length == 1){
+            BatchRunner.runExperiment(args[0]);
+        } else {
+            System.out.println("Usage: java Main <experiment file>   (headless batch experiment, see testing.BatchRunner)");
+            System.out.println("       java Main --gui               (interactive simulation)");
+        }
+    }
+
+    /**
+     * Interactive simulation: the parameters are asked with dialogs and the progress is shown in a SimpleGUI frame
+     */
+    private static void runGUI(){
         boolean useGUI = true;
 
         /* Simulation CONSTANT parameters */
@@ -48,6 +68,12 @@ public class Main {
 
         boolean adaptive = false;
 
+        /* Number of worker threads used to simulate the clusters */
+        int numThreads = 1;
+
+        /* Number of load points simulated concurrently (each one holds a complete mesh) */
+        int loadWorkers = MeshTest.DEFAULT_LOAD_WORKERS;
+
         if(useGUI) {
             /* Use GUI to get cluster size */
             while (useGUI) {
@@ -71,6 +97,20 @@ public class Main {
                 }
             }
 
+            /* Use GUI to set the number of worker threads */
+            useGUI = true;
+
+            while (useGUI) {
+                String inputString = JOptionPane.showInputDialog(null, "Give number of worker threads:");
+                if (inputString.length() != 0) {
+                    numThreads = Math.max(1, Integer.parseInt(inputString));
+                    System.out.println("Worker threads set to " + numThreads);
+                } else {
+                    System.out.println("Invalid input, 1 worker thread used.");
+                }
+                useGUI = false;
+            }
+
             /* Use GUI to set hotspot factor */
             useGUI = true;
 
@@ -117,6 +157,20 @@ public class Main {
                 useGUI = false;
             }
 
+            /* Use GUI to set the number of concurrent load points */
+            useGUI = true;
+
+            while (useGUI) {
+                String inputString = JOptionPane.showInputDialog(null, "Give number of load points simulated concurrently:");
+                if (inputString.length() != 0) {
+                    loadWorkers = Math.max(1, Integer.parseInt(inputString));
+                    System.out.println("Concurrent load points set to " + loadWorkers);
+                } else {
+                    System.out.println("Invalid input, concurrent load points set to " + MeshTest.DEFAULT_LOAD_WORKERS + ".");
+                }
+                useGUI = false;
+            }
+
             /* Set adaptive */
             String inputString = JOptionPane.showInputDialog(null, "Adaptive or XYZ routing?:");
             if (inputString.toLowerCase().equals("adaptive")) {
@@ -147,6 +201,8 @@ public class Main {
 
         /* Run test */
         MeshTest test  = new MeshTest(minRadix, numVCs, bufferSize, sourceQueueSize, adaptive, flitsPerPacket, precision, hotSpotFactor, rentExponent);
+        test.setNumThreads(numThreads);
+        test.setLoadWorkers(loadWorkers);
         test.setGUIClusterSize(sizeX, sizeY, sizeZ);
         test.updateTrafficPattern(trafficPattern);
         test.updateAdaptive(adaptive);
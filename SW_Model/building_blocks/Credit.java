@@ -27,10 +27,17 @@ public class Credit {
     public static final int ZERO_CREDIT = 0;
     public static final int NORMAL_CREDIT = 1;
 
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Credits are immutable, so idle links and credit sending share the instances below instead of
+            creating a new credit every cycle: ZERO for dummy credits, forVC(VC) for normal credits.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    public static final Credit ZERO = new Credit();                         // Shared zero (dummy) credit
+    private static final Credit[] NORMAL_CREDITS = createNormalCredits();   // Shared normal credit of every VC
+
     /* Credit variables */
-    private int type;               // Indicates whether the credit is a dummy or not
-    private int VC;                 // Virtual Channel of unit that sent this credit
-    private String ID;              // ID for debugging purposes
+    private final int type;         // Indicates whether the credit is a dummy or not
+    private final int VC;           // Virtual Channel of unit that sent this credit
+    private final String ID;        // ID for debugging purposes
 
 
     /* Loggers */
@@ -65,12 +72,30 @@ public class Credit {
 
 
     /* ********************************************************************************
-     *                              GETTERS AND SETTERS                             *
+     *                                 CLASS FUNCTIONS                              *
      ******************************************************************************** */
-    public void setVC(int VC) {
-        this.VC = VC;
+
+    /**
+     * Shared normal credit for a VC
+     * @param VC: Virtual Channel to which the credit needs to be send.
+     * @return credit for this VC
+     */
+    public static Credit forVC(int VC){
+        return NORMAL_CREDITS[VC];
     }
 
+    private static Credit[] createNormalCredits(){
+        Credit[] credits = new Credit[PackedFlit.MAX_VCS];
+        for(int VC = 0; VC < credits.length; VC++){
+            credits[VC] = new Credit(VC);
+        }
+        return credits;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                             *
+     ******************************************************************************** */
     public int getVC() {
         return VC;
     }
@@ -79,10 +104,6 @@ public class Credit {
         return type;
     }
 
-    public void setType(int type) {
-        this.type = type;
-    }
-
     @Override
     public String toString() {
         return this.ID;
@@ -17,15 +17,17 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 
 package building_blocks;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Logger;
 
 public class CreditChannel {
     /* ********************************************************************************
      *                                  VARIABLES                                     *
      ******************************************************************************** */
-    private List<Credit> channelBuffer;                       // Actual channel: contains 1 credit
+    /* CONSTANTS */
+    public static final int CHANNEL_DEPTH = 2;          // Number of credits on the channel between two cycles
+    public static final int CHANNEL_CAPACITY = CHANNEL_DEPTH + 1;   // Within a cycle, the sender can add before the receiver removes
+
+    private RingBuffer<Credit> channelBuffer;                 // Actual channel: contains 1 credit
     private boolean edge;                                    // Indicates whether this channel is at the edge of the mesh or not
 
 
@@ -45,9 +47,9 @@ public class CreditChannel {
     public CreditChannel(boolean edge){
         if(!edge){
             /* Create channel and initialize it with a dummy credit */
-            this.channelBuffer = new ArrayList<Credit>();
-            this.channelBuffer.add(new Credit());
-            this.channelBuffer.add(new Credit());
+            this.channelBuffer = new RingBuffer<Credit>(CHANNEL_CAPACITY);
+            this.channelBuffer.add(Credit.ZERO);
+            this.channelBuffer.add(Credit.ZERO);
         }
 
         this.edge = edge;
@@ -66,9 +68,9 @@ public class CreditChannel {
      */
     public CreditChannel(int size){
         this.edge = false;
-        this.channelBuffer = new ArrayList<Credit>();
+        this.channelBuffer = new RingBuffer<Credit>(Math.max(size, CHANNEL_CAPACITY));
         for(int i = 0; i < size; i++){
-            channelBuffer.add(new Credit());
+            channelBuffer.add(Credit.ZERO);
         }
     }
 
@@ -92,16 +94,27 @@ public class CreditChannel {
      */
     public Credit removeCredit(){
         if(!this.edge)
-            return this.channelBuffer.remove(0);
+            return this.channelBuffer.remove();
         else
-            return new Credit();
+            return Credit.ZERO;
     }
 
-    public void copyChannelBuffer(List<Credit> channelBuffer){
-        this.channelBuffer.clear();
-        for(int i = 0; i < channelBuffer.size(); i++){
-            this.channelBuffer.add(channelBuffer.get(i));
+    /**
+     * Checks if the channel only carries zero credits
+     * @return true if no credit is travelling over this channel
+     */
+    public boolean isIdle(){
+        if(this.edge || this.channelBuffer == null)
+            return true;
+        for(int i = 0; i < this.channelBuffer.size(); i++){
+            if(this.channelBuffer.get(i).getType() != Credit.ZERO_CREDIT)
+                return false;
         }
+        return true;
+    }
+
+    public void copyChannelBuffer(RingBuffer<Credit> channelBuffer){
+        this.channelBuffer.copyFrom(channelBuffer);
     }
 
 
@@ -111,11 +124,11 @@ public class CreditChannel {
      *                              GETTERS AND SETTERS                               *
      ******************************************************************************** */
 
-    public List<Credit> getChannelBuffer() {
+    public RingBuffer<Credit> getChannelBuffer() {
         return channelBuffer;
     }
 
-    public void setChannelBuffer(List<Credit> channelBuffer) {
+    public void setChannelBuffer(RingBuffer<Credit> channelBuffer) {
         this.channelBuffer = channelBuffer;
     }
 
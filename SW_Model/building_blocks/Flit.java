@@ -35,7 +35,7 @@ public class Flit {
     private int payload;                                    // Actual data of the flit
     private int[] destination;                              // Destination router (z,y,x) of the flit
     private int[] source;                                   // Source router (z,y,x) of the flit
-    private String ID;                                      // ID for debugging purposes
+    private String ID;                                      // ID for debugging purposes (built on demand)
 
     private int hops;
 
@@ -82,9 +82,30 @@ public class Flit {
         this.payload = payload;
         this.destination = destination;
         this.source = source;
+    }
 
-        this.ID = "Flit_S[" + source[0] + "," + source[1]  + "," + source[2]
-                +"]D[" + destination[0] + "," + destination[1] + "," + destination[2] +"]_" + this.payload;
+    /**
+     * Constructor for unpacking a packed flit (see PackedFlit), e.g. for debug logging.
+     * @param control: control word of the flit
+     * @param nodes: node word of the flit
+     */
+    public Flit(long control, long nodes){
+        this.type = PackedFlit.getType(control);
+        if(this.type == Flit.ZERO_FLIT){
+            this.ID = "ZERO_FLIT";
+            this.VC = -1;
+            this.timestamp = -1;
+            this.payload = -1;
+            this.destination = new int[]{-1,-1,-1};
+            this.source = new int[]{-1,-1,-1};
+        } else {
+            this.VC = PackedFlit.getVC(control);
+            this.timestamp = PackedFlit.getTimestamp(control);
+            this.payload = PackedFlit.getPayload(control);
+            this.destination = PackedFlit.getDestination(nodes);
+            this.source = PackedFlit.getSource(nodes);
+        }
+        this.hops = PackedFlit.getHops(control);
     }
 
     public void increaseHops(){
@@ -148,6 +169,10 @@ public class Flit {
     }
 
     public String getID() {
+        if(this.ID == null){
+            this.ID = "Flit_S[" + source[0] + "," + source[1]  + "," + source[2]
+                    +"]D[" + destination[0] + "," + destination[1] + "," + destination[2] +"]_" + this.payload;
+        }
         return ID;
     }
 
@@ -165,6 +190,6 @@ public class Flit {
 
     @Override
     public String toString() {
-        return this.ID;
+        return this.getID();
     }
 }
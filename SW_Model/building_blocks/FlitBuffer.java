@@ -0,0 +1,151 @@
+/*
+File:           FlitBuffer.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package building_blocks;
+
+public class FlitBuffer {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Fixed-capacity FIFO of packed flits (see PackedFlit), the primitive counterpart of RingBuffer.
+            Used for the VC input buffers and the flit channels.
+            The control and node words are stored in two parallel arrays. The first flit is read with
+            getControl(0) and getNodes(0) before it is removed.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    private long[] controls;                            // Control words of the flits
+    private long[] nodes;                               // Node words of the flits
+    private int head;                                   // Index of the first (oldest) flit
+    private int size;                                   // Number of flits in the buffer
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Constructor for creating an empty flit buffer
+     * @param capacity: maximum number of flits in the buffer
+     */
+    public FlitBuffer(int capacity){
+        this.controls = new long[capacity];
+        this.nodes = new long[capacity];
+        this.head = 0;
+        this.size = 0;
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Add a flit at the end of the buffer
+     * @param control: control word of the flit
+     * @param nodes: node word of the flit
+     */
+    public void add(long control, long nodes){
+        if(size == controls.length)
+            throw new RuntimeException("Flit buffer overflow (capacity " + controls.length + ")");
+        int i = wrap(head + size);
+        this.controls[i] = control;
+        this.nodes[i] = nodes;
+        size++;
+    }
+
+    /**
+     * Remove the first flit of the buffer
+     * @return control word of the removed flit
+     */
+    public long remove(){
+        if(size == 0)
+            throw new RuntimeException("Flit buffer underflow");
+        long control = controls[head];
+        head = wrap(head + 1);
+        size--;
+        return control;
+    }
+
+    /**
+     * Control word of a flit in the buffer (the flit is NOT removed)
+     * @param i: position of the flit, 0 is the first flit
+     * @return control word
+     */
+    public long getControl(int i){
+        if(i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for flit buffer of size " + size);
+        return controls[wrap(head + i)];
+    }
+
+    /**
+     * Node word of a flit in the buffer (the flit is NOT removed)
+     * @param i: position of the flit, 0 is the first flit
+     * @return node word
+     */
+    public long getNodes(int i){
+        if(i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for flit buffer of size " + size);
+        return nodes[wrap(head + i)];
+    }
+
+    /**
+     * Remove all flits from the buffer
+     */
+    public void clear(){
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Overwrite the contents of this buffer with the contents of another buffer (in place, no allocation)
+     * @param other: buffer to be copied
+     */
+    public void copyFrom(FlitBuffer other){
+        if(other.size > controls.length)
+            throw new RuntimeException("Flit buffer overflow (capacity " + controls.length + ")");
+        for(int i = 0; i < other.size; i++){
+            int j = other.wrap(other.head + i);
+            this.controls[i] = other.controls[j];
+            this.nodes[i] = other.nodes[j];
+        }
+        this.head = 0;
+        this.size = other.size;
+    }
+
+    /**
+     * Map a position on the underlying arrays
+     * @param i: position, smaller than twice the capacity
+     * @return index in the underlying arrays
+     */
+    private int wrap(int i){
+        return i >= controls.length ? i - controls.length : i;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == controls.length;
+    }
+
+    public int getCapacity() {
+        return controls.length;
+    }
+}
@@ -16,15 +16,17 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 
 package building_blocks;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Logger;
 
 public class FlitChannel {
     /* ********************************************************************************
      *                                  VARIABLES                                     *
      ******************************************************************************** */
-    private List<Flit> channelBuffer;                   // Actual channel with delay of 1
+    /* CONSTANTS */
+    public static final int CHANNEL_DEPTH = 2;          // Number of flits on the channel between two cycles
+    public static final int CHANNEL_CAPACITY = CHANNEL_DEPTH + 1;   // Within a cycle, the sender can add before the receiver removes
+
+    private FlitBuffer channelBuffer;                   // Actual channel with delay of 1 (packed flits, see PackedFlit)
     private boolean edge;                               // Indicates whether this channel is at the edge of the mesh or not
 
     /* Loggers */
@@ -42,10 +44,10 @@ public class FlitChannel {
     public FlitChannel(boolean edge){
         if(!edge) {
             /* Create channel and initialize it with a dummy flit */
-            this.channelBuffer = new ArrayList<Flit>();
-            this.channelBuffer.add(new Flit());
+            this.channelBuffer = new FlitBuffer(CHANNEL_CAPACITY);
+            this.channelBuffer.add(PackedFlit.ZERO_FLIT, 0L);
             //Flitchannels start with extra flit on channel because flit receiving comes first in sim scheme (see Router)
-            this.channelBuffer.add(new Flit());
+            this.channelBuffer.add(PackedFlit.ZERO_FLIT, 0L);
         }
 
         this.edge = edge;
@@ -64,9 +66,9 @@ public class FlitChannel {
      */
     public FlitChannel(int size){
         this.edge = false;
-        this.channelBuffer = new ArrayList<Flit>();
+        this.channelBuffer = new FlitBuffer(Math.max(size, CHANNEL_CAPACITY));
         for(int i = 0; i < size; i++){
-            this.channelBuffer.add(new Flit());
+            this.channelBuffer.add(PackedFlit.ZERO_FLIT, 0L);
         }
     }
 
@@ -78,29 +80,80 @@ public class FlitChannel {
 
     /**
      * Adds a new flit to the channel (if this is not an edge channel)
-     * @param flit: flit to be added to the channel
+     * @param control: control word of the flit to be added to the channel
+     * @param nodes: node word of the flit to be added to the channel
+     */
+    public void addFlit(long control, long nodes){
+        if(!this.edge)
+            this.channelBuffer.add(control, nodes);
+    }
+
+    /**
+     * Adds a zero (dummy) flit to the channel (if this is not an edge channel)
+     */
+    public void addZeroFlit(){
+        if(!this.edge)
+            this.channelBuffer.add(PackedFlit.ZERO_FLIT, 0L);
+    }
+
+    /**
+     * Control word of the flit that will be removed next (zero flit at an edge channel)
+     * @return control word
+     */
+    public long getControl(){
+        if(!this.edge)
+            return this.channelBuffer.getControl(0);
+        else
+            return PackedFlit.ZERO_FLIT;
+    }
+
+    /**
+     * Node word of the flit that will be removed next, read it before calling removeFlit
+     * @return node word
      */
-    public void addFlit(Flit flit){
+    public long getNodes(){
         if(!this.edge)
-            this.channelBuffer.add(flit);
+            return this.channelBuffer.getNodes(0);
+        else
+            return 0L;
     }
 
     /**
      * Remove a flit from the channel (if this is not an edge channel)
-     * @return: flit that was on the channel
+     * @return: control word of the flit that was on the channel
      */
-    public Flit removeFlit(){
+    public long removeFlit(){
         if(!this.edge)
-            return this.channelBuffer.remove(0);
+            return this.channelBuffer.remove();
         else
-            return new Flit();
+            return PackedFlit.ZERO_FLIT;
     }
 
-    public void copyChannelBuffer(List<Flit> channelBuffer){
-        this.channelBuffer.clear();
-        for(int i = 0; i < channelBuffer.size(); i++){
-            this.channelBuffer.add(channelBuffer.get(i));
+    /**
+     * Remove a flit from another channel and add it to this channel
+     * @param channel: channel from which the flit is removed
+     */
+    public void transferFlit(FlitChannel channel){
+        long nodes = channel.getNodes();
+        this.addFlit(channel.removeFlit(), nodes);
+    }
+
+    /**
+     * Checks if the channel only carries zero flits
+     * @return true if no flit is travelling over this channel
+     */
+    public boolean isIdle(){
+        if(this.edge || this.channelBuffer == null)
+            return true;
+        for(int i = 0; i < this.channelBuffer.size(); i++){
+            if(PackedFlit.getType(this.channelBuffer.getControl(i)) != Flit.ZERO_FLIT)
+                return false;
         }
+        return true;
+    }
+
+    public void copyChannelBuffer(FlitBuffer channelBuffer){
+        this.channelBuffer.copyFrom(channelBuffer);
     }
 
 
@@ -108,11 +161,11 @@ public class FlitChannel {
      *                              GETTERS AND SETTERS                               *
      ******************************************************************************** */
 
-    public List<Flit> getChannelBuffer() {
+    public FlitBuffer getChannelBuffer() {
         return channelBuffer;
     }
 
-    public void setChannelBuffer(List<Flit> channelBuffer) {
+    public void setChannelBuffer(FlitBuffer channelBuffer) {
         this.channelBuffer = channelBuffer;
     }
 
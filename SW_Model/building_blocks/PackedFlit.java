@@ -0,0 +1,187 @@
+/*
+File:           PackedFlit.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package building_blocks;
+
+public final class PackedFlit {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Primitive encoding of a flit in two longs, used on the whole flit path (channels, input buffers,
+            crossbar, traffic receiver) so that no object is created per flit.
+
+            Control word:
+                bits  0 -  1 : type (Flit.ZERO_FLIT, HEADER_FLIT, BODY_FLIT, TAIL_FLIT)
+                bits  2 -  7 : VC
+                bits  8 - 19 : hops
+                bits 20 - 31 : payload (index of the flit in its packet)
+                bits 32 - 63 : timestamp (creation time of the packet)
+            Node word:
+                bits  0 - 29 : destination node (z,y,x), 10 bits per coordinate
+                bits 32 - 61 : source node (z,y,x), 10 bits per coordinate
+
+            A control word of 0 is a zero flit (dummy flit on an idle channel).
+            Flit is the unpacked form, it is only created on demand (e.g. for debug logging).
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final long ZERO_FLIT = 0L;                    // Control word of a zero flit
+
+    public static final int MAX_VCS = 1 << 6;                   // Maximum number of VCs
+    public static final int MAX_FLITS_PER_PACKET = 1 << 12;     // Maximum number of flits in a packet
+    public static final int MAX_RADIX = 1 << 10;                // Maximum radix of the mesh
+
+    private static final int VC_SHIFT = 2;
+    private static final int HOPS_SHIFT = 8;
+    private static final int PAYLOAD_SHIFT = 20;
+    private static final int TIMESTAMP_SHIFT = 32;
+    private static final long TYPE_MASK = 0x3L;
+    private static final long VC_MASK = 0x3FL;
+    private static final long HOPS_MASK = 0xFFFL;
+    private static final long PAYLOAD_MASK = 0xFFFL;
+
+    private static final int COORDINATE_BITS = 10;
+    private static final long COORDINATE_MASK = 0x3FFL;
+    private static final int SOURCE_SHIFT = 32;
+    private static final long NODE_MASK = 0x3FFFFFFFL;
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    private PackedFlit(){
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Check that a network configuration fits in the packed encoding
+     * @param radix: radix of the mesh
+     * @param numVCs: number of VCs at every port
+     * @param flitsPerPacket: number of flits in a packet
+     */
+    public static void checkLimits(int radix, int numVCs, int flitsPerPacket){
+        if(radix > MAX_RADIX || numVCs > MAX_VCS || flitsPerPacket > MAX_FLITS_PER_PACKET)
+            throw new RuntimeException("Configuration does not fit in packed flits (radix <= " + MAX_RADIX
+                    + ", VCs <= " + MAX_VCS + ", flits per packet <= " + MAX_FLITS_PER_PACKET + ")");
+    }
+
+    /**
+     * Pack the control word of a flit (hop count 0)
+     * @param type: type of flit (header, body or tail)
+     * @param VC: VC to which the flit is allocated
+     * @param payload: index of the flit in its packet
+     * @param timestamp: creation time of the packet
+     * @return control word
+     */
+    public static long control(int type, int VC, int payload, int timestamp){
+        return (type & TYPE_MASK)
+                | ((VC & VC_MASK) << VC_SHIFT)
+                | ((payload & PAYLOAD_MASK) << PAYLOAD_SHIFT)
+                | ((long) timestamp << TIMESTAMP_SHIFT);
+    }
+
+    /**
+     * Pack the node word of a flit
+     * @param source: source router (z,y,x)
+     * @param destination: destination router (z,y,x)
+     * @return node word
+     */
+    public static long nodes(int[] source, int[] destination){
+        return (node(source) << SOURCE_SHIFT) | node(destination);
+    }
+
+    /**
+     * Pack the coordinates of a router
+     * @param position: position (z,y,x) of the router
+     * @return packed coordinates
+     */
+    private static long node(int[] position){
+        return ((long) position[0] << (2 * COORDINATE_BITS)) | ((long) position[1] << COORDINATE_BITS) | position[2];
+    }
+
+    public static int getType(long control){
+        return (int) (control & TYPE_MASK);
+    }
+
+    public static int getVC(long control){
+        return (int) ((control >>> VC_SHIFT) & VC_MASK);
+    }
+
+    public static long setVC(long control, int VC){
+        return (control & ~(VC_MASK << VC_SHIFT)) | ((VC & VC_MASK) << VC_SHIFT);
+    }
+
+    public static int getHops(long control){
+        return (int) ((control >>> HOPS_SHIFT) & HOPS_MASK);
+    }
+
+    public static long increaseHops(long control){
+        return control + (1L << HOPS_SHIFT);
+    }
+
+    public static int getPayload(long control){
+        return (int) ((control >>> PAYLOAD_SHIFT) & PAYLOAD_MASK);
+    }
+
+    public static int getTimestamp(long control){
+        return (int) (control >>> TIMESTAMP_SHIFT);
+    }
+
+    public static int getDestinationZ(long nodes){
+        return (int) ((nodes >>> (2 * COORDINATE_BITS)) & COORDINATE_MASK);
+    }
+
+    public static int getDestinationY(long nodes){
+        return (int) ((nodes >>> COORDINATE_BITS) & COORDINATE_MASK);
+    }
+
+    public static int getDestinationX(long nodes){
+        return (int) (nodes & COORDINATE_MASK);
+    }
+
+    /**
+     * Unpack the destination of a flit
+     * @param nodes: node word of the flit
+     * @return destination router (z,y,x)
+     */
+    public static int[] getDestination(long nodes){
+        return unpackNode(nodes & NODE_MASK);
+    }
+
+    /**
+     * Unpack the source of a flit
+     * @param nodes: node word of the flit
+     * @return source router (z,y,x)
+     */
+    public static int[] getSource(long nodes){
+        return unpackNode((nodes >>> SOURCE_SHIFT) & NODE_MASK);
+    }
+
+    private static int[] unpackNode(long node){
+        return new int[]{(int) ((node >>> (2 * COORDINATE_BITS)) & COORDINATE_MASK),
+                (int) ((node >>> COORDINATE_BITS) & COORDINATE_MASK),
+                (int) (node & COORDINATE_MASK)};
+    }
+
+    /**
+     * Debug representation of a packed flit (built on demand)
+     * @param control: control word of the flit
+     * @param nodes: node word of the flit
+     * @return ID of the flit
+     */
+    public static String toString(long control, long nodes){
+        return new Flit(control, nodes).toString();
+    }
+}
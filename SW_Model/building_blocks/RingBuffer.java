@@ -0,0 +1,148 @@
+/*
+File:           RingBuffer.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package building_blocks;
+
+public class RingBuffer<T> {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Fixed-capacity FIFO used for the credit buffers of the input ports and the credit channels (flits use
+            the primitive FlitBuffer). Adding and removing elements is O(1) and never allocates, copying a buffer
+            (TDM load/store) overwrites the elements in place.
+            Adding an element to a full buffer throws a RuntimeException: the capacity is a hardware limit
+            (buffer size, channel depth) and exceeding it indicates an error in the flow control.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    private Object[] elements;                          // Storage of the elements
+    private int head;                                   // Index of the first (oldest) element
+    private int size;                                   // Number of elements in the buffer
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Constructor for creating an empty ring buffer
+     * @param capacity: maximum number of elements in the buffer
+     */
+    public RingBuffer(int capacity){
+        this.elements = new Object[capacity];
+        this.head = 0;
+        this.size = 0;
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Add an element at the end of the buffer
+     * @param element: element to be added
+     */
+    public void add(T element){
+        if(size == elements.length)
+            throw new RuntimeException("Ring buffer overflow (capacity " + elements.length + ")");
+        elements[wrap(head + size)] = element;
+        size++;
+    }
+
+    /**
+     * Remove the first element of the buffer
+     * @return first element of the buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(){
+        if(size == 0)
+            throw new RuntimeException("Ring buffer underflow");
+        T element = (T) elements[head];
+        elements[head] = null;
+        head = wrap(head + 1);
+        size--;
+        return element;
+    }
+
+    /**
+     * Return the first element of the buffer (the element is NOT removed)
+     * @return first element of the buffer
+     */
+    public T peek(){
+        return get(0);
+    }
+
+    /**
+     * Return an element of the buffer (the element is NOT removed)
+     * @param i: position of the element, 0 is the first element
+     * @return element at position i
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int i){
+        if(i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for ring buffer of size " + size);
+        return (T) elements[wrap(head + i)];
+    }
+
+    /**
+     * Remove all elements from the buffer
+     */
+    public void clear(){
+        for(int i = 0; i < size; i++){
+            elements[wrap(head + i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Overwrite the contents of this buffer with the contents of another buffer (in place, no allocation)
+     * @param other: buffer to be copied
+     */
+    public void copyFrom(RingBuffer<T> other){
+        if(other.size > elements.length)
+            throw new RuntimeException("Ring buffer overflow (capacity " + elements.length + ")");
+        this.clear();
+        for(int i = 0; i < other.size; i++){
+            elements[i] = other.elements[other.wrap(other.head + i)];
+        }
+        this.size = other.size;
+    }
+
+    /**
+     * Map a position on the underlying array
+     * @param i: position, smaller than twice the capacity
+     * @return index in the underlying array
+     */
+    private int wrap(int i){
+        return i >= elements.length ? i - elements.length : i;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == elements.length;
+    }
+
+    public int getCapacity() {
+        return elements.length;
+    }
+}
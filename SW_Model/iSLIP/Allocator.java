@@ -32,7 +32,9 @@ public class Allocator {
      *                                  VARIABLES                                   *
      ******************************************************************************** */
     /* Request and grants */
-    private List<List<Boolean>> requests;                       // Requests: input requests output
+    private long[] requests;                                    // Requests: bit 'output' of the words of 'input' is set if input requests output
+    private int requestOffset;                                  // Index of the first request word in the requests array
+    private int requestWords;                                   // Number of request words per input
     private List<List<Boolean>> grants;                         // Grants: input is granted access to output
 
     /* Internal variables */
@@ -78,13 +80,13 @@ public class Allocator {
         }
 
         /* Initialize requests/grants */
-        this.requests = new ArrayList<List<Boolean>>();
+        this.requestWords = (numOutputs + 63) / 64;
+        this.requests = new long[numInputs * requestWords];
+        this.requestOffset = 0;
         this.grants = new ArrayList<List<Boolean>>();
         for(int i = 0; i < numInputs; i++){
-            requests.add(new ArrayList<Boolean>());
             grants.add(new ArrayList<Boolean>());
             for(int j = 0; j < numOutputs; j++){
-                requests.get(i).add(false);
                 grants.get(i).add(false);
             }
         }
@@ -118,7 +120,7 @@ public class Allocator {
             // Create requests for each arbiter
             List<Boolean> arbiterRequests = new ArrayList<Boolean>();
             for(int j = 0; j < numInputs; j++){
-                arbiterRequests.add(this.requests.get(j).get(i));
+                arbiterRequests.add(this.isRequested(j, i));
             }
 
             // Perform arbitration for this specific arbiter
@@ -165,12 +167,23 @@ public class Allocator {
      * @param output: output resource that is requested
      */
     public void addRequest(int input, int output){
-        this.requests.get(input).set(output, true);
+        this.requests[requestOffset + input * requestWords + (output >>> 6)] |= 1L << output;
+    }
+
+    /**
+     * Check if an input requests an output resource
+     * @param input: input that requests a resource
+     * @param output: output resource that is requested
+     * @return true if the request is pending
+     */
+    public boolean isRequested(int input, int output){
+        return (this.requests[requestOffset + input * requestWords + (output >>> 6)] & (1L << output)) != 0;
     }
 
     public void resetAllRequests(int input){
-        for(int i = 0; i < numOutputs; i++) {
-            this.requests.get(input).set(i, false);
+        int start = requestOffset + input * requestWords;
+        for(int i = start; i < start + requestWords; i++) {
+            this.requests[i] = 0L;
         }
     }
 
@@ -183,12 +196,34 @@ public class Allocator {
      *                              GETTERS AND SETTERS                             *
      ******************************************************************************** */
 
-    public List<List<Boolean>> getRequests() {
-        return requests;
+    /**
+     * Bind the requests of this allocator to (another) position in an external array (e.g. the network state)
+     * @param requests: array holding the request words
+     * @param requestOffset: index of the first request word of this allocator
+     */
+    public void bindRequests(long[] requests, int requestOffset){
+        this.requests = requests;
+        this.requestOffset = requestOffset;
+    }
+
+    /**
+     * Bind the priorities of all arbiters to (another) position in external arrays (e.g. the network state)
+     * @param inputPriorities: array holding the priorities of the input arbiters
+     * @param inputOffset: index of the priority of the first input arbiter
+     * @param outputPriorities: array holding the priorities of the output arbiters
+     * @param outputOffset: index of the priority of the first output arbiter
+     */
+    public void bindPriorities(int[] inputPriorities, int inputOffset, int[] outputPriorities, int outputOffset){
+        for(int i = 0; i < numInputs; i++){
+            this.inputArbiters.get(i).bindState(inputPriorities, inputOffset + i);
+        }
+        for(int i = 0; i < numOutputs; i++){
+            this.outputArbiters.get(i).bindState(outputPriorities, outputOffset + i);
+        }
     }
 
-    public void setRequests(List<List<Boolean>> requests) {
-        this.requests = requests;
+    public int getRequestWords() {
+        return requestWords;
     }
 
     public List<List<Boolean>> getGrants() {
@@ -24,7 +24,8 @@ public class Arbiter {
     /* ********************************************************************************
      *                                  VARIABLES                                   *
      ******************************************************************************** */
-    private int priority;
+    private int[] priorities;                   // Array holding the priority of this arbiter (e.g. the network state)
+    private int index;                          // Index of the priority of this arbiter in the array
 
     /* Loggers */
     private final static Logger debugLogger = Logger.getLogger("debugLogger");
@@ -38,7 +39,18 @@ public class Arbiter {
      * Constructor for creating a new arbiter
      */
     public Arbiter(){
-        this.priority = 0;
+        this.priorities = new int[1];
+        this.index = 0;
+    }
+
+    /**
+     * Constructor for creating a new arbiter whose priority is held in an external array
+     * @param priorities: array holding the priority
+     * @param index: index of the priority in the array
+     */
+    public Arbiter(int[] priorities, int index){
+        this.priorities = priorities;
+        this.index = index;
     }
 
     /* ********************************************************************************
@@ -74,7 +86,7 @@ public class Arbiter {
         /* Check if the resource is IDLE */
         if(state == OutputPort.IDLE){
             /* Starting from requester with highest priority, grant access to one requester */
-            int p = this.priority;
+            int p = this.priorities[index];
             for(int i = 0; i < requests.size(); i++){
                 if(requests.get(p)){
                     grants.set(p, true);
@@ -91,12 +103,22 @@ public class Arbiter {
      *                              GETTERS AND SETTERS                             *
      ******************************************************************************** */
 
+    /**
+     * Bind the priority of this arbiter to (another) position in an external array
+     * @param priorities: array holding the priority
+     * @param index: index of the priority in the array
+     */
+    public void bindState(int[] priorities, int index){
+        this.priorities = priorities;
+        this.index = index;
+    }
+
     public int getPriority() {
-        return priority;
+        return priorities[index];
     }
 
     public void setPriority(int priority) {
-        this.priority = priority;
+        this.priorities[index] = priority;
     }
 
 
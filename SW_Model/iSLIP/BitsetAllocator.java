@@ -0,0 +1,271 @@
+/*
+File:           BitsetAllocator.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+/**
+ * Allocation-free implementation of the iSLIP scheme (output first), see Allocator for the reference implementation:
+ * N. McKeown, “The islip scheduling algorithm for input-queued switches,” IEEE/ACM transactions on networking, vol. 7, no. 2, pp. 188–201, 1999.
+ *
+ * Requests, intermediate grants and busy outputs are kept as long bitmasks (bit i of word i/64).
+ * Round-robin arbitration searches the first set bit at or after the priority with Long.numberOfTrailingZeros,
+ * wrapping around to the start of the mask. Grants and priority updates are identical to those of Allocator.
+ */
+
+package iSLIP;
+
+import router.OutputPort;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+public class BitsetAllocator {
+    /* ********************************************************************************
+     *                                  VARIABLES                                   *
+     ******************************************************************************** */
+    /* Request and grants */
+    private long[] requests;                                    // Requests: bit 'output' of the words of 'input' is set if input requests output
+    private int requestOffset;                                  // Index of the first request word in the requests array
+    private int[] grants;                                       // Grants: output granted to every input (-1 if none)
+
+    /* Internal variables */
+    private int numInputs;                                      // Number of inputs (requesters)
+    private int numOutputs;                                     // Number of outputs (resources)
+    private int inputWords;                                     // Number of words in a mask over the inputs
+    private int outputWords;                                    // Number of words in a mask over the outputs
+
+    /* Scratch masks, reused in every allocation */
+    private long[] outputRequests;                              // Requests per output (transposed requests): inputs requesting this output
+    private long[] inputGrants;                                 // Intermediate grants per input: outputs that granted this input
+
+    /* Arbiter priorities */
+    private int[] inputPriorities;                              // Priorities of the input arbiters
+    private int inputPriorityOffset;                            // Index of the priority of the first input arbiter
+    private int[] outputPriorities;                             // Priorities of the output arbiters
+    private int outputPriorityOffset;                           // Index of the priority of the first output arbiter
+
+    /* Output states */
+    private long[] busyOutputs;                                 // Bit is set if the output resource is ACTIVE, cleared if IDLE
+
+    /* Loggers */
+    private final static Logger debugLogger = Logger.getLogger("debugLogger");
+    private final static Logger resultLogger = Logger.getLogger("resultLogger");
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                               *
+     ******************************************************************************** */
+
+    /**
+     * Constructor for creating an allocation-free allocator (iSLIP scheme)
+     * @param numInputs: number of inputs (requesters)
+     * @param numOutputs: number of outputs (resources)
+     */
+    public BitsetAllocator(int numInputs, int numOutputs){
+        this.numInputs = numInputs;
+        this.numOutputs = numOutputs;
+        this.inputWords = (numInputs + 63) / 64;
+        this.outputWords = (numOutputs + 63) / 64;
+
+        /* Requests and priorities are owned by the allocator until they are bound to external arrays */
+        this.requests = new long[numInputs * outputWords];
+        this.requestOffset = 0;
+        this.inputPriorities = new int[numInputs];
+        this.inputPriorityOffset = 0;
+        this.outputPriorities = new int[numOutputs];
+        this.outputPriorityOffset = 0;
+
+        /* Grants and scratch masks */
+        this.grants = new int[numInputs];
+        Arrays.fill(this.grants, -1);
+        this.outputRequests = new long[numOutputs * inputWords];
+        this.inputGrants = new long[numInputs * outputWords];
+
+        this.busyOutputs = new long[outputWords];
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                              *
+     ******************************************************************************** */
+
+    /**
+     * Simulate allocation according to the iSLIP scheme (output first)
+     */
+    public void simulate(){
+        /* Transpose requests: masks over the inputs for every output */
+        Arrays.fill(outputRequests, 0L);
+        for(int input = 0; input < numInputs; input++){
+            int start = requestOffset + input * outputWords;
+            long inputBit = 1L << input;
+            int inputWord = input >>> 6;
+            for(int w = 0; w < outputWords; w++){
+                long word = requests[start + w];
+                while(word != 0){
+                    int output = (w << 6) + Long.numberOfTrailingZeros(word);
+                    outputRequests[output * inputWords + inputWord] |= inputBit;
+                    word &= word - 1;
+                }
+            }
+        }
+
+        /* Perform arbitration over output arbiters, taking into account the state of the resource */
+        Arrays.fill(inputGrants, 0L);
+        for(int output = 0; output < numOutputs; output++){
+            if((busyOutputs[output >>> 6] & (1L << output)) != 0)
+                continue;
+            int input = roundRobin(outputRequests, output * inputWords, inputWords, outputPriorities[outputPriorityOffset + output]);
+            if(input != -1){
+                inputGrants[input * outputWords + (output >>> 6)] |= 1L << output;
+            }
+        }
+
+        /* Perform arbitration over input arbiters and update priority of arbiters which resulted in a grant */
+        for(int input = 0; input < numInputs; input++){
+            int output = roundRobin(inputGrants, input * outputWords, outputWords, inputPriorities[inputPriorityOffset + input]);
+            grants[input] = output;
+            if(output != -1){
+                inputPriorities[inputPriorityOffset + input] = (output + 1) % numOutputs;
+                outputPriorities[outputPriorityOffset + output] = (input + 1) % numInputs;
+            }
+        }
+    }
+
+    /**
+     * Round-robin arbitration over a mask: the first set bit at or after the priority wins, wrapping around to bit 0.
+     * @param masks: array containing the mask
+     * @param offset: index of the first word of the mask
+     * @param numWords: number of words in the mask
+     * @param priority: bit with the highest priority
+     * @return granted bit, -1 if the mask is empty
+     */
+    private static int roundRobin(long[] masks, int offset, int numWords, int priority){
+        /* Bits at or after the priority */
+        int w = priority >>> 6;
+        long word = masks[offset + w] & (-1L << priority);
+        while(true){
+            if(word != 0){
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            w++;
+            if(w == numWords)
+                break;
+            word = masks[offset + w];
+        }
+
+        /* Wrap around: bits before the priority */
+        for(w = 0; w <= priority >>> 6; w++){
+            word = masks[offset + w];
+            if(w == priority >>> 6)
+                word &= ~(-1L << priority);
+            if(word != 0){
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Add a request: input requests output resource
+     * @param input: input that requests a resource
+     * @param output: output resource that is requested
+     */
+    public void addRequest(int input, int output){
+        this.requests[requestOffset + input * outputWords + (output >>> 6)] |= 1L << output;
+    }
+
+    /**
+     * Check if an input requests an output resource
+     * @param input: input that requests a resource
+     * @param output: output resource that is requested
+     * @return true if the request is pending
+     */
+    public boolean isRequested(int input, int output){
+        return (this.requests[requestOffset + input * outputWords + (output >>> 6)] & (1L << output)) != 0;
+    }
+
+    public void resetAllRequests(int input){
+        int start = requestOffset + input * outputWords;
+        for(int i = start; i < start + outputWords; i++) {
+            this.requests[i] = 0L;
+        }
+    }
+
+    public void updateState(int output, int state){
+        if(state == OutputPort.IDLE) {
+            this.busyOutputs[output >>> 6] &= ~(1L << output);
+        } else {
+            this.busyOutputs[output >>> 6] |= 1L << output;
+        }
+    }
+
+    /**
+     * Output granted to an input in the last allocation
+     * @param input: input (requester)
+     * @return granted output, -1 if the input did not receive a grant
+     */
+    public int getGrant(int input){
+        return this.grants[input];
+    }
+
+    /**
+     * Bind the requests of this allocator to (another) position in an external array (e.g. the network state)
+     * @param requests: array holding the request words
+     * @param requestOffset: index of the first request word of this allocator
+     */
+    public void bindRequests(long[] requests, int requestOffset){
+        this.requests = requests;
+        this.requestOffset = requestOffset;
+    }
+
+    /**
+     * Bind the priorities of all arbiters to (another) position in external arrays (e.g. the network state)
+     * @param inputPriorities: array holding the priorities of the input arbiters
+     * @param inputOffset: index of the priority of the first input arbiter
+     * @param outputPriorities: array holding the priorities of the output arbiters
+     * @param outputOffset: index of the priority of the first output arbiter
+     */
+    public void bindPriorities(int[] inputPriorities, int inputOffset, int[] outputPriorities, int outputOffset){
+        this.inputPriorities = inputPriorities;
+        this.inputPriorityOffset = inputOffset;
+        this.outputPriorities = outputPriorities;
+        this.outputPriorityOffset = outputOffset;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                             *
+     ******************************************************************************** */
+
+    public int getInputPriority(int input) {
+        return inputPriorities[inputPriorityOffset + input];
+    }
+
+    public void setInputPriority(int input, int priority) {
+        this.inputPriorities[inputPriorityOffset + input] = priority;
+    }
+
+    public int getOutputPriority(int output) {
+        return outputPriorities[outputPriorityOffset + output];
+    }
+
+    public void setOutputPriority(int output, int priority) {
+        this.outputPriorities[outputPriorityOffset + output] = priority;
+    }
+
+    public int getNumInputs() {
+        return numInputs;
+    }
+
+    public int getNumOutputs() {
+        return numOutputs;
+    }
+
+    public int getRequestWords() {
+        return outputWords;
+    }
+}
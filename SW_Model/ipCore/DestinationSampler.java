@@ -0,0 +1,410 @@
+/*
+File:           DestinationSampler.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package ipCore;
+
+public class DestinationSampler {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Destination tables of the UNIFORM and HOTSPOT traffic patterns, built once per mesh and shared by all TGs.
+            The destination table of a source contains, in order of node number, 'weight' entries for every other node,
+            followed by filler entries up to the precision. A random number in [0, precision) selects one entry.
+
+            Removing the source from the table only shifts the entries of the nodes after it, so all sources share
+            one table that contains every node. Only sources that are themselves (matched) hotspots change the
+            weights of other nodes when they are left out; they get a dedicated table.
+
+            RENT traffic does not use tables. A source gives every destination at d hops 'scaled[d]' entries, where
+            scaled[d] is the normalised communication probability distribution (CPD) of d hops, scaled such that the
+            entries of all destinations add up to (at most) the precision. The remaining entries belong to the source
+            itself and are rejected by the TG. A random number selects a hop distance from the cumulative entries,
+            and the remainder selects a destination at that distance uniformly.
+            The number of destinations at d hops is the convolution of the per-axis distance profiles of the source,
+            which only depend on the distance of each coordinate to the nearest edge (folded coordinate).
+            Only the CPD and, per folded position, the scale factor and the number of used entries are stored:
+            the entries and destinations at every distance are computed in the linear scan over the distances.
+            Memory is O(N + radix), a sample takes O(radix * maxHops) operations.
+
+            Nodes are numbered as node = x + radix * y + radix * radix * z.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final int PRECISION = 32768;                     // Precision of the destination tables for non-uniform traffic
+
+    private int radix;                                              // Radix of the mesh topology
+    private int numNodes;                                           // Number of nodes in the mesh
+    private int trafficPattern;                                     // Traffic pattern (UNIFORM, HOTSPOT or RENT) of the TGs
+    private int precision;                                          // Number of entries in the destination table of a source
+    private int[] hotspots;                                         // Node numbers of the hotspot routers
+    private double hotSpotFactor;                                   // Factor indicating how much more traffic is sent to hotspot nodes
+
+    /* Shared destination table */
+    private int[] weights;                                          // Number of entries of every node in the shared table
+    private int[] offsets;                                          // Index of the first entry of every node in the shared table
+    private int[] table;                                            // Entries of all nodes, in order of node number
+
+    /* Dedicated destination tables */
+    private int[][] sourceTables;                                   // Table of a source that cannot use the shared table (null otherwise)
+
+    /* Rentian traffic */
+    private int maxHops;                                            // Maximum number of hops in the mesh: 3 * (radix - 1)
+    private int half;                                               // Number of folded coordinates along one axis
+    private int[] axisProfiles;                                     // Number of coordinates at distance k of coordinate c: [c * radix + k]
+    private int[] planeProfiles;                                    // Number of (y,x) positions at distance k of folded (y,x): [(fy * half + fx) * (2 * radix - 1) + k]
+    private double[] CPD;                                           // Normalised communication probability distribution over the hop distance
+    private double[] factors;                                       // Scale factor of the CPD of folded (z,y,x): [(fz * half + fy) * half + fx]
+    private int[] usedEntries;                                      // Entries of all destinations of folded (z,y,x), the rest belongs to the source
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                               *
+     ******************************************************************************** */
+
+    /**
+     * Constructor: builds the destination tables of all sources of the mesh
+     * @param radix: radix of the mesh
+     * @param hotspots: array containing number of routers that are hotspot routers
+     * @param hotSpotFactor: factor indicating how much more traffic is sent to hotspot nodes
+     * @param rentExponent: rent exponent
+     */
+    public DestinationSampler(int radix, int[] hotspots, double hotSpotFactor, double rentExponent){
+        this.radix = radix;
+        this.numNodes = radix * radix * radix;
+        this.hotspots = hotspots;
+        this.hotSpotFactor = hotSpotFactor;
+
+        if(hotSpotFactor != 1.0 || rentExponent != 1.0)
+            this.precision = PRECISION;
+        else
+            this.precision = numNodes - 1;
+
+        if(hotSpotFactor == 1 && rentExponent == 1){
+            this.trafficPattern = TrafficGenerator.UNIFORM;
+        } else if(hotSpotFactor != 1){
+            this.trafficPattern = TrafficGenerator.HOTSPOT;
+        } else {
+            this.trafficPattern = TrafficGenerator.RENT;
+        }
+
+        if(trafficPattern == TrafficGenerator.RENT)
+            this.createRentModel(rentExponent);
+        else
+            this.createTables();
+    }
+
+
+    /* ********************************************************************************
+     *                         CONSTRUCTOR HELP FUNCTIONS                           *
+     ******************************************************************************** */
+
+    /**
+     * Help function that builds the shared table and the dedicated tables of the hotspot sources
+     */
+    private void createTables(){
+        /* Number of entries for hotspot and normal nodes */
+        int hotspotNodes = this.hotspots.length;
+        int normalNodes = numNodes - 1 - hotspotNodes;
+        double base_prob = 1.0 / (normalNodes + hotSpotFactor * hotspotNodes);
+        double hs_prob = hotSpotFactor * base_prob;
+        int base = (int) (base_prob * this.precision);
+        int hs = (int) (hs_prob * this.precision);
+
+        /* Weights of all nodes: hotspots are matched in order of node number */
+        this.weights = new int[numNodes];
+        this.offsets = new int[numNodes + 1];
+        boolean[] matchedHotspot = new boolean[numNodes];
+        int current_hs = 0;
+        for(int i = 0; i < numNodes; i++){
+            if(current_hs < hotspots.length && i == hotspots[current_hs]){
+                weights[i] = hs;
+                matchedHotspot[i] = true;
+                current_hs++;
+            } else {
+                weights[i] = base;
+            }
+            offsets[i + 1] = offsets[i] + weights[i];
+        }
+
+        /* Shared table */
+        this.table = new int[offsets[numNodes]];
+        for(int i = 0; i < numNodes; i++){
+            for(int j = offsets[i]; j < offsets[i + 1]; j++){
+                table[j] = i;
+            }
+        }
+
+        /* Dedicated tables for matched hotspot sources */
+        this.sourceTables = new int[numNodes][];
+        for(int i = 0; i < numNodes; i++){
+            if(matchedHotspot[i]){
+                sourceTables[i] = this.buildTable(i, base, hs);
+            }
+        }
+    }
+
+    /**
+     * Help function that builds the compact Rentian traffic model
+     * @param rentExponent: rent exponent
+     */
+    private void createRentModel(double rentExponent){
+        int N = numNodes;
+        this.maxHops = 3*(radix-1);
+        this.half = (radix + 1) / 2;
+
+        /* Communication probability distribution over the hop distance */
+        double[] P = new double[maxHops +1];
+        this.CPD = new double[maxHops +1];
+        double CPD_total = 0.0;
+        for(int d = 1; d < maxHops +1; d++){
+            /* Compute P(d) */
+            P[d] = 1.0/(4*d) * ( Math.pow(1+d*(d-1),rentExponent) - Math.pow(d*(d-1), rentExponent) + Math.pow(d*(d+1), rentExponent) - Math.pow(1+d*(d+1), rentExponent) );
+
+            /* Compute CPD */
+            double sum = 0.0;
+            for(int i = 1; i < 2*Math.sqrt(N)-2; i++){
+                if(Math.sqrt(N) + i - d <= Math.sqrt(N) && Math.sqrt(N) + i - d > 0){
+                    sum += (Math.sqrt(N) - i) * (Math.sqrt(N) + i - d);
+                }
+            }
+            CPD[d] = P[d] * sum;
+            CPD_total += CPD[d];
+        }
+
+        /* Normalize CPD */
+        for(int d = 0; d < CPD.length; d++){
+            CPD[d] = CPD[d]/CPD_total;
+        }
+
+        /* Distance profile along one axis: number of coordinates at distance k of coordinate c */
+        this.axisProfiles = new int[radix * radix];
+        for(int c = 0; c < radix; c++){
+            for(int c_d = 0; c_d < radix; c_d++){
+                axisProfiles[c * radix + Math.abs(c_d - c)]++;
+            }
+        }
+
+        /* Distance profile in the (y,x) plane: convolution of the axis profiles */
+        int planeHops = 2 * radix - 1;
+        this.planeProfiles = new int[half * half * planeHops];
+        for(int fy = 0; fy < half; fy++){
+            for(int fx = 0; fx < half; fx++){
+                int offset = (fy * half + fx) * planeHops;
+                for(int ky = 0; ky < radix; ky++){
+                    for(int kx = 0; kx < radix; kx++){
+                        planeProfiles[offset + ky + kx] += axisProfiles[fy * radix + ky] * axisProfiles[fx * radix + kx];
+                    }
+                }
+            }
+        }
+
+        /* Scale CPD such that the entries of every source add up to the precision */
+        int hops = maxHops + 1;
+        this.factors = new double[half * half * half];
+        this.usedEntries = new int[half * half * half];
+        for(int fz = 0; fz < half; fz++){
+            for(int fy = 0; fy < half; fy++){
+                for(int fx = 0; fx < half; fx++){
+                    int planeOffset = (fy * half + fx) * planeHops;
+                    double total = 0.0;
+                    for(int d = 0; d < hops; d++){
+                        total += this.destinationsAtHops(fz, planeOffset, d) * CPD[d];
+                    }
+                    double factor = precision / total;
+
+                    int used = 0;
+                    for(int d = 0; d < hops; d++){
+                        used += this.destinationsAtHops(fz, planeOffset, d) * Math.max((int) (CPD[d] * factor), 0);
+                    }
+                    int folded = (fz * half + fy) * half + fx;
+                    factors[folded] = factor;
+                    usedEntries[folded] = used;
+                }
+            }
+        }
+    }
+
+    /**
+     * Help function: number of destinations at d hops of a source, convolution of its z profile and (y,x) plane profile
+     * @param fz: folded z coordinate of the source
+     * @param planeOffset: offset of the plane profile of the folded (y,x) coordinates of the source
+     * @param d: hop distance
+     * @return number of destinations at d hops
+     */
+    private int destinationsAtHops(int fz, int planeOffset, int d){
+        int planeHops = 2 * radix - 1;
+        int count = 0;
+        for(int kz = Math.max(0, d - planeHops + 1); kz <= Math.min(radix - 1, d); kz++){
+            count += axisProfiles[fz * radix + kz] * planeProfiles[planeOffset + d - kz];
+        }
+        return count;
+    }
+
+    /**
+     * Help function that builds the complete destination table of one source
+     * @param current: node number of the source
+     * @param base: number of entries of a normal node
+     * @param hs: number of entries of a hotspot node
+     * @return destination table of the source
+     */
+    private int[] buildTable(int current, int base, int hs){
+        int[] destinations = new int[this.precision];
+        int current_hs = 0;
+        int index = 0;
+        for (int i = 0; i < numNodes; i++) {
+            if (i != current) {
+                if (current_hs < hotspots.length && i == hotspots[current_hs]) {
+                    for (int j = 0; j < hs; j++) {
+                        destinations[index] = i;
+                        index++;
+                    }
+                    current_hs++;
+                } else {
+                    for (int j = 0; j < base; j++) {
+                        destinations[index] = i;
+                        index++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < this.precision - index; i++) {
+            destinations[index + i] = this.filler(current, i);
+        }
+        return destinations;
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                              *
+     ******************************************************************************** */
+
+    /**
+     * Select the destination of a source
+     * @param current: node number of the source
+     * @param rand_nr: random number in [0, precision)
+     * @return node number of the destination
+     */
+    public int sample(int current, int rand_nr){
+        if(trafficPattern == TrafficGenerator.RENT)
+            return this.sampleRent(current, rand_nr);
+
+        if(sourceTables[current] != null)
+            return sourceTables[current][rand_nr];
+
+        /* Entries of the nodes after the source are shifted by the weight of the source */
+        if(rand_nr < offsets[current])
+            return table[rand_nr];
+        int shifted = rand_nr + weights[current];
+        if(shifted < table.length)
+            return table[shifted];
+        return this.filler(current, shifted - table.length);
+    }
+
+    /**
+     * Select the destination of a source for Rentian traffic
+     * @param current: node number of the source
+     * @param rand_nr: random number in [0, precision)
+     * @return node number of the destination, the source itself if the random number selects an unused entry
+     */
+    private int sampleRent(int current, int rand_nr){
+        int x_s = current % radix;
+        int y_s = (current / radix) % radix;
+        int z_s = current / (radix * radix);
+        int fx = Math.min(x_s, radix - 1 - x_s);
+        int fy = Math.min(y_s, radix - 1 - y_s);
+        int fz = Math.min(z_s, radix - 1 - z_s);
+        int folded = (fz * half + fy) * half + fx;
+        int planeHops = 2 * radix - 1;
+        int planeOffset = (fy * half + fx) * planeHops;
+
+        /* Unused entries at the end of the table belong to the source */
+        if(rand_nr >= usedEntries[folded])
+            return current;
+
+        /* Select the hop distance: scan the entries of all destinations at d hops */
+        double factor = factors[folded];
+        int d = 0;
+        int scaled = 0;
+        int previous = 0;
+        while(true){
+            scaled = Math.max((int) (CPD[d] * factor), 0);
+            int entries = this.destinationsAtHops(fz, planeOffset, d) * scaled;
+            if(rand_nr < previous + entries)
+                break;
+            previous += entries;
+            d++;
+        }
+        int rank = (rand_nr - previous) / scaled;
+
+        /* Select destination number 'rank' at d hops: in order of z, y and x coordinate */
+        for(int z_d = 0; z_d < radix; z_d++){
+            int remaining = d - Math.abs(z_d - z_s);
+            if(remaining < 0 || remaining >= planeHops)
+                continue;
+            int inPlane = planeProfiles[planeOffset + remaining];
+            if(rank >= inPlane){
+                rank -= inPlane;
+                continue;
+            }
+            for(int y_d = 0; y_d < radix; y_d++){
+                int remainingX = remaining - Math.abs(y_d - y_s);
+                if(remainingX < 0 || remainingX >= radix)
+                    continue;
+                int inRow = axisProfiles[x_s * radix + remainingX];
+                if(rank >= inRow){
+                    rank -= inRow;
+                    continue;
+                }
+                int x_d = x_s - remainingX;
+                if(x_d < 0 || rank == 1)
+                    x_d = x_s + remainingX;
+                return x_d + radix * y_d + radix * radix * z_d;
+            }
+        }
+        throw new RuntimeException("No destination at " + d + " hops of node " + current);
+    }
+
+    /**
+     * Filler entry at the end of the destination table of a source
+     * @param current: node number of the source
+     * @param i: index of the filler entry
+     * @return node number of the destination
+     */
+    private int filler(int current, int i){
+        if (i != current)
+            return i % numNodes;
+        else
+            return i + 1;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                             *
+     ******************************************************************************** */
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getTrafficPattern() {
+        return trafficPattern;
+    }
+
+    public int getRadix() {
+        return radix;
+    }
+
+    public int[] getHotspots() {
+        return hotspots;
+    }
+
+    public double getHotSpotFactor() {
+        return hotSpotFactor;
+    }
+}
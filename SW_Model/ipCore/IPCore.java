@@ -20,10 +20,14 @@ import building_blocks.Credit;
 import building_blocks.CreditChannel;
 import building_blocks.Flit;
 import building_blocks.FlitChannel;
+import building_blocks.PackedFlit;
 import memory.MemoryIPCore;
 import memory.MemoryTG;
 import memory.MemoryTR;
+import memory.NetworkState;
+import memory.NetworkStatistics;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class IPCore {
@@ -66,15 +70,19 @@ public class IPCore {
      * @param outputCreditChannel: channel used for sending credits from IP core to router
      * @param inputChannel: channel used for sending flits from router to IP core
      * @param inputCreditChannel: channel used for sending credits from router to IP core
+     * @param networkState: network state holding the TG credits and VC states
+     * @param node: node of this IP core in the network state
+     * @param destinationSampler: destination tables of all sources
+     * @param statistics: running network statistics of the cluster
      */
     public IPCore(int[] position, int radix, int numVCs, int bufferSize, int sourceQueueSize, int flitsPerPacket, int prob, int precision, int[] hotspots, double hotSpotFactor, double rentExponent,
-                  FlitChannel outputChannel, CreditChannel outputCreditChannel, FlitChannel inputChannel, CreditChannel inputCreditChannel){
+                  FlitChannel outputChannel, CreditChannel outputCreditChannel, FlitChannel inputChannel, CreditChannel inputCreditChannel, NetworkState networkState, int node, DestinationSampler destinationSampler, NetworkStatistics statistics){
 
         /* Create Traffic Generator */
-        this.trafficGenerator = new TrafficGenerator(position, radix, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, outputChannel, outputCreditChannel);
+        this.trafficGenerator = new TrafficGenerator(position, radix, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, outputChannel, outputCreditChannel, networkState, node, destinationSampler, statistics);
 
         /* Create Traffic Receiver */
-        this.trafficReceiver = new TrafficReceiver(position);
+        this.trafficReceiver = new TrafficReceiver(position, statistics);
 
         this.numVCs = numVCs;
 
@@ -108,17 +116,18 @@ public class IPCore {
      * Analyze the content and send credit back if needed.
      */
     public void receiveFlit(){
-        Flit receivedFlit = this.inputChannel.removeFlit();
+        long nodes = this.inputChannel.getNodes();
+        long receivedFlit = this.inputChannel.removeFlit();
 
-        if(receivedFlit.getType() != Flit.ZERO_FLIT){
-            this.trafficReceiver.receiveFlit(receivedFlit);
+        if(PackedFlit.getType(receivedFlit) != Flit.ZERO_FLIT){
+            this.trafficReceiver.receiveFlit(receivedFlit, nodes);
 
             /* Send credit to upstream router */
-            Credit credit = new Credit(receivedFlit.getVC());
+            Credit credit = Credit.forVC(PackedFlit.getVC(receivedFlit));
             //storeCredit(credit);
             this.inputCreditChannel.addCredit(credit);
         } else {
-            this.inputCreditChannel.addCredit(new Credit());
+            this.inputCreditChannel.addCredit(Credit.ZERO);
         }
     }
 
@@ -131,6 +140,15 @@ public class IPCore {
             this.trafficReceiver.updateNetworkTime();
     }
 
+    /**
+     * Advance the time of an idle IP core by several cycles without simulating it (see DirectMesh.fastForward)
+     * @param cycles: number of cycles
+     */
+    public void advanceIdleCycles(int cycles){
+        this.trafficGenerator.advanceIdleCycles(cycles);
+        this.trafficReceiver.advanceIdleCycles(cycles);
+    }
+
     /**
      * Load state from memory into this IP Core
      * @param memoryIPCore: memory element containing all information about this IP core
@@ -139,11 +157,7 @@ public class IPCore {
         /* Traffic Generator fields */
         MemoryTG memTG = memoryIPCore.getTrafficGenerator();
         this.trafficGenerator.setPosition(memTG.getPosition());
-        for(int i = 0; i < numVCs; i++){
-            this.trafficGenerator.getCredits()[i] = memTG.getCredits()[i];
-            this.trafficGenerator.getStates()[i] = memTG.getStates()[i];
-
-        }
+        memTG.getNetworkState().copyTGState(memTG.getNode(), this.trafficGenerator.getNetworkState(), this.trafficGenerator.getNode());
         this.trafficGenerator.getSourceQueue().clear();
         for(int i = 0; i < memTG.getSourceQueue().size(); i++){
             this.trafficGenerator.getSourceQueue().add(memTG.getSourceQueue().get(i));
@@ -152,6 +166,8 @@ public class IPCore {
         this.trafficGenerator.setPacketToSend(memTG.getPacketToSend());
         this.trafficGenerator.setNetworkTime(memTG.getNetworkTime());
         this.trafficGenerator.setLocalTime(memTG.getLocalTime());
+        this.trafficGenerator.setNextGenerationTime(memTG.getNextGenerationTime());
+        this.trafficGenerator.setRandomState(memTG.getRandomState());
 
         /* Traffic Receiver fields */
         MemoryTR memTR = memoryIPCore.getTrafficReceiver();
@@ -168,11 +184,56 @@ public class IPCore {
         this.trafficReceiver.setNetworkTime(memTR.getNetworkTime());
 
         /* Update ID */
-        int[] position = memoryIPCore.getPosition();
+        this.updateIDs(memoryIPCore.getPosition());
+
+    }
+
+    /**
+     * Bind this IP core to the state held in memory (zero-copy alternative to loadState).
+     * The TG is bound to the node of the memory element in the network state and the source queue is used by reference,
+     * only scalar fields are copied.
+     * Use MemoryIPCore.storeBoundIPCore to store the IP core again.
+     * @param memoryIPCore: memory element containing all information about this IP core
+     */
+    public void bindState(MemoryIPCore memoryIPCore){
+        /* Traffic Generator fields */
+        MemoryTG memTG = memoryIPCore.getTrafficGenerator();
+        this.trafficGenerator.setPosition(memTG.getPosition());
+        this.trafficGenerator.bindState(memTG.getNetworkState(), memTG.getNode());
+        this.trafficGenerator.setSourceQueue(memTG.getSourceQueue());
+        this.trafficGenerator.setAllocatePriority(memTG.getAllocatePriority());
+        this.trafficGenerator.setPacketToSend(memTG.getPacketToSend());
+        this.trafficGenerator.setNetworkTime(memTG.getNetworkTime());
+        this.trafficGenerator.setLocalTime(memTG.getLocalTime());
+        this.trafficGenerator.setNextGenerationTime(memTG.getNextGenerationTime());
+        this.trafficGenerator.setRandomState(memTG.getRandomState());
+
+        /* Traffic Receiver fields */
+        MemoryTR memTR = memoryIPCore.getTrafficReceiver();
+        this.trafficReceiver.setPosition(memTR.getPosition());
+        this.trafficReceiver.setNumReceivedPackets(memTR.getNumReceivedPackets());
+        this.trafficReceiver.setNumReceivedFlits(memTR.getNumReceivedFlits());
+        this.trafficReceiver.setAveragePacketLatency(memTR.getAveragePacketLatency());
+        this.trafficReceiver.setMinPacketLatency(memTR.getMinPacketLatency());
+        this.trafficReceiver.setMaxPacketLatency(memTR.getMaxPacketLatency());
+        this.trafficReceiver.setAverageHops(memTR.getAverageHops());
+        this.trafficReceiver.setMinHops(memTR.getMinHops());
+        this.trafficReceiver.setMaxHops(memTR.getMaxHops());
+        this.trafficReceiver.setNetworkTime(memTR.getNetworkTime());
+
+        /* IDs are only needed for debug logging */
+        if(debugLogger.isLoggable(Level.FINE))
+            this.updateIDs(memoryIPCore.getPosition());
+    }
+
+    /**
+     * Rebuild the identifiers of the IP core, TG and TR
+     * @param position: position of the connected router
+     */
+    private void updateIDs(int[] position){
         this.ID = "node_" + position[0] + "." + position[1];
         this.trafficGenerator.setID("TG@[" + position[0] + "," + position[1] + "," + position[2] + "]");
         this.trafficReceiver.setID("TR_node_" + position[0] + "." + position[1] + "." + position[2]);
-
     }
 
     /**
@@ -0,0 +1,106 @@
+/*
+File:           RandomStream.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package ipCore;
+
+public class RandomStream {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Random stream of one node (SplitMix64): the complete state is a single long, which is stored and restored
+            with the TG state (see MemoryTG), exactly like the clocks of the TG.
+            The stream of a node is derived from (experiment seed, node number) only. Every node draws its own numbers
+            in the order of its own local time, so the traffic does not depend on the cluster size, the number of
+            threads or the engine that simulates the node: the same seed gives bit-identical results.
+            The streams of different nodes start at well separated (hashed) points of the same 2^64 cycle.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final long DEFAULT_SEED = 1;                      // Seed of a mesh of which the seed is not set
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;   // Increment of the state (odd, golden ratio)
+
+    private long state;
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Constructor: stream of a node
+     * @param seed: seed of the experiment
+     * @param node: node number (x + radix * y + radix * radix * z)
+     */
+    public RandomStream(long seed, int node){
+        this.seed(seed, node);
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Restart the stream of a node
+     * @param seed: seed of the experiment
+     * @param node: node number (x + radix * y + radix * radix * z)
+     */
+    public void seed(long seed, int node){
+        this.state = mix64(mix64(seed) + GOLDEN_GAMMA * (node + 1L));
+    }
+
+    /**
+     * @return next 64 random bits
+     */
+    public long nextLong(){
+        this.state += GOLDEN_GAMMA;
+        return mix64(this.state);
+    }
+
+    /**
+     * @return uniform random number in [0,1)
+     */
+    public double nextDouble(){
+        return (this.nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Uniform random int in [0, bound), by multiplication of 32 random bits (bias below bound / 2^32)
+     * @param bound: upper bound (exclusive), positive
+     * @return random int
+     */
+    public int nextInt(int bound){
+        return (int) (((this.nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Finalizer of SplitMix64 (variant 13 of Stafford's mixers)
+     * @param z: value to mix
+     * @return mixed value
+     */
+    private static long mix64(long z){
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                             *
+     ******************************************************************************** */
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
@@ -17,11 +17,11 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 package ipCore;
 
 import building_blocks.*;
-import mesh.ClusteredMesh;
+import memory.NetworkState;
+import memory.NetworkStatistics;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +35,7 @@ public class TrafficGenerator {
     public static final int DRAIN_PHASE = 2;
     public static final int IDLE = 0;
     public static final int ASSIGNED = 1;
+    public static final int NEVER = Integer.MAX_VALUE / 2;          // Gap of a TG that does not generate packets (injection rate 0)
 
     /* TRAFFIC PATTERNS */
     public static final int UNIFORM = 0;
@@ -47,8 +48,11 @@ public class TrafficGenerator {
     private int[] position;                                         // Position of the router: (z,y,x) coordinates
     private int radix;                                              // Radix of the mesh topology (n x n x n mesh has radix n)
     private int flitsPerPacket;                                     // Number of flits in each packet
-    private int[] credits;                                          // Number of credits available for each VC
-    private int[] states;                                           // States of the VC (ASSIGNED / IDLE)
+    private NetworkState networkState;                              // Network state holding the credits and VC states
+    private int node;                                               // Node of this TG in the network state
+    private int[] credits;                                          // Number of credits available for each VC (network state array)
+    private int[] states;                                           // States of the VC (ASSIGNED / IDLE) (network state array)
+    private int vcOffset;                                           // Index of VC 0 of this TG in the credits and states arrays
     private int numVCs;                                             // Number of Virtual channels
     private int phase;                                              // Phase of the network: Warm-up, measurement or drain
     private String ID;                                              // Identifier for debugging purposes.
@@ -64,8 +68,10 @@ public class TrafficGenerator {
     private int networkTime;                                        // Time of the complete network
 
     /* Traffic generation related variables */
-    private int[] probArray;                                        // Array used to generate packet with certain probability
     private int precision;                                          // Precision of probability: (prob/precision)
+    private double injectionRate;                                   // Probability that a packet is generated in a cycle (prob/precision)
+    private int nextGenerationTime;                                 // Local time of the next packet (geometric inter-arrival time), -1 if not drawn yet
+    private RandomStream random;                                    // Random stream of the node (state stored with the TG state)
     private int allocatePriority;                                   // Used for allocation of Virtual Channels
     private int packetToSend;                                       // Used for Round-Robin scheme in flits over VCs
 
@@ -73,7 +79,7 @@ public class TrafficGenerator {
     /* Debugging and analysis */
     private int numGeneratedPackets;                                // Number of generated packets
 
-    private int[] destinations;
+    private DestinationSampler destinationSampler;                  // Destination tables of all sources (shared by all TGs)
     private int[] hotspots;
     private double hotSpotFactor;
 
@@ -87,6 +93,7 @@ public class TrafficGenerator {
     private int localTime;
     boolean stopTG;
     private int sourceQueuesize;
+    private NetworkStatistics statistics;                           // Running network statistics (stall votes)
 
 
     /* Loggers */
@@ -112,9 +119,13 @@ public class TrafficGenerator {
      * @param rentExponent: rent exponent
      * @param flitQueue: channel used for transmitting flits to the router
      * @param creditChannel: channel used for receiving credits from the router
+     * @param networkState: network state holding the credits and VC states
+     * @param node: node of this TG in the network state
+     * @param destinationSampler: destination tables of all sources
+     * @param statistics: running network statistics, updated with the stall vote of this TG
      */
     public TrafficGenerator(int[] position, int radix, int numVCs, int bufferSize, int sourceQueuesize, int flitsPerPacket, int prob, int precision, int[] hotspots, double hotSpotFactor, double rentExponent,
-                            FlitChannel flitQueue, CreditChannel creditChannel){
+                            FlitChannel flitQueue, CreditChannel creditChannel, NetworkState networkState, int node, DestinationSampler destinationSampler, NetworkStatistics statistics){
         /* Traffic generator variables */
         this.radix = radix;
         this.position = position;
@@ -127,20 +138,14 @@ public class TrafficGenerator {
         /* Network time */
         this.networkTime = 0;
 
-        /* Create prob array */
+        /* Injection rate: the time of the first packet is drawn in the first cycle */
         this.precision = precision;
-        this.probArray = new int[precision];
-        for(int i = 0; i < prob; i++){
-            probArray[i] = 1;
-        }
+        this.injectionRate = (1.0 * prob) / precision;
+        this.nextGenerationTime = -1;
+        this.random = new RandomStream(RandomStream.DEFAULT_SEED, position[2] + radix * position[1] + radix * radix * position[0]);
 
         /* Internal variables */
-        this.credits = new int[numVCs];
-        this.states = new int[numVCs];
-        for(int i = 0; i < numVCs; i++){
-            this.credits[i] = bufferSize;
-            this.states[i] = this.IDLE;
-        }
+        this.bindState(networkState, node);
         this.allocatePriority = 0;
 
 
@@ -156,13 +161,9 @@ public class TrafficGenerator {
         /* Debugging and analysis */
         this.numGeneratedPackets = 0;
 
-        /* Destination array */
-        if(hotSpotFactor != 1.0 || rentExponent != 1.0)
-            this.destPrec = ClusteredMesh.DEST_PREC;
-        else
-            this.destPrec = radix*radix*radix-1;
-
-        this.destinations = new int[this.destPrec];
+        /* Destination tables */
+        this.destinationSampler = destinationSampler;
+        this.destPrec = destinationSampler.getPrecision();
         this.hotspots = hotspots;
         this.hotSpotFactor = hotSpotFactor;
 
@@ -180,6 +181,7 @@ public class TrafficGenerator {
         this.localTime = 0;
         this.stopTG = false;
         this.sourceQueuesize = sourceQueuesize;
+        this.statistics = statistics;
 
     }
 
@@ -220,12 +222,22 @@ public class TrafficGenerator {
 
     /**
      * Uniform Random Packet generation. Create a packet descriptor and add it to the source queue.
+     * - - - IMPORTANT - - -
+     *      A packet is generated with probability prob/precision in every cycle of the local time (Bernoulli trials).
+     *      Instead of a draw per cycle, the number of cycles until the next packet is drawn from the geometric
+     *      distribution (see drawGap) and the TG counts down to it: one draw per packet, for any injection rate.
+     *      The local time only advances in cycles in which this function is called, so the process is the same.
      */
     private void generatePacket(){
-        /* Randomly select element out of probArray: probability prob/precision to find 1 */
-        int r = ThreadLocalRandom.current().nextInt(0, this.precision);
+        /* No packets during the drain phase */
+        if(this.phase == DRAIN_PHASE)
+            return;
+
+        if(this.nextGenerationTime < 0)
+            this.nextGenerationTime = this.localTime + drawGap(this.injectionRate, this.random);
+        if(this.localTime >= this.nextGenerationTime){
+            this.nextGenerationTime = this.localTime + 1 + drawGap(this.injectionRate, this.random);
 
-        if(probArray[r] == 1 && this.phase != DRAIN_PHASE ){
             int[] destination = createDestination();
             int numberOfFlits = this.flitsPerPacket;
             int generatedTime = this.localTime +1 + 1;
@@ -234,7 +246,8 @@ public class TrafficGenerator {
             /* Add packet descriptor to source queue */
             this.sourceQueue.add(packetDescriptor);
 
-            debugLogger.log(Level.FINER,"New packet created with destination R["+ destination[0] + "," + destination[1] + "," + destination[2] + "]");
+            if(debugLogger.isLoggable(Level.FINER))
+                debugLogger.log(Level.FINER,"New packet created with destination R["+ destination[0] + "," + destination[1] + "," + destination[2] + "]");
 
             this.numGeneratedPackets++;
         }
@@ -255,10 +268,10 @@ public class TrafficGenerator {
                 int end = allocatePriority + this.numVCs;
                 for(int j = start; j < end; j++){
                     int index = j % numVCs;
-                    if(states[index] == this.IDLE){
+                    if(states[vcOffset + index] == this.IDLE){
                         /* allocate VC */
                         packetDescriptor.setAllocatedVC(index);
-                        states[index] = this.ASSIGNED;
+                        states[vcOffset + index] = this.ASSIGNED;
                         allocatePriority = (index + 1) % numVCs;
                         break;
                     } else if(j == end-1){
@@ -283,7 +296,7 @@ public class TrafficGenerator {
 
             int VC = packetDescriptor.getAllocatedVC();
             /* If this packet descriptor has a VC allocated: send a flit */
-            if(packetDescriptor.getAllocatedVC() != -1 && this.credits[VC] > 0){
+            if(packetDescriptor.getAllocatedVC() != -1 && this.credits[vcOffset + VC] > 0){
                 int timestamp = packetDescriptor.getGenerationTime();
                 int payload = packetDescriptor.getNumberOfFlits() - packetDescriptor.getRemainingFlits();
                 int[] destination = packetDescriptor.getDestination();
@@ -297,7 +310,7 @@ public class TrafficGenerator {
                     type = Flit.TAIL_FLIT;
 
                     /* Deallocate VC */
-                    states[VC] = this.IDLE;
+                    states[vcOffset + VC] = this.IDLE;
 
                     /* Remove packet descriptor from SourceQueue */
                     this.sourceQueue.remove(packetNumber);
@@ -307,11 +320,12 @@ public class TrafficGenerator {
                     packetDescriptor.decreaseRemainingFlits();
                 }
 
-                Flit generatedFlit = new Flit(type, timestamp, payload, destination, this.position);
-                generatedFlit.setVC(VC);
-                this.credits[VC]--;
-                this.flitQueue.addFlit(generatedFlit);
-                debugLogger.log(Level.FINEST, generatedFlit + " added to channel at " + this.toString());
+                long generatedFlit = PackedFlit.control(type, VC, payload, timestamp);
+                long nodes = PackedFlit.nodes(this.position, destination);
+                this.credits[vcOffset + VC]--;
+                this.flitQueue.addFlit(generatedFlit, nodes);
+                if(debugLogger.isLoggable(Level.FINEST))
+                    debugLogger.log(Level.FINEST, PackedFlit.toString(generatedFlit, nodes) + " added to channel at " + this.toString());
                 flitSend = true;
 
                 /* Update packetToSend such that next cycle other VC is used */
@@ -320,7 +334,7 @@ public class TrafficGenerator {
         }
         if(!flitSend){
             /* If no flit is sent, add dummy flit. */
-            this.flitQueue.addFlit(new Flit());
+            this.flitQueue.addZeroFlit();
         }
     }
 
@@ -331,60 +345,26 @@ public class TrafficGenerator {
         Credit credit = this.creditChannel.removeCredit();
         if(credit.getType() != Credit.ZERO_CREDIT){
             int VC = credit.getVC();
-            this.credits[VC]++;
-            debugLogger.log(Level.FINE, "Credit received at " + this.toString());
+            this.credits[vcOffset + VC]++;
+            if(debugLogger.isLoggable(Level.FINE))
+                debugLogger.log(Level.FINE, "Credit received at " + this.toString());
         }
     }
 
     /**
      * Creates a new destination node according to the currently used traffic pattern
+     * (public such that the destination sampling can be benchmarked on its own)
      * @return: coordinates of the destination node
      */
-    private int[] createDestination(){
+    public int[] createDestination(){
         int[] destination = new int[3];
         int current = position[2] + radix * position[1] + radix * radix * position[0];
 
         /* Hotspot or uniform traffic pattern */
         if(trafficPattern == HOTSPOT || trafficPattern == UNIFORM) {
-            /* Determine probability for hotspot and normal nodes of receiving a packet */
-            int hotspotNodes = this.hotspots.length;
-            int normalNodes = radix * radix * radix - 1 - hotspotNodes;
-            double base_prob = 1.0 / (normalNodes + hotSpotFactor * hotspotNodes);
-            double hs_prob = hotSpotFactor * base_prob;
-
-            /* Make array containing possible destinations.
-            More probable destinations have more entries in the array */
-            int base = (int) (base_prob * this.destPrec);
-            int hs = (int) (hs_prob * this.destPrec);
-            int current_hs = 0;
-            int index = 0;
-            for (int i = 0; i < radix * radix * radix; i++) {
-                if (i != current) {
-                    if (current_hs < hotspots.length && i == hotspots[current_hs]) {
-                        for (int j = 0; j < hs; j++) {
-                            destinations[index] = i;
-                            index++;
-                        }
-                        current_hs++;
-                    } else {
-                        for (int j = 0; j < base; j++) {
-                            destinations[index] = i;
-                            index++;
-                        }
-                    }
-                }
-            }
-            for (int i = 0; i < this.destPrec - index; i++) {
-                if (i != current)
-                    destinations[index + i] = i % (radix * radix * radix);
-                else
-                    destinations[index + i] = i + 1;
-
-            }
-
-            /* Select one destination in the array */
-            int rand_nr = ThreadLocalRandom.current().nextInt(0, this.destPrec);
-            int router = this.destinations[rand_nr];
+            /* Select one destination in the (cached) destination table of this source */
+            int rand_nr = this.random.nextInt(this.destPrec);
+            int router = this.destinationSampler.sample(current, rand_nr);
             int dest_x = router % radix;
             int dest_y = ((router - dest_x) / radix) % radix;
             int dest_z = (router - dest_x - radix * dest_y) / (radix * radix);
@@ -395,8 +375,8 @@ public class TrafficGenerator {
         } else if(trafficPattern == RENT) {
             int router = current;
             while(router == current) {
-                int rand_nr = ThreadLocalRandom.current().nextInt(0, this.destPrec);
-                router = ClusteredMesh.stepsPerDestination.get(current).get(rand_nr);
+                int rand_nr = this.random.nextInt(this.destPrec);
+                router = this.destinationSampler.sample(current, rand_nr);
             }
             int dest_x = router % radix;
             int dest_y = ((router - dest_x) / radix) % radix;
@@ -409,6 +389,50 @@ public class TrafficGenerator {
 
 
 
+    /**
+     * Time of the next packet of this TG, for a fast-forward over idle cycles (see ClusteredMesh.fastForward).
+     * The cycles before it generate no packet and can be skipped; the time is drawn if it was not drawn yet.
+     * @return local time at which the next packet is generated
+     */
+    public int scheduleNextPacket(){
+        if(this.nextGenerationTime < 0)
+            this.nextGenerationTime = this.localTime + drawGap(this.injectionRate, this.random);
+        return this.nextGenerationTime;
+    }
+
+    /**
+     * Draw the number of cycles without packet before the next packet (geometric distribution, inversion method)
+     * @param injectionRate: probability that a packet is generated in a cycle
+     * @param random: random stream of the node
+     * @return number of cycles without packet, NEVER if the injection rate is 0
+     */
+    public static int drawGap(double injectionRate, RandomStream random){
+        if(injectionRate <= 0)
+            return NEVER;
+        if(injectionRate >= 1)
+            return 0;
+        double u = 1.0 - random.nextDouble();                          // Uniform in (0,1]
+        double gap = Math.floor(Math.log(u) / Math.log1p(-injectionRate));
+        return (int) Math.min(gap, NEVER);
+    }
+
+    /**
+     * Advance the time of an idle TG (empty source queue, no stall) by several cycles without simulating it
+     * @param cycles: number of cycles
+     */
+    public void advanceIdleCycles(int cycles){
+        this.networkTime += cycles;
+        this.localTime += cycles;
+    }
+
+    /**
+     * Restart the random stream of this TG from the seed of the experiment and its node number
+     * @param seed: seed of the experiment
+     */
+    public void setSeed(long seed){
+        this.random.seed(seed, position[2] + radix * position[1] + radix * radix * position[0]);
+    }
+
     /**
      * Update network time
      */
@@ -419,9 +443,27 @@ public class TrafficGenerator {
             if(!stopTG){
                 this.localTime++;
             }
+
+            /* Vote to stall the network */
+            if(this.checkNetworkStalling()){
+                this.statistics.addStallVote();
+            }
     }
 
 
+    /**
+     * Bind the credits and VC states of this TG to (another) node in the network state
+     * @param networkState: network state holding the credits and VC states
+     * @param node: node in the network state
+     */
+    public void bindState(NetworkState networkState, int node){
+        this.networkState = networkState;
+        this.node = node;
+        this.credits = networkState.getTgCredits();
+        this.states = networkState.getTgStates();
+        this.vcOffset = networkState.vcIndex(node, 0);
+    }
+
     /**
      * Check if the network needs to be stalled
      * @return: true if network needs to be stalled
@@ -458,20 +500,12 @@ public class TrafficGenerator {
         this.flitsPerPacket = flitsPerPacket;
     }
 
-    public int[] getCredits() {
-        return credits;
-    }
-
-    public void setCredits(int[] credits) {
-        this.credits = credits;
+    public NetworkState getNetworkState() {
+        return networkState;
     }
 
-    public int[] getStates() {
-        return states;
-    }
-
-    public void setStates(int[] states) {
-        this.states = states;
+    public int getNode() {
+        return node;
     }
 
     public int getNumVCs() {
@@ -530,14 +564,6 @@ public class TrafficGenerator {
         this.networkTime = networkTime;
     }
 
-    public int[] getProbArray() {
-        return probArray;
-    }
-
-    public void setProbArray(int[] probArray) {
-        this.probArray = probArray;
-    }
-
     public int getPrecision() {
         return precision;
     }
@@ -546,6 +572,35 @@ public class TrafficGenerator {
         this.precision = precision;
     }
 
+    public double getInjectionRate() {
+        return injectionRate;
+    }
+
+    /**
+     * Change the injection rate, not limited to multiples of 1/precision. The time of the next packet is drawn again.
+     * @param injectionRate: probability that a packet is generated in a cycle
+     */
+    public void setInjectionRate(double injectionRate) {
+        this.injectionRate = injectionRate;
+        this.nextGenerationTime = -1;
+    }
+
+    public int getNextGenerationTime() {
+        return nextGenerationTime;
+    }
+
+    public void setNextGenerationTime(int nextGenerationTime) {
+        this.nextGenerationTime = nextGenerationTime;
+    }
+
+    public long getRandomState() {
+        return random.getState();
+    }
+
+    public void setRandomState(long randomState) {
+        this.random.setState(randomState);
+    }
+
     public int getAllocatePriority() {
         return allocatePriority;
     }
@@ -17,6 +17,8 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 package ipCore;
 
 import building_blocks.Flit;
+import building_blocks.PackedFlit;
+import memory.NetworkStatistics;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -48,6 +50,9 @@ public class TrafficReceiver {
     /* Timing variables */
     private int networkTime;                            // Time of the network
 
+    /* Running statistics of the network, updated for every received packet */
+    private NetworkStatistics statistics;
+
 
     /* Loggers */
     private final static Logger debugLogger = Logger.getLogger("debugLogger");
@@ -59,8 +64,9 @@ public class TrafficReceiver {
 
     /** Constructor for traffic receiver
      * @param position: position of the router: (z,y,x) coordinates
+     * @param statistics: running network statistics, updated for every received packet
      */
-    public TrafficReceiver(int[] position){
+    public TrafficReceiver(int[] position, NetworkStatistics statistics){
         /* Internal variables */
         this.position = position;
         this.ID = "TR_node_" + position[0] + "." + position[1] + "." + position[2];
@@ -78,6 +84,8 @@ public class TrafficReceiver {
         /* Time variables */
         this.networkTime = 0;
 
+        this.statistics = statistics;
+
     }
 
 
@@ -93,30 +101,43 @@ public class TrafficReceiver {
         this.networkTime++;
     }
 
+    /**
+     * Advance the network time of an idle TR by several cycles
+     * @param cycles: number of cycles
+     */
+    public void advanceIdleCycles(int cycles){
+        this.networkTime += cycles;
+    }
+
     /**
      * Ejects flit from network and analyzes information obtained:
      *      Packet latency, number of hops and number of flits/packets received.
-     * @param flit: received flit
+     * @param flit: control word of the received flit
+     * @param nodes: node word of the received flit
      */
-    public void receiveFlit(Flit flit){
-        if (flit.getType() == Flit.HEADER_FLIT) {
-            debugLogger.log(Level.FINER, "Header flit " + flit + " received at node: " + this.toString());
-        } else if(flit.getType() == Flit.BODY_FLIT){
-            debugLogger.log(Level.FINER, "Body flit " + flit + " received at node: " + this.toString());
-        } else {
-            debugLogger.log(Level.FINER, "Tail flit " + flit + " received at node: " + this.toString());
+    public void receiveFlit(long flit, long nodes){
+        int type = PackedFlit.getType(flit);
+        if(debugLogger.isLoggable(Level.FINER)) {
+            if (type == Flit.HEADER_FLIT) {
+                debugLogger.log(Level.FINER, "Header flit " + PackedFlit.toString(flit, nodes) + " received at node: " + this.toString());
+            } else if (type == Flit.BODY_FLIT) {
+                debugLogger.log(Level.FINER, "Body flit " + PackedFlit.toString(flit, nodes) + " received at node: " + this.toString());
+            } else {
+                debugLogger.log(Level.FINER, "Tail flit " + PackedFlit.toString(flit, nodes) + " received at node: " + this.toString());
+            }
         }
 
-        int creationTime = flit.getTimestamp();
+        int creationTime = PackedFlit.getTimestamp(flit);
 
         this.numReceivedFlits++;
 
 
         /* If complete packet is received: compute packet latency */
-        if(flit.getType() == Flit.TAIL_FLIT){
+        if(type == Flit.TAIL_FLIT){
             /* Packet Latency analysis */
             int packetLatency = this.networkTime - creationTime;
-            debugLogger.log(Level.FINEST, "Packet latency: "+ packetLatency);
+            if(debugLogger.isLoggable(Level.FINEST))
+                debugLogger.log(Level.FINEST, "Packet latency: "+ packetLatency);
             this.numReceivedPackets++;
 
             /* Compare with min and max packet latencies */
@@ -132,9 +153,7 @@ public class TrafficReceiver {
             this.averagePacketLatency = k * (packetLatency + (this.numReceivedPackets - 1) * oldAveragePacketLatency);
 
             /* Number of hops analysis */
-            int[] source = flit.getSource();
-            int[] destination = this.position;
-            int hops = flit.getHops();
+            int hops = PackedFlit.getHops(flit);
 
             /* Compare with min and max hops */
             if(hops > this.maxHops)
@@ -146,6 +165,9 @@ public class TrafficReceiver {
             double oldAverageHops = this.averageHops;
             this.averageHops = k * (hops + (this.numReceivedPackets - 1) * oldAverageHops);
 
+            /* Update running statistics of the network */
+            this.statistics.recordPacket(packetLatency, hops);
+
         }
 
     }
@@ -0,0 +1,217 @@
+/*
+File:           CheckpointReader.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package memory;
+
+import building_blocks.Credit;
+import building_blocks.CreditChannel;
+import building_blocks.FlitBuffer;
+import building_blocks.FlitChannel;
+import building_blocks.RingBuffer;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class CheckpointReader implements AutoCloseable {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Binary checkpoint input: the file written by CheckpointWriter is memory-mapped and read in the same order.
+            An in-memory snapshot is read through its own view, such that several readers can share one snapshot.
+            The restored state is written into the existing buffers and arrays of a fresh mesh, such that the
+            references held by bound physical clusters stay valid. A value that does not fit (different array length,
+            buffer overflow) or a truncated file throws a RuntimeException.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    private String name;                            // Checkpoint file or snapshot, used in the error messages
+    private ByteBuffer buffer;
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Map a checkpoint file for reading
+     * @param file: path of the checkpoint file
+     */
+    public CheckpointReader(Path file){
+        this.name = "Checkpoint " + file;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new RuntimeException(name + " is too large to be mapped (" + channel.size() + " bytes)");
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e){
+            throw new RuntimeException("Could not read checkpoint " + file, e);
+        }
+        this.buffer.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Read an in-memory snapshot written by CheckpointWriter (the snapshot itself is not modified)
+     * @param snapshot: snapshot, positioned at its first value
+     */
+    public CheckpointReader(ByteBuffer snapshot){
+        this.name = "Snapshot";
+        this.buffer = snapshot.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    public int readInt(){
+        try {
+            return buffer.getInt();
+        } catch (BufferUnderflowException e){
+            throw new RuntimeException(name + " is truncated", e);
+        }
+    }
+
+    public long readLong(){
+        try {
+            return buffer.getLong();
+        } catch (BufferUnderflowException e){
+            throw new RuntimeException(name + " is truncated", e);
+        }
+    }
+
+    public double readDouble(){
+        try {
+            return buffer.getDouble();
+        } catch (BufferUnderflowException e){
+            throw new RuntimeException(name + " is truncated", e);
+        }
+    }
+
+    public boolean readBoolean(){
+        try {
+            return buffer.get() != 0;
+        } catch (BufferUnderflowException e){
+            throw new RuntimeException(name + " is truncated", e);
+        }
+    }
+
+    /**
+     * Read an int array into an existing array of the same length
+     * @param values: array to fill
+     */
+    public void readInts(int[] values){
+        this.checkLength(values.length);
+        for(int i = 0; i < values.length; i++){
+            values[i] = this.readInt();
+        }
+    }
+
+    /**
+     * Read a long array into an existing array of the same length
+     * @param values: array to fill
+     */
+    public void readLongs(long[] values){
+        this.checkLength(values.length);
+        for(int i = 0; i < values.length; i++){
+            values[i] = this.readLong();
+        }
+    }
+
+    /**
+     * Read the flits of a flit buffer
+     * @param flits: flit buffer to fill (its current flits are removed), null for an edge channel
+     */
+    public void readFlits(FlitBuffer flits){
+        int size = this.readInt();
+        if(flits == null){
+            if(size != -1)
+                throw new RuntimeException(name + " does not match the mesh: flits on an edge channel");
+            return;
+        }
+        if(size < 0)
+            throw new RuntimeException(name + " does not match the mesh: missing channel buffer");
+        flits.clear();
+        for(int i = 0; i < size; i++){
+            long control = this.readLong();
+            flits.add(control, this.readLong());
+        }
+    }
+
+    /**
+     * Read the credits of a credit buffer
+     * @param credits: credit buffer to fill (its current credits are removed), null for an edge channel
+     */
+    public void readCredits(RingBuffer<Credit> credits){
+        int size = this.readInt();
+        if(credits == null){
+            if(size != -1)
+                throw new RuntimeException(name + " does not match the mesh: credits on an edge channel");
+            return;
+        }
+        if(size < 0)
+            throw new RuntimeException(name + " does not match the mesh: missing channel buffer");
+        credits.clear();
+        for(int i = 0; i < size; i++){
+            int VC = this.readInt();
+            credits.add(VC == -1 ? Credit.ZERO : Credit.forVC(VC));
+        }
+    }
+
+    /**
+     * Read the buffers of a (z,y,x) list of flit channels
+     * @param channels: channels to fill
+     */
+    public void readFlitChannels(List<List<List<FlitChannel>>> channels){
+        for(List<List<FlitChannel>> plane : channels){
+            for(List<FlitChannel> row : plane){
+                for(FlitChannel flitChannel : row){
+                    this.readFlits(flitChannel.getChannelBuffer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the buffers of a (z,y,x) list of credit channels
+     * @param channels: channels to fill
+     */
+    public void readCreditChannels(List<List<List<CreditChannel>>> channels){
+        for(List<List<CreditChannel>> plane : channels){
+            for(List<CreditChannel> row : plane){
+                for(CreditChannel creditChannel : row){
+                    this.readCredits(creditChannel.getChannelBuffer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the length of an array and check it against the array to fill
+     * @param length: expected length
+     */
+    private void checkLength(int length){
+        int stored = this.readInt();
+        if(stored != length)
+            throw new RuntimeException(name + " does not match the mesh: array of length " + stored + " instead of " + length);
+    }
+
+    /**
+     * Check that the complete checkpoint was read
+     */
+    @Override
+    public void close(){
+        if(buffer.hasRemaining())
+            throw new RuntimeException(name + " does not match the mesh: " + buffer.remaining() + " bytes left");
+    }
+}
@@ -0,0 +1,238 @@
+/*
+File:           CheckpointWriter.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package memory;
+
+import building_blocks.Credit;
+import building_blocks.CreditChannel;
+import building_blocks.FlitBuffer;
+import building_blocks.FlitChannel;
+import building_blocks.RingBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class CheckpointWriter implements AutoCloseable {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Binary checkpoint output (see ClusteredMesh.saveCheckpoint). Values are written in native byte order
+            into a direct buffer that is flushed to a file channel when it is full: checkpoints are read back
+            on the same machine (CheckpointReader), they are not an exchange format.
+            Buffers and channels are written as a length followed by their elements (oldest first), an edge
+            channel without buffer is written as length -1.
+            Without a file, the values are written into a growing heap buffer that is handed out as a read-only
+            snapshot (see ClusteredMesh.snapshot): the snapshot is never modified, so it can be shared by several
+            meshes that are restored from it.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final int BUFFER_SIZE = 1 << 20;              // Size of the output buffer in bytes
+
+    private FileChannel channel;                    // Null for an in-memory snapshot
+    private ByteBuffer buffer;
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Open a checkpoint file for writing (an existing file is overwritten)
+     * @param file: path of the checkpoint file
+     */
+    public CheckpointWriter(Path file){
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e){
+            throw new RuntimeException("Could not create checkpoint " + file, e);
+        }
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Open an in-memory snapshot for writing
+     */
+    public CheckpointWriter(){
+        this.channel = null;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    public void writeInt(int value){
+        this.ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value){
+        this.ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void writeDouble(double value){
+        this.ensure(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    public void writeBoolean(boolean value){
+        this.ensure(1);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Write an int array (length first)
+     * @param values: array to write
+     */
+    public void writeInts(int[] values){
+        this.writeInt(values.length);
+        for(int value : values){
+            this.writeInt(value);
+        }
+    }
+
+    /**
+     * Write a long array (length first)
+     * @param values: array to write
+     */
+    public void writeLongs(long[] values){
+        this.writeInt(values.length);
+        for(long value : values){
+            this.writeLong(value);
+        }
+    }
+
+    /**
+     * Write the flits of a flit buffer, oldest first
+     * @param flits: flit buffer, null for an edge channel
+     */
+    public void writeFlits(FlitBuffer flits){
+        if(flits == null){
+            this.writeInt(-1);
+            return;
+        }
+        this.writeInt(flits.size());
+        for(int i = 0; i < flits.size(); i++){
+            this.writeLong(flits.getControl(i));
+            this.writeLong(flits.getNodes(i));
+        }
+    }
+
+    /**
+     * Write the credits of a credit buffer, oldest first (VC of the credit, -1 for a zero credit)
+     * @param credits: credit buffer, null for an edge channel
+     */
+    public void writeCredits(RingBuffer<Credit> credits){
+        if(credits == null){
+            this.writeInt(-1);
+            return;
+        }
+        this.writeInt(credits.size());
+        for(int i = 0; i < credits.size(); i++){
+            Credit credit = credits.get(i);
+            this.writeInt(credit.getType() == Credit.ZERO_CREDIT ? -1 : credit.getVC());
+        }
+    }
+
+    /**
+     * Write the buffers of a (z,y,x) list of flit channels
+     * @param channels: channels to write
+     */
+    public void writeFlitChannels(List<List<List<FlitChannel>>> channels){
+        for(List<List<FlitChannel>> plane : channels){
+            for(List<FlitChannel> row : plane){
+                for(FlitChannel flitChannel : row){
+                    this.writeFlits(flitChannel.getChannelBuffer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the buffers of a (z,y,x) list of credit channels
+     * @param channels: channels to write
+     */
+    public void writeCreditChannels(List<List<List<CreditChannel>>> channels){
+        for(List<List<CreditChannel>> plane : channels){
+            for(List<CreditChannel> row : plane){
+                for(CreditChannel creditChannel : row){
+                    this.writeCredits(creditChannel.getChannelBuffer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read-only view of an in-memory snapshot, positioned at its first value
+     * @return the values written so far
+     */
+    public ByteBuffer toSnapshot(){
+        if(channel != null)
+            throw new RuntimeException("Checkpoint is written to a file, not to memory");
+        ByteBuffer snapshot = buffer.duplicate();
+        snapshot.flip();
+        return snapshot.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Make room for a value in the output buffer (an in-memory buffer doubles in size)
+     * @param bytes: size of the value
+     */
+    private void ensure(int bytes){
+        if(buffer.remaining() >= bytes)
+            return;
+        if(channel != null){
+            this.flush();
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity()).order(ByteOrder.nativeOrder());
+        buffer.flip();
+        larger.put(buffer);
+        this.buffer = larger;
+    }
+
+    /**
+     * Write the output buffer to the file
+     */
+    private void flush(){
+        buffer.flip();
+        try {
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        } catch (IOException e){
+            throw new RuntimeException("Could not write checkpoint", e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flush the remaining values and close the file (nothing to do for an in-memory snapshot)
+     */
+    @Override
+    public void close(){
+        if(channel == null)
+            return;
+        this.flush();
+        try {
+            channel.close();
+        } catch (IOException e){
+            throw new RuntimeException("Could not close checkpoint", e);
+        }
+    }
+}
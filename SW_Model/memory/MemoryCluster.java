@@ -76,9 +76,10 @@ public class MemoryCluster {
      * @param numPorts: Number of ports per router
      * @param numVCs: number of VCs per port
      * @param bufferSize: size of the buffer at each input unit (in number of flits)
+     * @param networkState: network state of the whole mesh, holding the state variables of the routers and TGs
      */
     public MemoryCluster(int sizeX, int sizeY, int sizeZ, int[] startPosition, boolean adaptive,
-                         int numPorts, int numVCs, int bufferSize){
+                         int numPorts, int numVCs, int bufferSize, NetworkState networkState){
         this.routers = new ArrayList<List<List<MemoryRouter>>>();
         this.ipcores = new ArrayList<List<List<MemoryIPCore>>>();
 
@@ -101,8 +102,9 @@ public class MemoryCluster {
                     position[0] = startPosition[0] + i;
                     position[1] = startPosition[1] + j;
                     position[2] = startPosition[2] + k;
-                    this.routers.get(i).get(j).add(new MemoryRouter(position, numPorts, numVCs, bufferSize));
-                    this.ipcores.get(i).get(j).add(new MemoryIPCore(position, numVCs, bufferSize));
+                    int node = networkState.nodeIndex(position[0], position[1], position[2]);
+                    this.routers.get(i).get(j).add(new MemoryRouter(position, numPorts, numVCs, bufferSize, networkState, node));
+                    this.ipcores.get(i).get(j).add(new MemoryIPCore(position, numVCs, bufferSize, networkState, node));
                 }
             }
         }
@@ -233,12 +235,21 @@ public class MemoryCluster {
         for(int i = 0; i < sizeZ; i++){
             for(int j = 0; j < sizeY; j++){
                 for(int k = 0; k < sizeX; k++){
-                    this.routers.get(i).get(j).get(k).storeRouter(cluster.getRouters().get(i).get(j).get(k));
-                    this.ipcores.get(i).get(j).get(k).storeIPCore(cluster.getIpCores().get(i).get(j).get(k));
+                    if(cluster.isStateBinding()) {
+                        /* A bound router works directly on this memory element: nothing to store */
+                        this.ipcores.get(i).get(j).get(k).storeBoundIPCore(cluster.getIpCores().get(i).get(j).get(k));
+                    } else {
+                        this.routers.get(i).get(j).get(k).storeRouter(cluster.getRouters().get(i).get(j).get(k));
+                        this.ipcores.get(i).get(j).get(k).storeIPCore(cluster.getIpCores().get(i).get(j).get(k));
+                    }
                 }
             }
         }
 
+        /* Channel buffers of a bound cluster are the buffers of this memory element */
+        if(cluster.isStateBinding())
+            return;
+
         /* Store channels into memory */
         for(int i = 0; i < sizeZ; i++){
             for(int j = 0; j < sizeY; j++){
@@ -267,6 +278,100 @@ public class MemoryCluster {
 
     }
 
+    /**
+     * Write the routers, IP cores and channels of this cluster to a checkpoint
+     * @param out: checkpoint output
+     */
+    public void writeState(CheckpointWriter out){
+        for(int i = 0; i < sizeZ; i++){
+            for(int j = 0; j < sizeY; j++){
+                for(int k = 0; k < sizeX; k++){
+                    this.routers.get(i).get(j).get(k).writeState(out);
+                    this.ipcores.get(i).get(j).get(k).writeState(out);
+                }
+            }
+        }
+
+        /* Channels inside the cluster */
+        out.writeFlitChannels(horizontalFlitChannels1);
+        out.writeFlitChannels(horizontalFlitChannels2);
+        out.writeFlitChannels(verticalFlitChannels1);
+        out.writeFlitChannels(verticalFlitChannels2);
+        out.writeCreditChannels(horizontalCreditChannels1);
+        out.writeCreditChannels(horizontalCreditChannels2);
+        out.writeCreditChannels(verticalCreditChannels1);
+        out.writeCreditChannels(verticalCreditChannels2);
+        out.writeFlitChannels(interPlaneFlitChannels1);
+        out.writeFlitChannels(interPlaneFlitChannels2);
+        out.writeCreditChannels(interPlaneCreditChannels1);
+        out.writeCreditChannels(interPlaneCreditChannels2);
+        out.writeFlitChannels(localInputChannels);
+        out.writeFlitChannels(localOutputChannels);
+        out.writeCreditChannels(localInputCreditChannels);
+        out.writeCreditChannels(localOutputCreditChannels);
+    }
+
+    /**
+     * Read the routers, IP cores and channels of this cluster from a checkpoint (in place)
+     * @param in: checkpoint input
+     */
+    public void readState(CheckpointReader in){
+        for(int i = 0; i < sizeZ; i++){
+            for(int j = 0; j < sizeY; j++){
+                for(int k = 0; k < sizeX; k++){
+                    this.routers.get(i).get(j).get(k).readState(in);
+                    this.ipcores.get(i).get(j).get(k).readState(in);
+                }
+            }
+        }
+
+        /* Channels inside the cluster */
+        in.readFlitChannels(horizontalFlitChannels1);
+        in.readFlitChannels(horizontalFlitChannels2);
+        in.readFlitChannels(verticalFlitChannels1);
+        in.readFlitChannels(verticalFlitChannels2);
+        in.readCreditChannels(horizontalCreditChannels1);
+        in.readCreditChannels(horizontalCreditChannels2);
+        in.readCreditChannels(verticalCreditChannels1);
+        in.readCreditChannels(verticalCreditChannels2);
+        in.readFlitChannels(interPlaneFlitChannels1);
+        in.readFlitChannels(interPlaneFlitChannels2);
+        in.readCreditChannels(interPlaneCreditChannels1);
+        in.readCreditChannels(interPlaneCreditChannels2);
+        in.readFlitChannels(localInputChannels);
+        in.readFlitChannels(localOutputChannels);
+        in.readCreditChannels(localInputCreditChannels);
+        in.readCreditChannels(localOutputCreditChannels);
+    }
+
+    /**
+     * Advance the time of a quiescent cluster by one (non-stalled) cycle without simulating it.
+     * Channels inside a quiescent cluster only carry zero flits and credits, so they do not change.
+     */
+    public void advanceIdleCycle(){
+        for(int i = 0; i < sizeZ; i++){
+            for(int j = 0; j < sizeY; j++){
+                for(int k = 0; k < sizeX; k++){
+                    this.ipcores.get(i).get(j).get(k).advanceIdleCycle();
+                }
+            }
+        }
+    }
+
+    /**
+     * Advance the time of a quiescent cluster by several cycles without simulating it (see ClusteredMesh.fastForward)
+     * @param cycles: number of cycles
+     */
+    public void advanceIdleCycles(int cycles){
+        for(int i = 0; i < sizeZ; i++){
+            for(int j = 0; j < sizeY; j++){
+                for(int k = 0; k < sizeX; k++){
+                    this.ipcores.get(i).get(j).get(k).advanceIdleCycles(cycles);
+                }
+            }
+        }
+    }
+
     /* ********************************************************************************
      *                              GETTERS AND SETTERS                               *
      ******************************************************************************** */
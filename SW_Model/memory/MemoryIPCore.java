@@ -32,10 +32,12 @@ public class MemoryIPCore {
      * Constructor of memory element for IP core.
      * @param position: position of the router
      * @param numVCs: number of virtual channels at each port
+     * @param networkState: network state holding the TG credits and VC states
+     * @param node: node of this IP core in the network state
      */
-    public MemoryIPCore(int[] position, int numVCs, int bufferSize){
+    public MemoryIPCore(int[] position, int numVCs, int bufferSize, NetworkState networkState, int node){
         this.position = position;
-        this.trafficGenerator = new MemoryTG(position, numVCs, bufferSize);
+        this.trafficGenerator = new MemoryTG(position, numVCs, bufferSize, networkState, node);
         this.trafficReceiver = new MemoryTR(position);
     }
 
@@ -54,6 +56,50 @@ public class MemoryIPCore {
         this.trafficReceiver.storeTR(ipCore.getTrafficReceiver());
     }
 
+    /**
+     * Store state variables of an IP core that is bound to this memory element (see IPCore.bindState)
+     * @param ipCore: IP core of which the state variables need to be stored.
+     */
+    public void storeBoundIPCore(IPCore ipCore){
+        this.trafficGenerator.storeBoundTG(ipCore.getTrafficGenerator());
+        this.trafficReceiver.storeTR(ipCore.getTrafficReceiver());
+    }
+
+    /**
+     * Write the state of the TG and TR to a checkpoint
+     * @param out: checkpoint output
+     */
+    public void writeState(CheckpointWriter out){
+        this.trafficGenerator.writeState(out);
+        this.trafficReceiver.writeState(out);
+    }
+
+    /**
+     * Read the state of the TG and TR from a checkpoint
+     * @param in: checkpoint input
+     */
+    public void readState(CheckpointReader in){
+        this.trafficGenerator.readState(in);
+        this.trafficReceiver.readState(in);
+    }
+
+    /**
+     * Advance the time of a quiescent IP core by one (non-stalled) cycle without simulating it
+     */
+    public void advanceIdleCycle(){
+        this.trafficGenerator.advanceIdleCycle();
+        this.trafficReceiver.advanceIdleCycle();
+    }
+
+    /**
+     * Advance the time of an idle IP core by several cycles without simulating it (see ClusteredMesh.fastForward)
+     * @param cycles: number of cycles
+     */
+    public void advanceIdleCycles(int cycles){
+        this.trafficGenerator.advanceIdleCycles(cycles);
+        this.trafficReceiver.advanceIdleCycles(cycles);
+    }
+
 
 
 
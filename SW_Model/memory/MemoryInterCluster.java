@@ -16,6 +16,7 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 
 package memory;
 
+import building_blocks.Credit;
 import building_blocks.CreditChannel;
 import building_blocks.FlitChannel;
 import mesh.Cluster;
@@ -206,6 +207,10 @@ public class MemoryInterCluster {
      * @param physicalCluster
      */
     public void storeInterCluster(Cluster physicalCluster){
+        /* Channel buffers of a bound cluster are the buffers of this memory element */
+        if(physicalCluster.isStateBinding())
+            return;
+
         /* Horizontal plane channels */
         for(int i = 0; i < sizeZ; i++){
             for(int j = 0; j < sizeY; j++){
@@ -258,6 +263,62 @@ public class MemoryInterCluster {
     }
 
 
+    /**
+     * Write the inter cluster channels to a checkpoint
+     * @param out: checkpoint output
+     */
+    public void writeState(CheckpointWriter out){
+        out.writeFlitChannels(interClusterInputChannels);
+        out.writeFlitChannels(interClusterOutputChannels);
+        out.writeCreditChannels(interClusterInputCreditChannels);
+        out.writeCreditChannels(interClusterOutputCreditChannels);
+    }
+
+    /**
+     * Read the inter cluster channels from a checkpoint (in place)
+     * @param in: checkpoint input
+     */
+    public void readState(CheckpointReader in){
+        in.readFlitChannels(interClusterInputChannels);
+        in.readFlitChannels(interClusterOutputChannels);
+        in.readCreditChannels(interClusterInputCreditChannels);
+        in.readCreditChannels(interClusterOutputCreditChannels);
+    }
+
+    /**
+     * Check if no flits or credits are travelling into the cluster
+     * @return true if the inter cluster input flit channels and output credit channels only carry zero flits and credits
+     */
+    public boolean isInputIdle(){
+        for(int d = 0; d < 6; d++){
+            for(int i = 0; i < interClusterInputChannels.get(d).size(); i++){
+                for(int j = 0; j < interClusterInputChannels.get(d).get(i).size(); j++){
+                    if(!interClusterInputChannels.get(d).get(i).get(j).isIdle() || !interClusterOutputCreditChannels.get(d).get(i).get(j).isIdle())
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Advance the inter cluster channels of a quiescent cluster by one cycle without simulating it:
+     * the routers at the edge of the cluster consume one (zero) flit and credit and send a zero flit and credit.
+     */
+    public void advanceIdleCycle(){
+        for(int d = 0; d < 6; d++){
+            for(int i = 0; i < interClusterInputChannels.get(d).size(); i++){
+                for(int j = 0; j < interClusterInputChannels.get(d).get(i).size(); j++){
+                    interClusterInputChannels.get(d).get(i).get(j).removeFlit();
+                    interClusterOutputCreditChannels.get(d).get(i).get(j).removeCredit();
+                    interClusterOutputChannels.get(d).get(i).get(j).addZeroFlit();
+                    interClusterInputCreditChannels.get(d).get(i).get(j).addCredit(Credit.ZERO);
+                }
+            }
+        }
+    }
+
+
     /* ********************************************************************************
      *                              GETTERS AND SETTERS                               *
      ******************************************************************************** */
@@ -18,10 +18,8 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 package memory;
 
 import building_blocks.Credit;
-import building_blocks.Flit;
-import iSLIP.Arbiter;
-import router.InputUnit;
-import router.OutputPort;
+import building_blocks.FlitBuffer;
+import building_blocks.RingBuffer;
 import router.Router;
 
 import java.util.ArrayList;
@@ -33,21 +31,16 @@ public class MemoryRouter {
     private int numVCs;
     private int bufferSize;
 
-    private List<List<MemoryInputUnit>> inputUnits;
-    private List<List<Credit>> creditBuffers;
+    /* Input unit states, output VC states, credit counters, allocator requests and priorities are held in the network state */
+    private NetworkState networkState;
+    private int node;
 
-    private List<Integer> vcAllocatorOutputPriorities;
-    private List<Integer> vcAllocatorInputPriorities;
-    private List<Integer> switchAllocatorOutputPriorities;
-    private List<Integer> switchAllocatorInputPriorities;
+    private List<FlitBuffer> inputBuffers;
+    private List<RingBuffer<Credit>> creditBuffers;
 
-    private List<List<Boolean>> vcAllocatorRequests;
-
-    private List<Flit> crossbarInputs;
-    private List<Integer> crossbarConfiguration;
-
-    private List<int[]> outputStates;
-    private List<int[]> creditCounters;
+    private long[] crossbarInputControls;
+    private long[] crossbarInputNodes;
+    private int[] crossbarConfiguration;
 
     private int[] position;
 
@@ -62,70 +55,36 @@ public class MemoryRouter {
      * @param numPorts: number of ports in each router
      * @param numVCs: number of VCs at every port
      * @param bufferSize: size of the buffer (in number of flits) at each input unit
+     * @param networkState: network state holding the state variables of this router
+     * @param node: node of this router in the network state
      */
-    public MemoryRouter(int[] position, int numPorts, int numVCs, int bufferSize){
+    public MemoryRouter(int[] position, int numPorts, int numVCs, int bufferSize, NetworkState networkState, int node){
         this.numPorts = numPorts;
         this.numVCs = numVCs;
         this.bufferSize = bufferSize;
 
         this.position = position;
 
-        /* Create input unit memory elements */
-        this.inputUnits = new ArrayList<List<MemoryInputUnit>>();
-        for(int i = 0; i < numPorts; i++){
-            this.inputUnits.add(new ArrayList<MemoryInputUnit>());
-            for(int j = 0; j < numVCs; j++) {
-                this.inputUnits.get(i).add(new MemoryInputUnit(bufferSize));
-            }
-        }
-
-        this.creditBuffers = new ArrayList<List<Credit>>();
-        for(int i = 0; i < numPorts; i++){
-            creditBuffers.add(new ArrayList<Credit>());
-
-        }
+        this.networkState = networkState;
+        this.node = node;
 
-        /* Priorities of VC allocator */
-        this.vcAllocatorInputPriorities = new ArrayList<Integer>();
-        this.vcAllocatorOutputPriorities = new ArrayList<Integer>();
+        /* Create input buffers (index: port*numVCs + VC) */
+        this.inputBuffers = new ArrayList<FlitBuffer>();
         for(int i = 0; i < numPorts*numVCs; i++){
-            this.vcAllocatorInputPriorities.add(0);
-            this.vcAllocatorOutputPriorities.add(0);
+            this.inputBuffers.add(new FlitBuffer(bufferSize));
         }
 
-        /* VC allocator requests */
-        this.vcAllocatorRequests = new ArrayList<List<Boolean>>();
-        for(int i = 0; i < numPorts*numVCs; i++){
-            vcAllocatorRequests.add(new ArrayList<Boolean>());
-            for(int j = 0; j < numPorts*numVCs; j++){
-                vcAllocatorRequests.get(i).add(false);
-            }
-        }
-
-        /* Priorities of Switch allocator */
-        this.switchAllocatorInputPriorities = new ArrayList<Integer>();
-        this.switchAllocatorOutputPriorities = new ArrayList<Integer>();
+        /* Credit buffers (same capacity as the credit buffers of the input ports) */
+        this.creditBuffers = new ArrayList<RingBuffer<Credit>>();
         for(int i = 0; i < numPorts; i++){
-            this.switchAllocatorInputPriorities.add(0);
-            this.switchAllocatorOutputPriorities.add(0);
-        }
-
-        /* States of output VCs for every output port */
-        this.outputStates = new ArrayList<int[]>();
-        this.creditCounters = new ArrayList<int[]>();
-        for(int i = 0; i < numPorts; i++){
-            this.outputStates.add(new int[numVCs]);
-            this.creditCounters.add(new int[numVCs]);
-            for(int j = 0; j < numVCs; j++){
-                creditCounters.get(i)[j] = bufferSize;
-            }
+            creditBuffers.add(new RingBuffer<Credit>(numVCs));
         }
 
-        this.crossbarInputs = new ArrayList<Flit>();
-        this.crossbarConfiguration = new ArrayList<Integer>();
+        this.crossbarInputControls = new long[numPorts];
+        this.crossbarInputNodes = new long[numPorts];
+        this.crossbarConfiguration = new int[numPorts];
         for(int i = 0; i < numPorts; i++){
-            crossbarInputs.add(new Flit());
-            this.crossbarConfiguration.add(-1);
+            this.crossbarConfiguration[i] = -1;
         }
 
 
@@ -141,141 +100,83 @@ public class MemoryRouter {
      * @param router
      */
     public void storeRouter(Router router){
-        /* Store input units */
+        /* Store state variables */
+        router.getNetworkState().copyRouterState(router.getNode(), this.networkState, this.node);
+
+        /* Store input buffers (copied in place) */
         for(int i = 0; i < numPorts; i++){
             for(int j = 0; j < numVCs; j++){
-                this.inputUnits.get(i).get(j).storeInputUnit(router.getInputUnit(i,j));
+                this.inputBuffers.get(i*numVCs + j).copyFrom(router.getInputUnit(i,j).getBuffer());
             }
         }
 
         /* Store credit buffer at each input port */
         for(int i = 0; i < numPorts; i++){
-            this.creditBuffers.get(i).clear();
-            for(int j = 0; j < router.getInputPort(i).getCreditBuffer().size(); j++){
-                this.creditBuffers.get(i).add(router.getInputPort(i).getCreditBuffer().get(j));
-            }
+            this.creditBuffers.get(i).copyFrom(router.getInputPort(i).getCreditBuffer());
         }
 
-        /* Store VC allocator priorities */
-        for(int i = 0; i < numPorts*numVCs; i++){
-            Arbiter currentInputArbiter = router.getVcAllocator().getInputArbiters().get(i);
-            this.vcAllocatorInputPriorities.set(i,currentInputArbiter.getPriority());
+        /* Store crossbar inputs and configuration (copied in place) */
+        System.arraycopy(router.getCrossbar().getConfiguration(), 0, this.crossbarConfiguration, 0, numPorts);
+        System.arraycopy(router.getCrossbar().getInputControls(), 0, this.crossbarInputControls, 0, numPorts);
+        System.arraycopy(router.getCrossbar().getInputNodes(), 0, this.crossbarInputNodes, 0, numPorts);
 
-            Arbiter currentOutputArbiter = router.getVcAllocator().getOutputArbiters().get(i);
-            this.vcAllocatorOutputPriorities.set(i, currentOutputArbiter.getPriority());
-        }
+    }
 
-        /* Store VC allocator requests */
-        this.vcAllocatorRequests = new ArrayList<List<Boolean>>();
-        for(int i = 0; i < numPorts*numVCs; i++){
-            vcAllocatorRequests.add(new ArrayList<Boolean>());
-            for(int j = 0; j < numPorts*numVCs; j++){
-                vcAllocatorRequests.get(i).add(router.getVcAllocator().getRequests().get(i).get(j));
-            }
-        }
 
-        /* Store states from output VCS */
-        this.outputStates = new ArrayList<int[]>();
-        this.creditCounters = new ArrayList<int[]>();
-        for (int i = 0; i < numPorts; i++){
-            this.outputStates.add(new int[numVCs]);
-            this.creditCounters.add(new int[numVCs]);
-            for(int j = 0; j < numVCs; j++){
-                this.outputStates.get(i)[j] = router.getOutputPort(i).getGlobalStates()[j];
-                this.creditCounters.get(i)[j] = router.getOutputPort(i).getCredits()[j];
-            }
+    /**
+     * Write the buffers and crossbar of this router to a checkpoint (the state variables are part of the network state)
+     * @param out: checkpoint output
+     */
+    public void writeState(CheckpointWriter out){
+        for(FlitBuffer inputBuffer : inputBuffers){
+            out.writeFlits(inputBuffer);
         }
-
-        /* Store Switch Allocator priorities */
-        for(int i = 0; i < numPorts; i++){
-            Arbiter currentInputArbiter = router.getSwitchAllocator().getInputArbiters().get(i);
-            this.switchAllocatorInputPriorities.set(i, currentInputArbiter.getPriority());
-
-            Arbiter currentOutputArbiter =  router.getSwitchAllocator().getOutputArbiters().get(i);
-            this.switchAllocatorOutputPriorities.set(i, currentOutputArbiter.getPriority());
+        for(RingBuffer<Credit> creditBuffer : creditBuffers){
+            out.writeCredits(creditBuffer);
         }
+        out.writeLongs(crossbarInputControls);
+        out.writeLongs(crossbarInputNodes);
+        out.writeInts(crossbarConfiguration);
+    }
 
-        /* Store crossbar inputs and configuration */
-        this.crossbarConfiguration = new ArrayList<Integer>();
-        for(int i = 0; i < router.getCrossbar().getConfiguration().size(); i++){
-            this.crossbarConfiguration.add(router.getCrossbar().getConfiguration().get(i));
+    /**
+     * Read the buffers and crossbar of this router from a checkpoint (in place)
+     * @param in: checkpoint input
+     */
+    public void readState(CheckpointReader in){
+        for(FlitBuffer inputBuffer : inputBuffers){
+            in.readFlits(inputBuffer);
         }
-        this.crossbarInputs = new ArrayList<Flit>();
-        for(int i = 0; i < router.getCrossbar().getInputFlits().size(); i++){
-            this.crossbarInputs.add(router.getCrossbar().getInputFlits().get(i));
+        for(RingBuffer<Credit> creditBuffer : creditBuffers){
+            in.readCredits(creditBuffer);
         }
-
+        in.readLongs(crossbarInputControls);
+        in.readLongs(crossbarInputNodes);
+        in.readInts(crossbarConfiguration);
     }
 
-
     /**
      * Checks if the router is currently idle
      * @return
      */
     public boolean isIdle(){
-        boolean idle = true;
-        for(int i = 0; i < numPorts && idle; i++){
-            for(int j = 0; j < numVCs; j++){
-                /* As soon as 1 element is not idle, the router itself is not idle */
-                if(inputUnits.get(i).get(j).getGlobalState() != InputUnit.IDLE || outputStates.get(i)[j] != OutputPort.IDLE) {
-                    idle = false;
-                    break;
-                }
-            }
-        }
-        return idle;
+        return networkState.isRouterIdle(node);
     }
 
     /* ********************************************************************************
      *                              GETTERS AND SETTERS                             *
      ******************************************************************************** */
 
-    public List<List<MemoryInputUnit>> getInputUnits() {
-        return inputUnits;
-    }
-
-    public void setInputUnits(List<List<MemoryInputUnit>> inputUnits) {
-        this.inputUnits = inputUnits;
-    }
-
-    public List<Integer> getVcAllocatorOutputPriorities() {
-        return vcAllocatorOutputPriorities;
-    }
-
-    public void setVcAllocatorOutputPriorities(List<Integer> vcAllocatorOutputPriorities) {
-        this.vcAllocatorOutputPriorities = vcAllocatorOutputPriorities;
-    }
-
-    public List<Integer> getVcAllocatorInputPriorities() {
-        return vcAllocatorInputPriorities;
-    }
-
-    public void setVcAllocatorInputPriorities(List<Integer> vcAllocatorInputPriorities) {
-        this.vcAllocatorInputPriorities = vcAllocatorInputPriorities;
+    public NetworkState getNetworkState() {
+        return networkState;
     }
 
-    public List<Integer> getSwitchAllocatorOutputPriorities() {
-        return switchAllocatorOutputPriorities;
+    public int getNode() {
+        return node;
     }
 
-    public void setSwitchAllocatorOutputPriorities(List<Integer> switchAllocatorOutputPriorities) {
-        this.switchAllocatorOutputPriorities = switchAllocatorOutputPriorities;
-    }
-
-    public List<Integer> getSwitchAllocatorInputPriorities() {
-        return switchAllocatorInputPriorities;
-    }
-
-    public void setSwitchAllocatorInputPriorities(List<Integer> switchAllocatorInputPriorities) {
-        this.switchAllocatorInputPriorities = switchAllocatorInputPriorities;
-    }
-
-    public List<int[]> getOutputStates() {
-        return outputStates;
-    }
-
-    public void setOutputStates(List<int[]> outputStates) {
-        this.outputStates = outputStates;
+    public FlitBuffer getInputBuffer(int port, int VC) {
+        return inputBuffers.get(port*numVCs + VC);
     }
 
     public int[] getPosition() {
@@ -286,43 +187,27 @@ public class MemoryRouter {
         this.position = position;
     }
 
-    public List<Flit> getCrossbarInputs() {
-        return crossbarInputs;
+    public long[] getCrossbarInputControls() {
+        return crossbarInputControls;
     }
 
-    public void setCrossbarInputs(List<Flit> crossbarInputs) {
-        this.crossbarInputs = crossbarInputs;
+    public long[] getCrossbarInputNodes() {
+        return crossbarInputNodes;
     }
 
-    public List<Integer> getCrossbarConfiguration() {
+    public int[] getCrossbarConfiguration() {
         return crossbarConfiguration;
     }
 
-    public void setCrossbarConfiguration(List<Integer> crossbarConfiguration) {
+    public void setCrossbarConfiguration(int[] crossbarConfiguration) {
         this.crossbarConfiguration = crossbarConfiguration;
     }
 
-    public List<List<Boolean>> getVcAllocatorRequests() {
-        return vcAllocatorRequests;
-    }
-
-    public void setVcAllocatorRequests(List<List<Boolean>> vcAllocatorRequests) {
-        this.vcAllocatorRequests = vcAllocatorRequests;
-    }
-
-    public List<List<Credit>> getCreditBuffers() {
+    public List<RingBuffer<Credit>> getCreditBuffers() {
         return creditBuffers;
     }
 
-    public void setCreditBuffers(List<List<Credit>> creditBuffers) {
+    public void setCreditBuffers(List<RingBuffer<Credit>> creditBuffers) {
         this.creditBuffers = creditBuffers;
     }
-
-    public List<int[]> getCreditCounters() {
-        return creditCounters;
-    }
-
-    public void setCreditCounters(List<int[]> creditCounters) {
-        this.creditCounters = creditCounters;
-    }
 }
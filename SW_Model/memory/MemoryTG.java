@@ -17,6 +17,7 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 package memory;
 
 import building_blocks.PacketDescriptor;
+import ipCore.RandomStream;
 import ipCore.TrafficGenerator;
 
 import java.util.ArrayList;
@@ -27,8 +28,8 @@ public class MemoryTG {
     private int[] position;                                         // Position of the router: (z,y,x) coordinates
     private int numVCs;
 
-    private int[] credits;                                          // Number of credits available for each VC
-    private int[] states;                                           // States of the VC (ASSIGNED / IDLE)
+    private NetworkState networkState;                              // Network state holding the credits and VC states
+    private int node;                                               // Node of this TG in the network state
 
     private List<PacketDescriptor> sourceQueue;                     // Buffer that contains packet descriptors, used to generate flits
 
@@ -37,6 +38,8 @@ public class MemoryTG {
 
     private int networkTime;
     private int localTime;
+    private int nextGenerationTime;                                 // Local time of the next packet, -1 if not drawn yet
+    private RandomStream random;                                    // Random stream of the node (seeded by the mesh, see ClusteredMesh.setSeed)
 
 
     /* ********************************************************************************
@@ -48,21 +51,21 @@ public class MemoryTG {
      * @param position: position of the router connected to the IP core
      * @param numVCs: number of VCs per port of the router
      * @param bufferSize: size of the buffer at each input unit (in number of flits)
+     * @param networkState: network state holding the credits and VC states
+     * @param node: node of this TG in the network state
      */
-    public MemoryTG(int[] position, int numVCs, int bufferSize){
+    public MemoryTG(int[] position, int numVCs, int bufferSize, NetworkState networkState, int node){
         this.numVCs = numVCs;
         this.position = position;
-        this.credits = new int[numVCs];
-        this.states = new int[numVCs];
-        for(int i = 0; i < numVCs; i++){
-            this.credits[i] = bufferSize;
-            this.states[i] = TrafficGenerator.IDLE;
-        }
+        this.networkState = networkState;
+        this.node = node;
         this.sourceQueue = new ArrayList<PacketDescriptor>();
         this.allocatePriority = 0;
         this.packetToSend = 0;
         this.networkTime = 0;
         this.localTime = 0;
+        this.nextGenerationTime = -1;
+        this.random = new RandomStream(RandomStream.DEFAULT_SEED, 0);
     }
 
 
@@ -75,10 +78,7 @@ public class MemoryTG {
      * @param trafficGenerator
      */
     public void storeTG(TrafficGenerator trafficGenerator){
-        for(int i = 0; i < numVCs; i++){
-            this.credits[i] = trafficGenerator.getCredits()[i];
-            this.states[i] = trafficGenerator.getStates()[i];
-        }
+        trafficGenerator.getNetworkState().copyTGState(trafficGenerator.getNode(), this.networkState, this.node);
 
         this.sourceQueue = new ArrayList<PacketDescriptor>();
         for(int i = 0; i < trafficGenerator.getSourceQueue().size(); i++){
@@ -88,9 +88,107 @@ public class MemoryTG {
         this.packetToSend = trafficGenerator.getPacketToSend();
         this.networkTime = trafficGenerator.getNetworkTime();
         this.localTime = trafficGenerator.getLocalTime();
+        this.nextGenerationTime = trafficGenerator.getNextGenerationTime();
+        this.random.setState(trafficGenerator.getRandomState());
+
+    }
+
+
+    /**
+     * Stores the scalar state variables of a TG that is bound to this memory element (credits, states and source queue are shared)
+     * @param trafficGenerator: TG bound to this memory element
+     */
+    public void storeBoundTG(TrafficGenerator trafficGenerator){
+        this.allocatePriority = trafficGenerator.getAllocatePriority();
+        this.packetToSend = trafficGenerator.getPacketToSend();
+        this.networkTime = trafficGenerator.getNetworkTime();
+        this.localTime = trafficGenerator.getLocalTime();
+        this.nextGenerationTime = trafficGenerator.getNextGenerationTime();
+        this.random.setState(trafficGenerator.getRandomState());
+    }
+
+    /**
+     * Write the source queue, priorities and clocks of this TG to a checkpoint (credits and VC states are part of the network state)
+     * @param out: checkpoint output
+     */
+    public void writeState(CheckpointWriter out){
+        out.writeInt(sourceQueue.size());
+        for(PacketDescriptor packet : sourceQueue){
+            out.writeInt(packet.getDestination()[0]);
+            out.writeInt(packet.getDestination()[1]);
+            out.writeInt(packet.getDestination()[2]);
+            out.writeInt(packet.getNumberOfFlits());
+            out.writeInt(packet.getGenerationTime());
+            out.writeInt(packet.getAllocatedVC());
+            out.writeInt(packet.getRemainingFlits());
+        }
+        out.writeInt(allocatePriority);
+        out.writeInt(packetToSend);
+        out.writeInt(networkTime);
+        out.writeInt(localTime);
+        out.writeInt(nextGenerationTime);
+        out.writeLong(random.getState());
+    }
+
+    /**
+     * Read the source queue, priorities and clocks of this TG from a checkpoint (the source queue is refilled in place)
+     * @param in: checkpoint input
+     */
+    public void readState(CheckpointReader in){
+        int size = in.readInt();
+        sourceQueue.clear();
+        for(int i = 0; i < size; i++){
+            int[] destination = new int[]{in.readInt(), in.readInt(), in.readInt()};
+            int numberOfFlits = in.readInt();
+            PacketDescriptor packet = new PacketDescriptor(destination, numberOfFlits, in.readInt());
+            packet.setAllocatedVC(in.readInt());
+            packet.setRemainingFlits(in.readInt());
+            sourceQueue.add(packet);
+        }
+        this.allocatePriority = in.readInt();
+        this.packetToSend = in.readInt();
+        this.networkTime = in.readInt();
+        this.localTime = in.readInt();
+        this.nextGenerationTime = in.readInt();
+        this.random.setState(in.readLong());
+    }
+
+    /**
+     * Advance the time of a quiescent TG (empty source queue, drain phase) by one cycle without simulating it
+     */
+    public void advanceIdleCycle(){
+        this.networkTime++;
+        this.localTime++;
+    }
+
+    /**
+     * Advance the time of a quiescent TG by several cycles without simulating it
+     * @param cycles: number of cycles
+     */
+    public void advanceIdleCycles(int cycles){
+        this.networkTime += cycles;
+        this.localTime += cycles;
+    }
 
+    /**
+     * Time of the next packet of this TG for a fast-forward, see TrafficGenerator.scheduleNextPacket
+     * @param injectionRate: probability that a packet is generated in a cycle
+     * @return local time at which the next packet is generated
+     */
+    public int scheduleNextPacket(double injectionRate){
+        if(this.nextGenerationTime < 0)
+            this.nextGenerationTime = this.localTime + TrafficGenerator.drawGap(injectionRate, this.random);
+        return this.nextGenerationTime;
     }
 
+    /**
+     * Restart the random stream of this TG
+     * @param seed: seed of the experiment
+     * @param nodeNumber: number of the node in the mesh (x + radix * y + radix * radix * z)
+     */
+    public void setSeed(long seed, int nodeNumber){
+        this.random.seed(seed, nodeNumber);
+    }
 
     /* ********************************************************************************
      *                              GETTERS AND SETTERS                             *
@@ -104,20 +202,12 @@ public class MemoryTG {
         this.position = position;
     }
 
-    public int[] getCredits() {
-        return credits;
+    public NetworkState getNetworkState() {
+        return networkState;
     }
 
-    public void setCredits(int[] credits) {
-        this.credits = credits;
-    }
-
-    public int[] getStates() {
-        return states;
-    }
-
-    public void setStates(int[] states) {
-        this.states = states;
+    public int getNode() {
+        return node;
     }
 
     public List<PacketDescriptor> getSourceQueue() {
@@ -167,4 +257,20 @@ public class MemoryTG {
     public void setLocalTime(int localTime) {
         this.localTime = localTime;
     }
+
+    public long getRandomState() {
+        return random.getState();
+    }
+
+    public void setRandomState(long randomState) {
+        this.random.setState(randomState);
+    }
+
+    public int getNextGenerationTime() {
+        return nextGenerationTime;
+    }
+
+    public void setNextGenerationTime(int nextGenerationTime) {
+        this.nextGenerationTime = nextGenerationTime;
+    }
 }
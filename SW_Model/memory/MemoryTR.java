@@ -107,6 +107,53 @@ public class MemoryTR {
         this.maxHops = 0;
     }
 
+    /**
+     * Write the tracking variables and time of this TR to a checkpoint
+     * @param out: checkpoint output
+     */
+    public void writeState(CheckpointWriter out){
+        out.writeInt(numReceivedFlits);
+        out.writeInt(numReceivedPackets);
+        out.writeDouble(averagePacketLatency);
+        out.writeInt(minPacketLatency);
+        out.writeInt(maxPacketLatency);
+        out.writeDouble(averageHops);
+        out.writeInt(minHops);
+        out.writeInt(maxHops);
+        out.writeInt(networkTime);
+    }
+
+    /**
+     * Read the tracking variables and time of this TR from a checkpoint
+     * @param in: checkpoint input
+     */
+    public void readState(CheckpointReader in){
+        this.numReceivedFlits = in.readInt();
+        this.numReceivedPackets = in.readInt();
+        this.averagePacketLatency = in.readDouble();
+        this.minPacketLatency = in.readInt();
+        this.maxPacketLatency = in.readInt();
+        this.averageHops = in.readDouble();
+        this.minHops = in.readInt();
+        this.maxHops = in.readInt();
+        this.networkTime = in.readInt();
+    }
+
+    /**
+     * Advance the time of a TR that does not receive any flits by one cycle without simulating it
+     */
+    public void advanceIdleCycle(){
+        this.networkTime++;
+    }
+
+    /**
+     * Advance the time of a TR that does not receive any flits by several cycles without simulating it
+     * @param cycles: number of cycles
+     */
+    public void advanceIdleCycles(int cycles){
+        this.networkTime += cycles;
+    }
+
 
 
     /* ********************************************************************************
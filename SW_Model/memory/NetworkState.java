@@ -0,0 +1,453 @@
+/*
+File:           NetworkState.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package memory;
+
+import ipCore.TrafficGenerator;
+import router.InputUnit;
+import router.OutputPort;
+
+import java.util.Arrays;
+
+public class NetworkState {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Structure-of-arrays backend for the state of routers and traffic generators.
+            Every field is a flat primitive array, indexed as follows:
+                unit  (input unit / output VC / VC arbiter):    node * numPorts * numVCs + port * numVCs + VC
+                port  (switch arbiter / input unit priority):   node * numPorts + port
+                vc    (traffic generator VC):                   node * numVCs + VC
+                request word (VC allocator):                    (node * numPorts * numVCs + input) * requestWords + word
+                state mask word (input units):                  (node * NUM_UNIT_STATES + state) * unitWords + word
+                pending mask word (input units):                node * unitWords + word
+
+            Nodes are numbered as node = (z * sizeY + y) * sizeX + x.
+            Router, InputUnit, OutputPort, Arbiter, Allocator and TrafficGenerator are views on this state:
+            they only hold an index into these arrays.
+
+            Besides the global state of every input unit, every node keeps one bitmask per state (bit 'port * numVCs + VC'
+            is set if the unit is in that state) and a mask of units of which the next state was set in this cycle.
+            The masks are only valid if the states are changed via setUnitState, setUnitNextState and updateUnitStates.
+            The router stages use them to visit only the units that can make progress.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final int NUM_UNIT_STATES = 6;        // Number of global states of an input unit (IDLE ... REACHED_DESTINATION)
+
+    /* Dimensions */
+    private int sizeX;
+    private int sizeY;
+    private int sizeZ;
+    private int numNodes;
+    private int numPorts;
+    private int numVCs;
+    private int numUnits;                               // Number of input units (and output VCs) per router
+    private int requestWords;                           // Number of 64-bit words used for the VC requests of one input
+    private int unitWords;                              // Number of 64-bit words in a mask over the input units of one router
+
+    /* Input units */
+    private int[] unitStates;                           // Global state of every input unit
+    private int[] unitNextStates;                       // Global state of every input unit in the next cycle
+    private int[] unitOutputPorts;                      // Output port computed for every input unit
+    private int[] unitAllocatedVCs;                     // Output VC allocated to every input unit
+    private long[] unitStateMasks;                      // Input units of every router in every global state
+    private long[] unitPendingMasks;                    // Input units of every router of which the next state was set
+
+    /* Output VCs */
+    private int[] outputVCStates;                       // State (IDLE/ACTIVE) of every output VC
+    private int[] outputVCCredits;                      // Credit counter of every output VC
+
+    /* VC allocator */
+    private int[] vcInputPriorities;                    // Priorities of the input arbiters
+    private int[] vcOutputPriorities;                   // Priorities of the output arbiters
+    private long[] vcRequests;                          // Pending requests: bit 'output' of the words of 'input'
+
+    /* Switch allocator */
+    private int[] switchInputPriorities;                // Priorities of the input arbiters
+    private int[] switchOutputPriorities;               // Priorities of the output arbiters
+    private int[] inputUnitPriorities;                  // Priorities for selecting an input unit during switch allocation
+
+    /* Routers */
+    private int[] routerBusy;                           // 1 if the router was busy (not idle) at the end of its last simulated cycle
+
+    /* Traffic generators */
+    private int[] tgCredits;                            // Credit counters of the traffic generators
+    private int[] tgStates;                             // VC states (IDLE/ASSIGNED) of the traffic generators
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                               *
+     ******************************************************************************** */
+
+    /**
+     * Constructor for the state of a block of sizeZ x sizeY x sizeX nodes, all in their reset state.
+     * @param sizeX: number of nodes along x direction
+     * @param sizeY: number of nodes along y direction
+     * @param sizeZ: number of nodes along z direction
+     * @param numPorts: number of ports in each router
+     * @param numVCs: number of VCs at every port
+     * @param bufferSize: size of the buffer (in number of flits) at each input unit
+     */
+    public NetworkState(int sizeX, int sizeY, int sizeZ, int numPorts, int numVCs, int bufferSize){
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.numNodes = sizeX * sizeY * sizeZ;
+        this.numPorts = numPorts;
+        this.numVCs = numVCs;
+        this.numUnits = numPorts * numVCs;
+        this.requestWords = (numUnits + 63) / 64;
+        this.unitWords = (numUnits + 63) / 64;
+
+        this.unitStates = new int[numNodes * numUnits];
+        this.unitNextStates = new int[numNodes * numUnits];
+        this.unitOutputPorts = new int[numNodes * numUnits];
+        this.unitAllocatedVCs = new int[numNodes * numUnits];
+        this.unitStateMasks = new long[numNodes * NUM_UNIT_STATES * unitWords];
+        this.unitPendingMasks = new long[numNodes * unitWords];
+        this.outputVCStates = new int[numNodes * numUnits];
+        this.outputVCCredits = new int[numNodes * numUnits];
+        this.vcInputPriorities = new int[numNodes * numUnits];
+        this.vcOutputPriorities = new int[numNodes * numUnits];
+        this.vcRequests = new long[numNodes * numUnits * requestWords];
+        this.switchInputPriorities = new int[numNodes * numPorts];
+        this.switchOutputPriorities = new int[numNodes * numPorts];
+        this.inputUnitPriorities = new int[numNodes * numPorts];
+        this.routerBusy = new int[numNodes];
+        this.tgCredits = new int[numNodes * numVCs];
+        this.tgStates = new int[numNodes * numVCs];
+
+        /* Reset state (all other fields start at 0) */
+        Arrays.fill(unitStates, InputUnit.IDLE);
+        Arrays.fill(unitNextStates, InputUnit.IDLE);
+        Arrays.fill(unitOutputPorts, -1);
+        Arrays.fill(unitAllocatedVCs, -1);
+        Arrays.fill(outputVCStates, OutputPort.IDLE);
+        Arrays.fill(outputVCCredits, bufferSize);
+        Arrays.fill(tgCredits, bufferSize);
+        Arrays.fill(tgStates, TrafficGenerator.IDLE);
+
+        /* All input units start IDLE */
+        for(int node = 0; node < numNodes; node++){
+            int start = stateMaskIndex(node, InputUnit.IDLE);
+            for(int unit = 0; unit < numUnits; unit++){
+                unitStateMasks[start + (unit >>> 6)] |= 1L << unit;
+            }
+        }
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Number of a node in this state block
+     * @param z: z coordinate relative to the start of the block
+     * @param y: y coordinate relative to the start of the block
+     * @param x: x coordinate relative to the start of the block
+     * @return node number
+     */
+    public int nodeIndex(int z, int y, int x){
+        return (z * sizeY + y) * sizeX + x;
+    }
+
+    public int unitIndex(int node, int port, int VC){
+        return node * numUnits + port * numVCs + VC;
+    }
+
+    public int portIndex(int node, int port){
+        return node * numPorts + port;
+    }
+
+    public int vcIndex(int node, int VC){
+        return node * numVCs + VC;
+    }
+
+    public int requestIndex(int node, int input){
+        return (node * numUnits + input) * requestWords;
+    }
+
+    public int stateMaskIndex(int node, int state){
+        return (node * NUM_UNIT_STATES + state) * unitWords;
+    }
+
+    /**
+     * Set the global state of an input unit and update the state masks
+     * @param node: node number
+     * @param unit: unit of the router (port * numVCs + VC)
+     * @param state: new global state
+     */
+    public void setUnitState(int node, int unit, int state){
+        int index = node * numUnits + unit;
+        int oldState = unitStates[index];
+        if(oldState != state){
+            int word = unit >>> 6;
+            long bit = 1L << unit;
+            unitStateMasks[stateMaskIndex(node, oldState) + word] &= ~bit;
+            unitStateMasks[stateMaskIndex(node, state) + word] |= bit;
+            unitStates[index] = state;
+        }
+    }
+
+    /**
+     * Set the global state of an input unit in the next cycle and mark the unit as pending
+     * @param node: node number
+     * @param unit: unit of the router (port * numVCs + VC)
+     * @param state: global state in the next cycle
+     */
+    public void setUnitNextState(int node, int unit, int state){
+        unitNextStates[node * numUnits + unit] = state;
+        unitPendingMasks[node * unitWords + (unit >>> 6)] |= 1L << unit;
+    }
+
+    /**
+     * Update the global state of the pending input units of a router to their next state
+     * (the next state of all other units is equal to their current state)
+     * @param node: node number
+     */
+    public void updateUnitStates(int node){
+        int start = node * unitWords;
+        for(int w = 0; w < unitWords; w++){
+            long word = unitPendingMasks[start + w];
+            while(word != 0){
+                int unit = (w << 6) + Long.numberOfTrailingZeros(word);
+                setUnitState(node, unit, unitNextStates[node * numUnits + unit]);
+                word &= word - 1;
+            }
+            unitPendingMasks[start + w] = 0L;
+        }
+    }
+
+    /**
+     * Checks if a router has input units in a certain global state
+     * @param node: node number
+     * @param state: global state
+     * @return true if at least one input unit is in this state
+     */
+    public boolean hasUnits(int node, int state){
+        int start = stateMaskIndex(node, state);
+        for(int w = 0; w < unitWords; w++){
+            if(unitStateMasks[start + w] != 0L)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if all input units of a router are idle
+     * @param node: node number
+     * @return true if no input unit is in another state than IDLE
+     */
+    public boolean areUnitsIdle(int node){
+        for(int state = 0; state < NUM_UNIT_STATES; state++){
+            if(state != InputUnit.IDLE && hasUnits(node, state))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copy the router state of one node to a node of another (or the same) state block
+     * @param node: node of which the state is copied
+     * @param target: state block to copy to
+     * @param targetNode: node in the target block
+     */
+    public void copyRouterState(int node, NetworkState target, int targetNode){
+        int from = node * numUnits;
+        int to = targetNode * numUnits;
+        System.arraycopy(unitStates, from, target.unitStates, to, numUnits);
+        System.arraycopy(unitNextStates, from, target.unitNextStates, to, numUnits);
+        System.arraycopy(unitOutputPorts, from, target.unitOutputPorts, to, numUnits);
+        System.arraycopy(unitAllocatedVCs, from, target.unitAllocatedVCs, to, numUnits);
+        System.arraycopy(outputVCStates, from, target.outputVCStates, to, numUnits);
+        System.arraycopy(outputVCCredits, from, target.outputVCCredits, to, numUnits);
+        System.arraycopy(vcInputPriorities, from, target.vcInputPriorities, to, numUnits);
+        System.arraycopy(vcOutputPriorities, from, target.vcOutputPriorities, to, numUnits);
+        System.arraycopy(vcRequests, from * requestWords, target.vcRequests, to * requestWords, numUnits * requestWords);
+        System.arraycopy(unitStateMasks, stateMaskIndex(node, 0), target.unitStateMasks, target.stateMaskIndex(targetNode, 0), NUM_UNIT_STATES * unitWords);
+        System.arraycopy(unitPendingMasks, node * unitWords, target.unitPendingMasks, targetNode * unitWords, unitWords);
+
+        from = node * numPorts;
+        to = targetNode * numPorts;
+        System.arraycopy(switchInputPriorities, from, target.switchInputPriorities, to, numPorts);
+        System.arraycopy(switchOutputPriorities, from, target.switchOutputPriorities, to, numPorts);
+        System.arraycopy(inputUnitPriorities, from, target.inputUnitPriorities, to, numPorts);
+
+        target.routerBusy[targetNode] = routerBusy[node];
+    }
+
+    /**
+     * Copy the traffic generator state of one node to a node of another (or the same) state block
+     * @param node: node of which the state is copied
+     * @param target: state block to copy to
+     * @param targetNode: node in the target block
+     */
+    public void copyTGState(int node, NetworkState target, int targetNode){
+        System.arraycopy(tgCredits, node * numVCs, target.tgCredits, targetNode * numVCs, numVCs);
+        System.arraycopy(tgStates, node * numVCs, target.tgStates, targetNode * numVCs, numVCs);
+    }
+
+    /**
+     * Write all state arrays to a checkpoint
+     * @param out: checkpoint output
+     */
+    public void writeState(CheckpointWriter out){
+        out.writeInts(unitStates);
+        out.writeInts(unitNextStates);
+        out.writeInts(unitOutputPorts);
+        out.writeInts(unitAllocatedVCs);
+        out.writeLongs(unitStateMasks);
+        out.writeLongs(unitPendingMasks);
+        out.writeInts(outputVCStates);
+        out.writeInts(outputVCCredits);
+        out.writeInts(vcInputPriorities);
+        out.writeInts(vcOutputPriorities);
+        out.writeLongs(vcRequests);
+        out.writeInts(switchInputPriorities);
+        out.writeInts(switchOutputPriorities);
+        out.writeInts(inputUnitPriorities);
+        out.writeInts(routerBusy);
+        out.writeInts(tgCredits);
+        out.writeInts(tgStates);
+    }
+
+    /**
+     * Read all state arrays from a checkpoint (in place: views bound to this state stay valid)
+     * @param in: checkpoint input
+     */
+    public void readState(CheckpointReader in){
+        in.readInts(unitStates);
+        in.readInts(unitNextStates);
+        in.readInts(unitOutputPorts);
+        in.readInts(unitAllocatedVCs);
+        in.readLongs(unitStateMasks);
+        in.readLongs(unitPendingMasks);
+        in.readInts(outputVCStates);
+        in.readInts(outputVCCredits);
+        in.readInts(vcInputPriorities);
+        in.readInts(vcOutputPriorities);
+        in.readLongs(vcRequests);
+        in.readInts(switchInputPriorities);
+        in.readInts(switchOutputPriorities);
+        in.readInts(inputUnitPriorities);
+        in.readInts(routerBusy);
+        in.readInts(tgCredits);
+        in.readInts(tgStates);
+    }
+
+    /**
+     * Checks if the router at a node is idle
+     * @param node: node number
+     * @return true if all input units and output VCs are idle
+     */
+    public boolean isRouterIdle(int node){
+        if(!areUnitsIdle(node))
+            return false;
+        int start = node * numUnits;
+        for(int i = start; i < start + numUnits; i++){
+            if(outputVCStates[i] != OutputPort.IDLE)
+                return false;
+        }
+        return true;
+    }
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                             *
+     ******************************************************************************** */
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    public int getNumPorts() {
+        return numPorts;
+    }
+
+    public int getNumVCs() {
+        return numVCs;
+    }
+
+    public int getRequestWords() {
+        return requestWords;
+    }
+
+    public int getNumUnits() {
+        return numUnits;
+    }
+
+    public int getUnitWords() {
+        return unitWords;
+    }
+
+    public int[] getUnitStates() {
+        return unitStates;
+    }
+
+    public int[] getUnitNextStates() {
+        return unitNextStates;
+    }
+
+    public long[] getUnitStateMasks() {
+        return unitStateMasks;
+    }
+
+    public int[] getUnitOutputPorts() {
+        return unitOutputPorts;
+    }
+
+    public int[] getUnitAllocatedVCs() {
+        return unitAllocatedVCs;
+    }
+
+    public int[] getOutputVCStates() {
+        return outputVCStates;
+    }
+
+    public int[] getOutputVCCredits() {
+        return outputVCCredits;
+    }
+
+    public int[] getVcInputPriorities() {
+        return vcInputPriorities;
+    }
+
+    public int[] getVcOutputPriorities() {
+        return vcOutputPriorities;
+    }
+
+    public long[] getVcRequests() {
+        return vcRequests;
+    }
+
+    public int[] getSwitchInputPriorities() {
+        return switchInputPriorities;
+    }
+
+    public int[] getSwitchOutputPriorities() {
+        return switchOutputPriorities;
+    }
+
+    public int[] getInputUnitPriorities() {
+        return inputUnitPriorities;
+    }
+
+    public int[] getRouterBusy() {
+        return routerBusy;
+    }
+
+    public int[] getTgCredits() {
+        return tgCredits;
+    }
+
+    public int[] getTgStates() {
+        return tgStates;
+    }
+}
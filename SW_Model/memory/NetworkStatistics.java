@@ -0,0 +1,131 @@
+/*
+File:           NetworkStatistics.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package memory;
+
+public class NetworkStatistics {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Running aggregates of the network, updated as events happen:
+                - received packets, latency and hops: by the traffic receivers when a tail flit arrives
+                - busy routers: by the routers when they change between idle and busy
+                - stall votes: by the traffic generators when they update their time
+
+            Every physical cluster owns one instance, so worker threads never share counters.
+            The mesh adds the values of all physical clusters (O(number of threads)).
+            The busy router count of one instance can become negative (a router can become busy while simulated
+            by one worker and idle while simulated by another), only the sum over all instances is meaningful.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* Received packets */
+    private long numReceivedPackets;                        // Number of received packets
+    private long totalPacketLatency;                        // Sum of the latencies of all received packets
+    private long totalHops;                                 // Sum of the hop counts of all received packets
+
+    /* Routers */
+    private int busyRouters;                                // Change in the number of routers that are not idle
+
+    /* Stalling */
+    private int stallVotes;                                 // Number of TGs that requested to stall the network in this cycle
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                               *
+     ******************************************************************************** */
+
+    public NetworkStatistics(){
+        this.resetPackets();
+        this.busyRouters = 0;
+        this.stallVotes = 0;
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Record a received packet
+     * @param packetLatency: latency of the packet
+     * @param hops: number of hops of the packet
+     */
+    public void recordPacket(int packetLatency, int hops){
+        this.numReceivedPackets++;
+        this.totalPacketLatency += packetLatency;
+        this.totalHops += hops;
+    }
+
+    /**
+     * Reset the packet statistics (start of the measurement phase)
+     */
+    public void resetPackets(){
+        this.numReceivedPackets = 0;
+        this.totalPacketLatency = 0;
+        this.totalHops = 0;
+    }
+
+    /**
+     * Restore the packet statistics and number of busy routers (restore of a checkpoint)
+     * @param numReceivedPackets: number of received packets
+     * @param totalPacketLatency: sum of the latencies of all received packets
+     * @param totalHops: sum of the hop counts of all received packets
+     * @param busyRouters: number of routers that are not idle
+     */
+    public void restore(long numReceivedPackets, long totalPacketLatency, long totalHops, int busyRouters){
+        this.numReceivedPackets = numReceivedPackets;
+        this.totalPacketLatency = totalPacketLatency;
+        this.totalHops = totalHops;
+        this.busyRouters = busyRouters;
+    }
+
+    /**
+     * Record that a router became busy or idle
+     * @param busy: true if the router became busy, false if it became idle
+     */
+    public void updateBusyRouters(boolean busy){
+        this.busyRouters += busy ? 1 : -1;
+    }
+
+    /**
+     * Record that a TG requests to stall the network
+     */
+    public void addStallVote(){
+        this.stallVotes++;
+    }
+
+    public void resetStallVotes(){
+        this.stallVotes = 0;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                             *
+     ******************************************************************************** */
+
+    public long getNumReceivedPackets() {
+        return numReceivedPackets;
+    }
+
+    public long getTotalPacketLatency() {
+        return totalPacketLatency;
+    }
+
+    public long getTotalHops() {
+        return totalHops;
+    }
+
+    public int getBusyRouters() {
+        return busyRouters;
+    }
+
+    public int getStallVotes() {
+        return stallVotes;
+    }
+}
@@ -18,10 +18,14 @@ package mesh;
 
 import building_blocks.CreditChannel;
 import building_blocks.FlitChannel;
+import ipCore.DestinationSampler;
 import ipCore.IPCore;
 import memory.MemoryCluster;
 import memory.MemoryInterCluster;
+import memory.NetworkState;
+import memory.NetworkStatistics;
 import router.Router;
+import router.RoutingTable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -54,6 +58,11 @@ public class Cluster {
 
     private boolean adaptive;
 
+    private boolean stateBinding;                       // If true, the state in memory is bound by reference instead of copied on load/store
+
+    private NetworkState networkState;                  // State of the routers and TGs of this cluster (used when the state is copied)
+    private NetworkStatistics statistics;               // Running statistics of all memory clusters simulated on this cluster
+
     /* - - - - - - - - - - - - - - CHANNELS - - - - - - - - - - - - - - */
     /* Channels used for creating network (in 2D planes)*/
     private List<List<List<FlitChannel>>> horizontalFlitChannels1;
@@ -100,7 +109,8 @@ public class Cluster {
      ******************************************************************************** */
 
     public Cluster(int sizeX, int sizeY, int sizeZ, int radix, boolean adaptive,
-                   int numPorts, int numVCs, int bufferSize, int sourceQueueSize, int flitsPerPacket, int prob, int precision, int[] hotspots, double hotSpotFactor, double rentExponent){
+                   int numPorts, int numVCs, int bufferSize, int sourceQueueSize, int flitsPerPacket, int prob, int precision, int[] hotspots, double hotSpotFactor, double rentExponent,
+                   DestinationSampler destinationSampler, RoutingTable routingTable){
         this.sizeX = sizeX;
         this.sizeY = sizeY;
         this.sizeZ = sizeZ;
@@ -108,6 +118,11 @@ public class Cluster {
 
         this.adaptive = adaptive;
 
+        this.stateBinding = false;
+
+        this.networkState = new NetworkState(sizeX, sizeY, sizeZ, numPorts, numVCs, bufferSize);
+        this.statistics = new NetworkStatistics();
+
         this.routers = new ArrayList<List<List<Router>>>();
         this.ipCores = new ArrayList<List<List<IPCore>>>();
 
@@ -123,6 +138,7 @@ public class Cluster {
                 this.ipCores.get(i).add(new ArrayList<IPCore>());
                 for(int k = 0; k < sizeX; k++){
                     int[] position = new int[]{i,j,k};
+                    int node = networkState.nodeIndex(i, j, k);
 
                     /* Connect corresponding channel to router */
                     List<FlitChannel> inputChannels = new ArrayList<FlitChannel>();
@@ -132,7 +148,7 @@ public class Cluster {
                     this.addChannels(inputChannels, inputCreditChannels, outputChannels, outputCreditChannels, position, radix);
 
                     /* Create router itself */
-                    Router router = new Router(numPorts, numVCs, bufferSize, position, radix, adaptive, inputChannels, inputCreditChannels, outputChannels, outputCreditChannels);
+                    Router router = new Router(numPorts, numVCs, bufferSize, position, radix, adaptive, routingTable, inputChannels, inputCreditChannels, outputChannels, outputCreditChannels, networkState, node, statistics);
                     this.routers.get(i).get(j).add(router);
 
                     /* Create ipCore */
@@ -140,7 +156,7 @@ public class Cluster {
                     FlitChannel ipCoreInput = localOutputChannels.get(i).get(j).get(k);
                     CreditChannel ipCoreOutputCredit = localInputCreditChannels.get(i).get(j).get(k);
                     CreditChannel ipCoreInputCredit = localOutputCreditChannels.get(i).get(j).get(k);
-                    IPCore ipCore = new IPCore(position, radix, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, ipCoreOutput, ipCoreOutputCredit, ipCoreInput, ipCoreInputCredit);
+                    IPCore ipCore = new IPCore(position, radix, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, ipCoreOutput, ipCoreOutputCredit, ipCoreInput, ipCoreInputCredit, networkState, node, destinationSampler, statistics);
                     this.ipCores.get(i).get(j).add(ipCore);
                 }
             }
@@ -451,7 +467,8 @@ public class Cluster {
             for(int j = 0; j < this.sizeY; j++){
                 for(int k = 0; k < this.sizeX; k++){
                     /* Simulating routers and ipcores */
-                    debugLogger.log(Level.FINE, " ------ " + routers.get(i).get(j).get(k));
+                    if(debugLogger.isLoggable(Level.FINE))
+                        debugLogger.log(Level.FINE, " ------ " + routers.get(i).get(j).get(k));
                     if(!stallNetwork) {
                         routers.get(i).get(j).get(k).simulateRouter();
                     } else {
@@ -483,22 +500,54 @@ public class Cluster {
     }
 
     /**
-     * Check if the network needs to be stalled
+     * Check if the network needs to be stalled, based on the stall votes of the TGs simulated on this cluster since the votes were reset
      * @return true if network needs to be stalled
      */
     public boolean checkNetworkStalling(){
-        boolean stall = false;
-        for(int i = 0; i < this.sizeZ && !stall; i++) {
-            for (int j = 0; j < this.sizeY && !stall; j++) {
-                for (int k = 0; k < this.sizeX && !stall; k++) {
-                    stall = stall || ipCores.get(i).get(j).get(k).checkNetworkStalling();
+        /* Every TG votes while updating its time */
+        return statistics.getStallVotes() > 0;
+    }
+
+
+
+    /**
+     * Check if the cluster is quiescent: all routers are quiescent, all source queues are empty
+     * and no flits or credits are travelling over the channels inside the cluster.
+     * NOTE: the inter-cluster channels are not checked.
+     * @return true if the cluster is quiescent
+     */
+    public boolean isQuiescent(){
+        for(int i = 0; i < this.sizeZ; i++) {
+            for (int j = 0; j < this.sizeY; j++) {
+                for (int k = 0; k < this.sizeX; k++) {
+                    if(!routers.get(i).get(j).get(k).isQuiescent() || ipCores.get(i).get(j).get(k).getTrafficGenerator().getSourceQueue().size() > 0)
+                        return false;
                 }
             }
         }
-
-        return stall;
+        return isIdle(horizontalFlitChannels1, horizontalCreditChannels1) && isIdle(horizontalFlitChannels2, horizontalCreditChannels2)
+                && isIdle(verticalFlitChannels1, verticalCreditChannels1) && isIdle(verticalFlitChannels2, verticalCreditChannels2)
+                && isIdle(interPlaneFlitChannels1, interPlaneCreditChannels1) && isIdle(interPlaneFlitChannels2, interPlaneCreditChannels2)
+                && isIdle(localInputChannels, localInputCreditChannels) && isIdle(localOutputChannels, localOutputCreditChannels);
     }
 
+    /**
+     * Help function that checks if a group of channels is idle
+     * @param flitChannels: flit channels of the group
+     * @param creditChannels: credit channels of the group
+     * @return true if all channels only carry zero flits and zero credits
+     */
+    private static boolean isIdle(List<List<List<FlitChannel>>> flitChannels, List<List<List<CreditChannel>>> creditChannels){
+        for(int i = 0; i < flitChannels.size(); i++){
+            for(int j = 0; j < flitChannels.get(i).size(); j++){
+                for(int k = 0; k < flitChannels.get(i).get(j).size(); k++){
+                    if(!flitChannels.get(i).get(j).get(k).isIdle() || !creditChannels.get(i).get(j).get(k).isIdle())
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
 
 
     /* ********************************************************************************
@@ -514,8 +563,13 @@ public class Cluster {
         for(int i = 0; i < sizeZ; i++){
             for(int j = 0; j < sizeY; j++){
                 for(int k = 0; k < sizeX; k++){
-                    this.routers.get(i).get(j).get(k).loadState(memoryCluster.getMemoryRouter(i,j,k));
-                    this.ipCores.get(i).get(j).get(k).loadState(memoryCluster.getMemoryIPCore(i,j,k));
+                    if(stateBinding) {
+                        this.routers.get(i).get(j).get(k).bindState(memoryCluster.getMemoryRouter(i, j, k));
+                        this.ipCores.get(i).get(j).get(k).bindState(memoryCluster.getMemoryIPCore(i, j, k));
+                    } else {
+                        this.routers.get(i).get(j).get(k).loadState(memoryCluster.getMemoryRouter(i, j, k));
+                        this.ipCores.get(i).get(j).get(k).loadState(memoryCluster.getMemoryIPCore(i, j, k));
+                    }
                 }
             }
         }
@@ -527,43 +581,23 @@ public class Cluster {
         for(int i = 0; i < sizeZ; i++){
             for(int j = 0; j < sizeY; j++){
                 for(int k = 0; k < sizeX; k++){
-                    /* Update buffers */
-                    this.horizontalFlitChannels1.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getHorizontalFlitChannels1().get(i).get(j).get(k).getChannelBuffer());
-                    this.horizontalFlitChannels2.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getHorizontalFlitChannels2().get(i).get(j).get(k).getChannelBuffer());
-                    this.verticalFlitChannels1.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getVerticalFlitChannels1().get(i).get(j).get(k).getChannelBuffer());
-                    this.verticalFlitChannels2.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getVerticalFlitChannels2().get(i).get(j).get(k).getChannelBuffer());
-                    this.horizontalCreditChannels1.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getHorizontalCreditChannels1().get(i).get(j).get(k).getChannelBuffer());
-                    this.horizontalCreditChannels2.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getHorizontalCreditChannels2().get(i).get(j).get(k).getChannelBuffer());
-                    this.verticalCreditChannels1.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getVerticalCreditChannels1().get(i).get(j).get(k).getChannelBuffer());
-                    this.verticalCreditChannels2.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getVerticalCreditChannels2().get(i).get(j).get(k).getChannelBuffer());
-                    this.interPlaneFlitChannels1.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getInterPlaneFlitChannels1().get(i).get(j).get(k).getChannelBuffer());
-                    this.interPlaneFlitChannels2.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getInterPlaneFlitChannels2().get(i).get(j).get(k).getChannelBuffer());
-                    this.interPlaneCreditChannels1.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getInterPlaneCreditChannels1().get(i).get(j).get(k).getChannelBuffer());
-                    this.interPlaneCreditChannels2.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getInterPlaneCreditChannels2().get(i).get(j).get(k).getChannelBuffer());
-                    this.localInputChannels.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getLocalInputChannels().get(i).get(j).get(k).getChannelBuffer());
-                    this.localOutputChannels.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getLocalOutputChannels().get(i).get(j).get(k).getChannelBuffer());
-                    this.localInputCreditChannels.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getLocalInputCreditChannels().get(i).get(j).get(k).getChannelBuffer());
-                    this.localOutputCreditChannels.get(i).get(j).get(k).copyChannelBuffer(memoryCluster.getLocalOutputCreditChannels().get(i).get(j).get(k).getChannelBuffer());
-
-                    /* Update edge variable */
-                    this.horizontalFlitChannels1.get(i).get(j).get(k).setEdge(memoryCluster.getHorizontalFlitChannels1().get(i).get(j).get(k).isEdge());
-                    this.horizontalFlitChannels2.get(i).get(j).get(k).setEdge(memoryCluster.getHorizontalFlitChannels2().get(i).get(j).get(k).isEdge());
-                    this.verticalFlitChannels1.get(i).get(j).get(k).setEdge(memoryCluster.getVerticalFlitChannels1().get(i).get(j).get(k).isEdge());
-                    this.verticalFlitChannels2.get(i).get(j).get(k).setEdge(memoryCluster.getVerticalFlitChannels2().get(i).get(j).get(k).isEdge());
-                    this.horizontalCreditChannels1.get(i).get(j).get(k).setEdge(memoryCluster.getHorizontalCreditChannels1().get(i).get(j).get(k).isEdge());
-                    this.horizontalCreditChannels2.get(i).get(j).get(k).setEdge(memoryCluster.getHorizontalCreditChannels2().get(i).get(j).get(k).isEdge());
-                    this.verticalCreditChannels1.get(i).get(j).get(k).setEdge(memoryCluster.getVerticalCreditChannels1().get(i).get(j).get(k).isEdge());
-                    this.verticalCreditChannels2.get(i).get(j).get(k).setEdge(memoryCluster.getVerticalCreditChannels2().get(i).get(j).get(k).isEdge());
-                    this.interPlaneFlitChannels1.get(i).get(j).get(k).setEdge(memoryCluster.getInterPlaneFlitChannels1().get(i).get(j).get(k).isEdge());
-                    this.interPlaneFlitChannels2.get(i).get(j).get(k).setEdge(memoryCluster.getInterPlaneFlitChannels2().get(i).get(j).get(k).isEdge());
-                    this.interPlaneCreditChannels1.get(i).get(j).get(k).setEdge(memoryCluster.getInterPlaneCreditChannels1().get(i).get(j).get(k).isEdge());
-                    this.interPlaneCreditChannels2.get(i).get(j).get(k).setEdge(memoryCluster.getInterPlaneCreditChannels2().get(i).get(j).get(k).isEdge());
-                    this.localInputChannels.get(i).get(j).get(k).setEdge(memoryCluster.getLocalInputChannels().get(i).get(j).get(k).isEdge());
-                    this.localOutputChannels.get(i).get(j).get(k).setEdge(memoryCluster.getLocalOutputChannels().get(i).get(j).get(k).isEdge());
-                    this.localInputCreditChannels.get(i).get(j).get(k).setEdge(memoryCluster.getLocalInputCreditChannels().get(i).get(j).get(k).isEdge());
-                    this.localOutputCreditChannels.get(i).get(j).get(k).setEdge(memoryCluster.getLocalOutputCreditChannels().get(i).get(j).get(k).isEdge());
-
-
+                    /* Update buffers and edge variables */
+                    this.loadChannel(this.horizontalFlitChannels1.get(i).get(j).get(k), memoryCluster.getHorizontalFlitChannels1().get(i).get(j).get(k));
+                    this.loadChannel(this.horizontalFlitChannels2.get(i).get(j).get(k), memoryCluster.getHorizontalFlitChannels2().get(i).get(j).get(k));
+                    this.loadChannel(this.verticalFlitChannels1.get(i).get(j).get(k), memoryCluster.getVerticalFlitChannels1().get(i).get(j).get(k));
+                    this.loadChannel(this.verticalFlitChannels2.get(i).get(j).get(k), memoryCluster.getVerticalFlitChannels2().get(i).get(j).get(k));
+                    this.loadChannel(this.horizontalCreditChannels1.get(i).get(j).get(k), memoryCluster.getHorizontalCreditChannels1().get(i).get(j).get(k));
+                    this.loadChannel(this.horizontalCreditChannels2.get(i).get(j).get(k), memoryCluster.getHorizontalCreditChannels2().get(i).get(j).get(k));
+                    this.loadChannel(this.verticalCreditChannels1.get(i).get(j).get(k), memoryCluster.getVerticalCreditChannels1().get(i).get(j).get(k));
+                    this.loadChannel(this.verticalCreditChannels2.get(i).get(j).get(k), memoryCluster.getVerticalCreditChannels2().get(i).get(j).get(k));
+                    this.loadChannel(this.interPlaneFlitChannels1.get(i).get(j).get(k), memoryCluster.getInterPlaneFlitChannels1().get(i).get(j).get(k));
+                    this.loadChannel(this.interPlaneFlitChannels2.get(i).get(j).get(k), memoryCluster.getInterPlaneFlitChannels2().get(i).get(j).get(k));
+                    this.loadChannel(this.interPlaneCreditChannels1.get(i).get(j).get(k), memoryCluster.getInterPlaneCreditChannels1().get(i).get(j).get(k));
+                    this.loadChannel(this.interPlaneCreditChannels2.get(i).get(j).get(k), memoryCluster.getInterPlaneCreditChannels2().get(i).get(j).get(k));
+                    this.loadChannel(this.localInputChannels.get(i).get(j).get(k), memoryCluster.getLocalInputChannels().get(i).get(j).get(k));
+                    this.loadChannel(this.localOutputChannels.get(i).get(j).get(k), memoryCluster.getLocalOutputChannels().get(i).get(j).get(k));
+                    this.loadChannel(this.localInputCreditChannels.get(i).get(j).get(k), memoryCluster.getLocalInputCreditChannels().get(i).get(j).get(k));
+                    this.loadChannel(this.localOutputCreditChannels.get(i).get(j).get(k), memoryCluster.getLocalOutputCreditChannels().get(i).get(j).get(k));
                 }
             }
         }
@@ -581,46 +615,30 @@ public class Cluster {
         for(int i = 0; i < sizeZ; i++){
             for(int j = 0; j < sizeY; j++){
                 /* EAST */
-                this.interClusterInputChannels.get(0).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputChannels().get(0).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputChannels.get(0).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputChannels().get(0).get(i).get(j).getChannelBuffer());
-                this.interClusterInputCreditChannels.get(0).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputCreditChannels().get(0).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputCreditChannels.get(0).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputCreditChannels().get(0).get(i).get(j).getChannelBuffer());
-                this.interClusterInputChannels.get(0).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputChannels().get(0).get(i).get(j).isEdge());
-                this.interClusterOutputChannels.get(0).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputChannels().get(0).get(i).get(j).isEdge());
-                this.interClusterInputCreditChannels.get(0).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputCreditChannels().get(0).get(i).get(j).isEdge());
-                this.interClusterOutputCreditChannels.get(0).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputCreditChannels().get(0).get(i).get(j).isEdge());
+                this.loadChannel(this.interClusterInputChannels.get(0).get(i).get(j), memoryInterCluster.getInterClusterInputChannels().get(0).get(i).get(j));
+                this.loadChannel(this.interClusterOutputChannels.get(0).get(i).get(j), memoryInterCluster.getInterClusterOutputChannels().get(0).get(i).get(j));
+                this.loadChannel(this.interClusterInputCreditChannels.get(0).get(i).get(j), memoryInterCluster.getInterClusterInputCreditChannels().get(0).get(i).get(j));
+                this.loadChannel(this.interClusterOutputCreditChannels.get(0).get(i).get(j), memoryInterCluster.getInterClusterOutputCreditChannels().get(0).get(i).get(j));
 
                 /* WEST */
-                this.interClusterInputChannels.get(2).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputChannels().get(2).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputChannels.get(2).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputChannels().get(2).get(i).get(j).getChannelBuffer());
-                this.interClusterInputCreditChannels.get(2).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputCreditChannels().get(2).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputCreditChannels.get(2).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputCreditChannels().get(2).get(i).get(j).getChannelBuffer());
-                this.interClusterInputChannels.get(2).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputChannels().get(2).get(i).get(j).isEdge());
-                this.interClusterOutputChannels.get(2).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputChannels().get(2).get(i).get(j).isEdge());
-                this.interClusterInputCreditChannels.get(2).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputCreditChannels().get(2).get(i).get(j).isEdge());
-                this.interClusterOutputCreditChannels.get(2).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputCreditChannels().get(2).get(i).get(j).isEdge());
+                this.loadChannel(this.interClusterInputChannels.get(2).get(i).get(j), memoryInterCluster.getInterClusterInputChannels().get(2).get(i).get(j));
+                this.loadChannel(this.interClusterOutputChannels.get(2).get(i).get(j), memoryInterCluster.getInterClusterOutputChannels().get(2).get(i).get(j));
+                this.loadChannel(this.interClusterInputCreditChannels.get(2).get(i).get(j), memoryInterCluster.getInterClusterInputCreditChannels().get(2).get(i).get(j));
+                this.loadChannel(this.interClusterOutputCreditChannels.get(2).get(i).get(j), memoryInterCluster.getInterClusterOutputCreditChannels().get(2).get(i).get(j));
 
             }
             for(int j = 0; j < sizeX; j++){
                 /* SOUTH */
-                this.interClusterInputChannels.get(1).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputChannels().get(1).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputChannels.get(1).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputChannels().get(1).get(i).get(j).getChannelBuffer());
-                this.interClusterInputCreditChannels.get(1).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputCreditChannels().get(1).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputCreditChannels.get(1).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputCreditChannels().get(1).get(i).get(j).getChannelBuffer());
-                this.interClusterInputChannels.get(1).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputChannels().get(1).get(i).get(j).isEdge());
-                this.interClusterOutputChannels.get(1).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputChannels().get(1).get(i).get(j).isEdge());
-                this.interClusterInputCreditChannels.get(1).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputCreditChannels().get(1).get(i).get(j).isEdge());
-                this.interClusterOutputCreditChannels.get(1).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputCreditChannels().get(1).get(i).get(j).isEdge());
+                this.loadChannel(this.interClusterInputChannels.get(1).get(i).get(j), memoryInterCluster.getInterClusterInputChannels().get(1).get(i).get(j));
+                this.loadChannel(this.interClusterOutputChannels.get(1).get(i).get(j), memoryInterCluster.getInterClusterOutputChannels().get(1).get(i).get(j));
+                this.loadChannel(this.interClusterInputCreditChannels.get(1).get(i).get(j), memoryInterCluster.getInterClusterInputCreditChannels().get(1).get(i).get(j));
+                this.loadChannel(this.interClusterOutputCreditChannels.get(1).get(i).get(j), memoryInterCluster.getInterClusterOutputCreditChannels().get(1).get(i).get(j));
 
                 /* NORTH */
-                this.interClusterInputChannels.get(3).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputChannels().get(3).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputChannels.get(3).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputChannels().get(3).get(i).get(j).getChannelBuffer());
-                this.interClusterInputCreditChannels.get(3).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputCreditChannels().get(3).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputCreditChannels.get(3).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputCreditChannels().get(3).get(i).get(j).getChannelBuffer());
-                this.interClusterInputChannels.get(3).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputChannels().get(3).get(i).get(j).isEdge());
-                this.interClusterOutputChannels.get(3).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputChannels().get(3).get(i).get(j).isEdge());
-                this.interClusterInputCreditChannels.get(3).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputCreditChannels().get(3).get(i).get(j).isEdge());
-                this.interClusterOutputCreditChannels.get(3).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputCreditChannels().get(3).get(i).get(j).isEdge());
+                this.loadChannel(this.interClusterInputChannels.get(3).get(i).get(j), memoryInterCluster.getInterClusterInputChannels().get(3).get(i).get(j));
+                this.loadChannel(this.interClusterOutputChannels.get(3).get(i).get(j), memoryInterCluster.getInterClusterOutputChannels().get(3).get(i).get(j));
+                this.loadChannel(this.interClusterInputCreditChannels.get(3).get(i).get(j), memoryInterCluster.getInterClusterInputCreditChannels().get(3).get(i).get(j));
+                this.loadChannel(this.interClusterOutputCreditChannels.get(3).get(i).get(j), memoryInterCluster.getInterClusterOutputCreditChannels().get(3).get(i).get(j));
 
 
             }
@@ -629,24 +647,16 @@ public class Cluster {
         for(int i = 0; i < sizeY; i++){
             for(int j = 0; j < sizeX; j++){
                 /* UP */
-                this.interClusterInputChannels.get(4).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputChannels().get(4).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputChannels.get(4).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputChannels().get(4).get(i).get(j).getChannelBuffer());
-                this.interClusterInputCreditChannels.get(4).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputCreditChannels().get(4).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputCreditChannels.get(4).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputCreditChannels().get(4).get(i).get(j).getChannelBuffer());
-                this.interClusterInputChannels.get(4).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputChannels().get(4).get(i).get(j).isEdge());
-                this.interClusterOutputChannels.get(4).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputChannels().get(4).get(i).get(j).isEdge());
-                this.interClusterInputCreditChannels.get(4).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputCreditChannels().get(4).get(i).get(j).isEdge());
-                this.interClusterOutputCreditChannels.get(4).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputCreditChannels().get(4).get(i).get(j).isEdge());
+                this.loadChannel(this.interClusterInputChannels.get(4).get(i).get(j), memoryInterCluster.getInterClusterInputChannels().get(4).get(i).get(j));
+                this.loadChannel(this.interClusterOutputChannels.get(4).get(i).get(j), memoryInterCluster.getInterClusterOutputChannels().get(4).get(i).get(j));
+                this.loadChannel(this.interClusterInputCreditChannels.get(4).get(i).get(j), memoryInterCluster.getInterClusterInputCreditChannels().get(4).get(i).get(j));
+                this.loadChannel(this.interClusterOutputCreditChannels.get(4).get(i).get(j), memoryInterCluster.getInterClusterOutputCreditChannels().get(4).get(i).get(j));
 
                 /* DOWN */
-                this.interClusterInputChannels.get(5).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputChannels().get(5).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputChannels.get(5).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputChannels().get(5).get(i).get(j).getChannelBuffer());
-                this.interClusterInputCreditChannels.get(5).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterInputCreditChannels().get(5).get(i).get(j).getChannelBuffer());
-                this.interClusterOutputCreditChannels.get(5).get(i).get(j).copyChannelBuffer(memoryInterCluster.getInterClusterOutputCreditChannels().get(5).get(i).get(j).getChannelBuffer());
-                this.interClusterInputChannels.get(5).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputChannels().get(5).get(i).get(j).isEdge());
-                this.interClusterOutputChannels.get(5).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputChannels().get(5).get(i).get(j).isEdge());
-                this.interClusterInputCreditChannels.get(5).get(i).get(j).setEdge(memoryInterCluster.getInterClusterInputCreditChannels().get(5).get(i).get(j).isEdge());
-                this.interClusterOutputCreditChannels.get(5).get(i).get(j).setEdge(memoryInterCluster.getInterClusterOutputCreditChannels().get(5).get(i).get(j).isEdge());
+                this.loadChannel(this.interClusterInputChannels.get(5).get(i).get(j), memoryInterCluster.getInterClusterInputChannels().get(5).get(i).get(j));
+                this.loadChannel(this.interClusterOutputChannels.get(5).get(i).get(j), memoryInterCluster.getInterClusterOutputChannels().get(5).get(i).get(j));
+                this.loadChannel(this.interClusterInputCreditChannels.get(5).get(i).get(j), memoryInterCluster.getInterClusterInputCreditChannels().get(5).get(i).get(j));
+                this.loadChannel(this.interClusterOutputCreditChannels.get(5).get(i).get(j), memoryInterCluster.getInterClusterOutputCreditChannels().get(5).get(i).get(j));
 
 
             }
@@ -657,10 +667,51 @@ public class Cluster {
 
 
 
+    /**
+     * Load a flit channel from memory: the buffer is bound by reference (state binding) or copied
+     * @param channel: channel of this cluster
+     * @param memoryChannel: corresponding channel in memory
+     */
+    private void loadChannel(FlitChannel channel, FlitChannel memoryChannel){
+        if(stateBinding){
+            channel.setChannelBuffer(memoryChannel.getChannelBuffer());
+        } else {
+            channel.copyChannelBuffer(memoryChannel.getChannelBuffer());
+        }
+        channel.setEdge(memoryChannel.isEdge());
+    }
+
+    /**
+     * Load a credit channel from memory: the buffer is bound by reference (state binding) or copied
+     * @param channel: channel of this cluster
+     * @param memoryChannel: corresponding channel in memory
+     */
+    private void loadChannel(CreditChannel channel, CreditChannel memoryChannel){
+        if(stateBinding){
+            channel.setChannelBuffer(memoryChannel.getChannelBuffer());
+        } else {
+            channel.copyChannelBuffer(memoryChannel.getChannelBuffer());
+        }
+        channel.setEdge(memoryChannel.isEdge());
+    }
+
+
     /* ********************************************************************************
      *                              GETTERS AND SETTERS                             *
      ******************************************************************************** */
 
+    public NetworkStatistics getStatistics() {
+        return statistics;
+    }
+
+    public boolean isStateBinding() {
+        return stateBinding;
+    }
+
+    public void setStateBinding(boolean stateBinding) {
+        this.stateBinding = stateBinding;
+    }
+
     public List<List<List<Router>>> getRouters() {
         return routers;
     }
@@ -15,17 +15,31 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 */
 package mesh;
 
+import building_blocks.PackedFlit;
+import ipCore.DestinationSampler;
+import ipCore.RandomStream;
 import ipCore.TrafficGenerator;
+import memory.CheckpointReader;
+import memory.CheckpointWriter;
 import memory.MemoryCluster;
 import memory.MemoryInterCluster;
+import memory.NetworkState;
+import router.RoutingTable;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
-public class ClusteredMesh {
+public class ClusteredMesh implements Mesh {
     /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
             Assumptions made with respect to the numbering of the ports:
             0 : EAST
@@ -39,22 +53,46 @@ public class ClusteredMesh {
     /* ********************************************************************************
      *                                  VARIABLES                                     *
      ******************************************************************************** */
-    /* Used for creating Rentian traffic */
-    public static List<List<Integer>> stepsPerDestination;
-    public static int DEST_PREC;
+    /* CONSTANTS */
+    public static final int CHECKPOINT_MAGIC = 0x334E6F43;             // "CoN3": identifies a checkpoint file
+    public static final int CHECKPOINT_VERSION = 4;
+
+    /* Destination tables of all traffic generators */
+    private DestinationSampler destinationSampler;
+
+    /* Routing lookup tables of all routers */
+    private RoutingTable routingTable;
 
     /* Clusters containing Routers, IPCores and channels */
     private List<List<List<MemoryCluster>>> memoryClusters;
     private List<List<List<MemoryInterCluster>>> memoryInterClusters;
     private int[] numClusters;
 
+    /* State of all routers and TGs of the mesh (structure of arrays) */
+    private NetworkState networkState;
+
 
     private int sizeX;
     private int sizeY;
     private int sizeZ;
+    private int bufferSize;
 
     private Cluster physicalCluster;
 
+    /* Parallel engine: every worker thread owns a physical cluster and simulates a disjoint set of memory clusters */
+    private int numThreads;
+    private List<Cluster> workerClusters;
+    private List<Callable<Boolean>> workerTasks;
+    private ExecutorService workerPool;
+
+    /* State binding: physical clusters work on the memory state by reference instead of copying it on load/store */
+    private boolean stateBinding;
+
+    /* Idle-cluster skipping: quiescent clusters are not simulated during the drain phase */
+    private boolean drain;                                      // True once the drain phase has started
+    private boolean[] quiescentClusters;                        // Cluster was quiescent after it was last simulated
+    private boolean fastForward;                                // Globally idle cycles can be skipped (see fastForward)
+
     private boolean adaptive;
 
 
@@ -77,24 +115,42 @@ public class ClusteredMesh {
 
     public ClusteredMesh(int radix, int sizeX, int sizeY, int sizeZ, int numPorts, int numVCs, int bufferSize, int sourceQueueSize, boolean adaptive,
                          int flitsPerPacket, int prob, int precision, int[] hotspots, double hotSpotFactor, double rentExponent){
+        this(radix, sizeX, sizeY, sizeZ, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, 1);
+    }
+
+    /**
+     * Constructor for a clustered mesh that is simulated by several worker threads.
+     * Every worker thread owns a physical cluster and simulates a disjoint set of memory clusters in each cycle.
+     * @param numThreads: number of worker threads (1 gives the serial TDM engine)
+     */
+    public ClusteredMesh(int radix, int sizeX, int sizeY, int sizeZ, int numPorts, int numVCs, int bufferSize, int sourceQueueSize, boolean adaptive,
+                         int flitsPerPacket, int prob, int precision, int[] hotspots, double hotSpotFactor, double rentExponent, int numThreads){
         /* Determine number of clusters in each direction*/
         this.numClusters = new int[3];
         this.numClusters[0] = (int) Math.ceil(radix/(1.0*sizeZ));
         this.numClusters[1] = (int) Math.ceil(radix/(1.0*sizeY));
         this.numClusters[2] = (int) Math.ceil(radix/(1.0*sizeX));
 
-        if(hotSpotFactor != 1.0 || rentExponent != 1.0)
-            this.DEST_PREC = 32768;
-        else
-            this.DEST_PREC = radix*radix*radix;
+        /* Flits are packed into two longs: check that the configuration fits */
+        PackedFlit.checkLimits(radix, numVCs, flitsPerPacket);
+
+        /* Destination tables of the traffic generators, shared (read-only) by all clusters. The precision is owned by the sampler */
+        this.destinationSampler = new DestinationSampler(radix, hotspots, hotSpotFactor, rentExponent);
+
+        /* Routing lookup tables, shared by all routers */
+        this.routingTable = new RoutingTable(radix);
 
 
         this.sizeX = sizeX;
         this.sizeY = sizeY;
         this.sizeZ = sizeZ;
+        this.bufferSize = bufferSize;
 
         this.adaptive = adaptive;
 
+        /* Create network state for all (possibly padded) nodes */
+        this.networkState = new NetworkState(numClusters[2]*sizeX, numClusters[1]*sizeY, numClusters[0]*sizeZ, numPorts, numVCs, bufferSize);
+
         /* Create cluster and inter-cluster memory */
         this.memoryClusters = new ArrayList<List<List<MemoryCluster>>>();
         this.memoryInterClusters = new ArrayList<List<List<MemoryInterCluster>>>();
@@ -106,7 +162,7 @@ public class ClusteredMesh {
                 this.memoryInterClusters.get(i).add(new ArrayList<MemoryInterCluster>());
                 for(int k = 0; k < numClusters[2]; k++){
                     int[] startPosition = {i*sizeZ, j*sizeY, k*sizeX};
-                    this.memoryClusters.get(i).get(j).add(new MemoryCluster(sizeX, sizeY, sizeZ, startPosition, adaptive, numPorts, numVCs, bufferSize));
+                    this.memoryClusters.get(i).get(j).add(new MemoryCluster(sizeX, sizeY, sizeZ, startPosition, adaptive, numPorts, numVCs, bufferSize, networkState));
                     this.memoryInterClusters.get(i).get(j).add(new MemoryInterCluster(sizeX, sizeY, sizeZ, startPosition, radix, adaptive));
 
                 }
@@ -114,16 +170,34 @@ public class ClusteredMesh {
         }
 
         /* Create physical cluster */
-        this.physicalCluster = new Cluster(sizeX, sizeY, sizeZ, radix, adaptive,  numPorts, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent);
+        this.physicalCluster = new Cluster(sizeX, sizeY, sizeZ, radix, adaptive,  numPorts, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, destinationSampler, routingTable);
+
+        /* Create worker threads and their physical clusters (the first worker reuses the physical cluster) */
+        this.numThreads = Math.max(1, Math.min(numThreads, numClusters[0]*numClusters[1]*numClusters[2]));
+        this.workerClusters = new ArrayList<Cluster>();
+        this.workerClusters.add(this.physicalCluster);
+        for(int i = 1; i < this.numThreads; i++){
+            this.workerClusters.add(new Cluster(sizeX, sizeY, sizeZ, radix, adaptive,  numPorts, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, destinationSampler, routingTable));
+        }
+        if(this.numThreads > 1){
+            this.createWorkers();
+        }
+        this.setStateBinding(true);
 
         /* Network variables */
         this.radix = radix;
 
-        this.createTrafficDestinations(rentExponent, radix);
-
         /* Network stalling variables */
         stallNext = false;
         stallNetwork = false;
+
+        /* Idle-cluster skipping */
+        this.drain = false;
+        this.quiescentClusters = new boolean[numClusters[0]*numClusters[1]*numClusters[2]];
+        this.fastForward = false;
+
+        /* Random streams of all nodes */
+        this.setSeed(RandomStream.DEFAULT_SEED);
     }
 
 
@@ -132,99 +206,38 @@ public class ClusteredMesh {
      ******************************************************************************** */
 
     /**
-     * Help function used for creating local traffic at the Traffic Generators
-     * @param rentExponent: rent exponenent
-     * @param radix: radix of the network (size of the network along one direction)
+     * Help function that creates the worker pool for the parallel engine.
+     * The memory clusters are divided in contiguous blocks (in simulation order), one block per worker.
      */
-    private void createTrafficDestinations(double rentExponent, int radix){
-        int N = radix*radix*radix;
-
-        stepsPerDestination = new ArrayList<List<Integer>>();
-        for(int i = 0; i < N; i++){
-            stepsPerDestination.add(new ArrayList<Integer>());
-        }
-
-        int maxHops = 3*(radix-1);
-        double[] P = new double[maxHops +1];
-        double[] CPD = new double[maxHops +1];
-        double CPD_total = 0.0;
-        for(int d = 1; d < maxHops +1; d++){
-            /* Compute P(d) */
-            P[d] = 1.0/(4*d) * ( Math.pow(1+d*(d-1),rentExponent) - Math.pow(d*(d-1), rentExponent) + Math.pow(d*(d+1), rentExponent) - Math.pow(1+d*(d+1), rentExponent) );
-
-            /* Compute CPD */
-            double sum = 0.0;
-            for(int i = 1; i < 2*Math.sqrt(N)-2; i++){
-                if(Math.sqrt(N) + i - d <= Math.sqrt(N) && Math.sqrt(N) + i - d > 0){
-                    sum += (Math.sqrt(N) - i) * (Math.sqrt(N) + i - d);
-                }
-            }
-            CPD[d] = P[d] * sum;
-            CPD_total += CPD[d];
-        }
-
-        /* Normalize CPD */
-        for(int d = 0; d < CPD.length; d++){
-            CPD[d] = CPD[d]/CPD_total;
-        }
-
-        /* Scale CPD such that prob is 1 for every source router */
-        double[] factor = new double[N];
-        for(int z_s = 0; z_s < radix; z_s ++){
-            for(int y_s = 0; y_s < radix; y_s ++){
-                for(int x_s = 0; x_s < radix; x_s ++){
-                    int source = x_s + radix*y_s + radix*radix*z_s;
-                    for(int z_d = 0; z_d < radix; z_d ++) {
-                        for (int y_d = 0; y_d < radix; y_d++) {
-                            for (int x_d = 0; x_d < radix; x_d++) {
-                                int dest = x_d + radix*y_d + radix*radix*z_d;
-                                int hops = Math.abs(x_d - x_s) + Math.abs(y_d - y_s) + Math.abs(z_d - z_s);
-                                factor[source] += CPD[hops];
-                            }
-                        }
+    private void createWorkers(){
+        int totalClusters = numClusters[0]*numClusters[1]*numClusters[2];
+        this.workerTasks = new ArrayList<Callable<Boolean>>();
+        for(int w = 0; w < numThreads; w++){
+            final Cluster cluster = this.workerClusters.get(w);
+            final int first = (w * totalClusters) / numThreads;
+            final int last = ((w + 1) * totalClusters) / numThreads;
+            this.workerTasks.add(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    for(int c = first; c < last; c++){
+                        int k = c % numClusters[2];
+                        int j = (c / numClusters[2]) % numClusters[1];
+                        int i = c / (numClusters[2] * numClusters[1]);
+                        simulateCluster(cluster, i, j, k);
                     }
-                    factor[source] = DEST_PREC / factor[source];
+                    return cluster.checkNetworkStalling();
                 }
-            }
+            });
         }
 
-        /* Create list of destinations */
-        int[] CPD_SCALED = new int[maxHops +1];
-        for(int z_s = 0; z_s < radix; z_s ++){
-            for(int y_s = 0; y_s < radix; y_s ++){
-                for(int x_s = 0; x_s < radix; x_s ++){
-                    int source = x_s + radix*y_s + radix*radix*z_s;
-                    int index = 0;
-                    /* Create CPD scaled for this source */
-                    for(int d = 0; d < CPD.length; d++){
-                        CPD_SCALED[d] = (int) (CPD[d] * factor[source]);
-                    }
-                    for(int z_d = 0; z_d < radix; z_d ++) {
-                        for (int y_d = 0; y_d < radix; y_d++) {
-                            for (int x_d = 0; x_d < radix; x_d++) {
-                                int dest = x_d + radix*y_d + radix*radix*z_d;
-                                int hops = Math.abs(x_d - x_s) + Math.abs(y_d - y_s) + Math.abs(z_d - z_s);
-                                int steps = Math.max(CPD_SCALED[hops],0);
-                                for(int i = 0; i < steps; i++){
-                                    stepsPerDestination.get(source).add(dest);
-                                    index++;
-                                }
-                            }
-                        }
-                    }
-                    /* Fill in extra slots at end of array with source, such that they are never used */
-                    while(stepsPerDestination.get(source).size() < DEST_PREC){
-                        stepsPerDestination.get(source).add(source);
-                    }
-
-
-                }
-            }
-        }
+        this.workerPool = Executors.newFixedThreadPool(numThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ClusteredMesh-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
 
-
     /* ********************************************************************************
      *                                 CLASS FUNCTIONS                              *
      ******************************************************************************** */
@@ -241,52 +254,403 @@ public class ClusteredMesh {
         /* Network stalling variables */
         stallNetwork = stallNext;
         stallNext = false;
+        for(Cluster cluster : workerClusters){
+            cluster.getStatistics().resetStallVotes();
+        }
 
         /* Simulate network */
+        if(numThreads > 1){
+            this.simulateClustersParallel();
+        } else {
+            for(int i = 0; i < numClusters[0]; i++){
+                for(int j = 0; j < numClusters[1]; j++){
+                    for(int k = 0; k < numClusters[2]; k++){
+                        this.simulateCluster(physicalCluster, i, j, k);
+                    }
+                }
+            }
+            /* Check if the network needs to be stalled */
+            stallNext = physicalCluster.checkNetworkStalling();
+        }
+
+        /* All clusters are stored at this point (barrier) */
+        /* Update channels in between clusters */
+        this.updateMemoryInterClusters();
+
+
+    }
+
+    /**
+     * Simulate one memory cluster on the given physical cluster:
+     * load its state, simulate it and store the state again.
+     * @param cluster: physical cluster used to simulate the memory cluster
+     * @param i: index of the cluster along the z-direction
+     * @param j: index of the cluster along the y-direction
+     * @param k: index of the cluster along the x-direction
+     */
+    private void simulateCluster(Cluster cluster, int i, int j, int k){
+        /* A quiescent cluster without incoming flits or credits does not change during the drain: only advance its time */
+        int clusterNumber = (i*numClusters[1] + j)*numClusters[2] + k;
+        if(drain && quiescentClusters[clusterNumber] && !stallNetwork && memoryInterClusters.get(i).get(j).get(k).isInputIdle()){
+            memoryClusters.get(i).get(j).get(k).advanceIdleCycle();
+            memoryInterClusters.get(i).get(j).get(k).advanceIdleCycle();
+            return;
+        }
+
+        /* Load state of the current cluster into the physical cluster */
+        cluster.loadCluster(memoryClusters.get(i).get(j).get(k));
+        cluster.loadInterClusterChannels(memoryInterClusters.get(i).get(j).get(k));
+
+        /* Unused routes need to be disabled */
+        this.disableEmptyRouters(cluster, i, j, k);
+
+        /* Simulate this cluster */
+        cluster.simulateCluster(stallNetwork);
+
+        /* Store cluster state in memory (router, ipcore and channels inside cluster)
+            Store data on channels in between clusters
+        *   NOTE: channels in between clusters are not really updated yet!  */
+        this.memoryClusters.get(i).get(j).get(k).storeCluster(cluster);
+        this.memoryInterClusters.get(i).get(j).get(k).storeInterCluster(cluster);
+
+        /* Check if this cluster became quiescent (skipped during the drain, see fastForward otherwise) */
+        quiescentClusters[clusterNumber] = (drain || fastForward) && !stallNetwork && cluster.isQuiescent();
+    }
+
+    /**
+     * Let every worker thread simulate its own block of memory clusters and wait until all of them are stored.
+     * Workers only touch their own memory clusters and their own physical cluster,
+     * the channels in between clusters are updated afterwards by the calling thread.
+     */
+    private void simulateClustersParallel(){
+        try {
+            List<Future<Boolean>> results = this.workerPool.invokeAll(this.workerTasks);
+            for(Future<Boolean> result : results){
+                stallNext = result.get() || stallNext;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Simulation of the clusters was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Simulation of a cluster failed", e.getCause());
+        }
+    }
+
+    /**
+     * Skip the cycles in which the network stays globally empty, in between two calls of simulateMesh.
+     * - - - IMPORTANT - - -
+     *      The network is globally empty when every cluster was quiescent after it was last simulated (idle routers,
+     *      empty buffers, channels and source queues) and no flits or credits travel in between clusters.
+     *      Simulating such a network only advances the time and draws a Bernoulli trial per TG and cycle. Instead,
+     *      the number of cycles until the next packet of every TG is drawn from the geometric distribution and the
+     *      time of all TGs and TRs jumps to the earliest one. The other TGs keep their drawn time (the trials are
+     *      memoryless), so the packet process is the same as without fast-forward.
+     * Requires setFastForward(true) before the simulation; never skips during the drain or while the network stalls.
+     * @param maxTime: the network time is not advanced beyond this time (e.g. the cycle before the next sample)
+     * @return number of skipped cycles
+     */
+    public int fastForward(int maxTime){
+        if(!fastForward || drain || stallNext)
+            return 0;
+        for(int c = 0; c < quiescentClusters.length; c++){
+            if(!quiescentClusters[c])
+                return 0;
+        }
+        for(int i = 0; i < numClusters[0]; i++){
+            for(int j = 0; j < numClusters[1]; j++){
+                for(int k = 0; k < numClusters[2]; k++){
+                    if(!memoryInterClusters.get(i).get(j).get(k).isInputIdle())
+                        return 0;
+                }
+            }
+        }
+
+        /* Earliest next packet of all (non-padded) TGs */
+        double injectionRate = physicalCluster.getIpCores().get(0).get(0).get(0).getTrafficGenerator().getInjectionRate();
+        int time = this.getNetworkTime();
+        int target = maxTime;
         for(int i = 0; i < numClusters[0]; i++){
             for(int j = 0; j < numClusters[1]; j++){
                 for(int k = 0; k < numClusters[2]; k++){
-                    /* Load state of the current cluster into the physical cluster */
-                    this.physicalCluster.loadCluster(memoryClusters.get(i).get(j).get(k));
-                    this.physicalCluster.loadInterClusterChannels(memoryInterClusters.get(i).get(j).get(k));
+                    MemoryCluster memoryCluster = memoryClusters.get(i).get(j).get(k);
+                    for(int m = 0; m < sizeZ; m++){
+                        for(int n = 0; n < sizeY; n++){
+                            for(int p = 0; p < sizeX; p++){
+                                if(i*sizeZ + m < radix && j*sizeY + n < radix && k*sizeX + p < radix)
+                                    target = Math.min(target, memoryCluster.getMemoryIPCore(m,n,p).getTrafficGenerator().scheduleNextPacket(injectionRate));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /* Jump: the channels of an empty network carry zero flits and credits, only the time changes */
+        int cycles = target - time;
+        if(cycles <= 0)
+            return 0;
+        for(int i = 0; i < numClusters[0]; i++){
+            for(int j = 0; j < numClusters[1]; j++){
+                for(int k = 0; k < numClusters[2]; k++){
+                    memoryClusters.get(i).get(j).get(k).advanceIdleCycles(cycles);
+                }
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Write the complete state of the mesh to a checkpoint file, in between two calls of simulateMesh.
+     * All state is held by the memory elements and the network state at that point, except for the phase of the
+     * traffic generators, the stalling and drain flags and the packet statistics of the physical clusters.
+     * The random streams of the traffic generators are part of the TG state: a restored mesh continues bit-identically.
+     * @param file: path of the checkpoint file
+     */
+    public void saveCheckpoint(String file){
+        try(CheckpointWriter out = new CheckpointWriter(Paths.get(file))){
+            this.writeState(out);
+        }
+    }
 
-                    /* Unused routes need to be disabled */
-                    this.disableEmptyRouters(i,j,k);
+    /**
+     * Restore the state of the mesh from a checkpoint file written by saveCheckpoint.
+     * The mesh must have the same radix, cluster size, ports, VCs, buffer size and routing algorithm;
+     * the traffic load and the number of threads may differ.
+     * @param file: path of the checkpoint file
+     */
+    public void restoreCheckpoint(String file){
+        try(CheckpointReader in = new CheckpointReader(Paths.get(file))){
+            this.readState(in, "Checkpoint " + file);
+        }
+    }
 
-                    /* Simulate this cluster */
-                    this.physicalCluster.simulateCluster(stallNetwork);
+    /**
+     * Write the complete state of the mesh to an open checkpoint, such that the caller can append its own state
+     * (e.g. the state of the simulation loop, see MeshTest.simulateLoadPoint) to the same file
+     * @param out: open checkpoint file
+     */
+    public void saveCheckpoint(CheckpointWriter out){
+        this.writeState(out);
+    }
 
-                    /* Store cluster state in memory (router, ipcore and channels inside cluster)
-                        Store data on channels in between clusters
-                    *   NOTE: channels in between clusters are not really updated yet!  */
-                    this.memoryClusters.get(i).get(j).get(k).storeCluster(physicalCluster);
-                    this.memoryInterClusters.get(i).get(j).get(k).storeInterCluster(physicalCluster);
+    /**
+     * Restore the state of the mesh from an open checkpoint written by saveCheckpoint(CheckpointWriter),
+     * the caller reads its own state after it
+     * @param in: open checkpoint file
+     */
+    public void restoreCheckpoint(CheckpointReader in){
+        this.readState(in, "Checkpoint");
+    }
 
+    /**
+     * Take an in-memory snapshot of the complete state of the mesh (same content as a checkpoint file).
+     * The snapshot is read-only: any number of meshes, e.g. with different traffic loads, can be forked from it
+     * (concurrently) with restoreSnapshot, each child only copies the state into its own memory elements.
+     * @return read-only snapshot
+     */
+    public ByteBuffer snapshot(){
+        try(CheckpointWriter out = new CheckpointWriter()){
+            this.writeState(out);
+            return out.toSnapshot();
+        }
+    }
 
-                    /* Check if the network needs to be stalled, based on this cluster */
-                    stallNext = stallNext || physicalCluster.checkNetworkStalling();
+    /**
+     * Restore the state of the mesh from a snapshot taken by snapshot(), see restoreCheckpoint for the requirements
+     * @param snapshot: snapshot of a mesh with the same configuration (it is not modified)
+     */
+    public void restoreSnapshot(ByteBuffer snapshot){
+        try(CheckpointReader in = new CheckpointReader(snapshot)){
+            this.readState(in, "Snapshot");
+        }
+    }
 
+    /**
+     * Help function that writes the header and the state of the mesh
+     * @param out: checkpoint file or snapshot
+     */
+    private void writeState(CheckpointWriter out){
+        /* Header: configuration of the mesh */
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeInt(radix);
+        out.writeInt(sizeX);
+        out.writeInt(sizeY);
+        out.writeInt(sizeZ);
+        out.writeInt(networkState.getNumPorts());
+        out.writeInt(networkState.getNumVCs());
+        out.writeInt(bufferSize);
+        out.writeBoolean(adaptive);
+
+        /* Mesh variables */
+        out.writeInt(physicalCluster.getIpCores().get(0).get(0).get(0).getTrafficGenerator().getPhase());
+        out.writeDouble(physicalCluster.getIpCores().get(0).get(0).get(0).getTrafficGenerator().getInjectionRate());
+        out.writeBoolean(stallNext);
+        out.writeBoolean(drain);
+        for(boolean quiescent : quiescentClusters){
+            out.writeBoolean(quiescent);
+        }
 
+        /* Statistics of all physical clusters */
+        long numReceivedPackets = 0;
+        long totalPacketLatency = 0;
+        long totalHops = 0;
+        int busyRouters = 0;
+        for(Cluster cluster : workerClusters){
+            numReceivedPackets += cluster.getStatistics().getNumReceivedPackets();
+            totalPacketLatency += cluster.getStatistics().getTotalPacketLatency();
+            totalHops += cluster.getStatistics().getTotalHops();
+            busyRouters += cluster.getStatistics().getBusyRouters();
+        }
+        out.writeLong(numReceivedPackets);
+        out.writeLong(totalPacketLatency);
+        out.writeLong(totalHops);
+        out.writeInt(busyRouters);
+
+        /* State of all routers and TGs, memory clusters and inter cluster channels */
+        networkState.writeState(out);
+        for(int i = 0; i < numClusters[0]; i++){
+            for(int j = 0; j < numClusters[1]; j++){
+                for(int k = 0; k < numClusters[2]; k++){
+                    memoryClusters.get(i).get(j).get(k).writeState(out);
+                    memoryInterClusters.get(i).get(j).get(k).writeState(out);
                 }
             }
         }
+    }
 
-        /* Update channels in between clusters */
-        this.updateMemoryInterClusters();
+    /**
+     * Help function that checks the header and restores the state of the mesh
+     * @param in: checkpoint file or snapshot
+     * @param name: name of the checkpoint used in the error messages
+     */
+    private void readState(CheckpointReader in, String name){
+        /* Header */
+        if(in.readInt() != CHECKPOINT_MAGIC)
+            throw new RuntimeException(name + " is not a checkpoint");
+        int version = in.readInt();
+        if(version != CHECKPOINT_VERSION)
+            throw new RuntimeException(name + " has version " + version + ", expected " + CHECKPOINT_VERSION);
+        int[] configuration = {radix, sizeX, sizeY, sizeZ, networkState.getNumPorts(), networkState.getNumVCs(), bufferSize};
+        for(int value : configuration){
+            if(in.readInt() != value)
+                throw new RuntimeException(name + " was written by a mesh with a different configuration");
+        }
+        if(in.readBoolean() != adaptive)
+            throw new RuntimeException(name + " was written by a mesh with a different routing algorithm");
+
+        /* Mesh variables */
+        int phase = in.readInt();
+        double injectionRate = in.readDouble();
+        for(Cluster cluster : workerClusters){
+            for(int i = 0; i < sizeZ; i++){
+                for(int j = 0; j < sizeY; j++){
+                    for(int k = 0; k < sizeX; k++){
+                        cluster.getIpCores().get(i).get(j).get(k).getTrafficGenerator().setPhase(phase);
+                    }
+                }
+            }
+        }
+        this.stallNext = in.readBoolean();
+        this.drain = in.readBoolean();
+        for(int c = 0; c < quiescentClusters.length; c++){
+            quiescentClusters[c] = in.readBoolean();
+        }
+
+        /* Statistics: the totals are restored in the first physical cluster */
+        long numReceivedPackets = in.readLong();
+        long totalPacketLatency = in.readLong();
+        long totalHops = in.readLong();
+        int busyRouters = in.readInt();
+        for(Cluster cluster : workerClusters){
+            cluster.getStatistics().restore(0, 0, 0, 0);
+        }
+        physicalCluster.getStatistics().restore(numReceivedPackets, totalPacketLatency, totalHops, busyRouters);
+
+        /* State of all routers and TGs, memory clusters and inter cluster channels */
+        networkState.readState(in);
+        for(int i = 0; i < numClusters[0]; i++){
+            for(int j = 0; j < numClusters[1]; j++){
+                for(int k = 0; k < numClusters[2]; k++){
+                    memoryClusters.get(i).get(j).get(k).readState(in);
+                    memoryInterClusters.get(i).get(j).get(k).readState(in);
+                }
+            }
+        }
+
+        /* Different traffic load: the next packets were drawn at the old injection rate, draw them again */
+        if(injectionRate != physicalCluster.getIpCores().get(0).get(0).get(0).getTrafficGenerator().getInjectionRate())
+            this.redrawNextPackets();
+    }
+
+    /**
+     * Restart the random streams of all nodes from the seed of the experiment, before the first simulated cycle.
+     * The stream of a node only depends on the seed and its node number (see RandomStream): a mesh with the same seed
+     * gives the same results for any cluster size, number of threads and state binding, and the same as DirectMesh.
+     * @param seed: seed of the experiment
+     */
+    public void setSeed(long seed){
+        for(int i = 0; i < numClusters[0]; i++){
+            for(int j = 0; j < numClusters[1]; j++){
+                for(int k = 0; k < numClusters[2]; k++){
+                    MemoryCluster memoryCluster = memoryClusters.get(i).get(j).get(k);
+                    for(int m = 0; m < sizeZ; m++){
+                        for(int n = 0; n < sizeY; n++){
+                            for(int p = 0; p < sizeX; p++){
+                                int z = i*sizeZ + m;
+                                int y = j*sizeY + n;
+                                int x = k*sizeX + p;
+                                if(z < radix && y < radix && x < radix)
+                                    memoryCluster.getMemoryIPCore(m,n,p).getTrafficGenerator().setSeed(seed, x + radix * y + radix * radix * z);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
 
+    /**
+     * Help function that discards the drawn time of the next packet of all TGs, such that it is drawn again at the
+     * injection rate of this mesh. The inter-arrival times are geometric (memoryless): this does not bias the traffic.
+     */
+    private void redrawNextPackets(){
+        for(int i = 0; i < numClusters[0]; i++){
+            for(int j = 0; j < numClusters[1]; j++){
+                for(int k = 0; k < numClusters[2]; k++){
+                    MemoryCluster memoryCluster = memoryClusters.get(i).get(j).get(k);
+                    for(int m = 0; m < sizeZ; m++){
+                        for(int n = 0; n < sizeY; n++){
+                            for(int p = 0; p < sizeX; p++){
+                                memoryCluster.getMemoryIPCore(m,n,p).getTrafficGenerator().setNextGenerationTime(-1);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
 
+    /**
+     * Stop the worker threads of the parallel engine (if any).
+     */
+    public void shutdown(){
+        if(this.workerPool != null){
+            this.workerPool.shutdown();
+        }
     }
 
     /**
      * If the cluster dimension is not a multiple of the network dimension, there might be some 'unused nodes' in the physical cluster.
      * These need to be disabled to prevent them from creating new packets etc.
+     * @param cluster: physical cluster that holds the state of the memory cluster
      * @param clusterZ: index of the cluster along the z-direction
      * @param clusterY: index of the cluster along the y-direction
      * @param clusterX: index of the cluster along the x-direction
      */
-    private void disableEmptyRouters(int clusterZ, int clusterY, int clusterX){
+    private void disableEmptyRouters(Cluster cluster, int clusterZ, int clusterY, int clusterX){
         /* Set phase to DRAIN phase such that they do not create packages */
-        int currentPhase = physicalCluster.getIpCores().get(0).get(0).get(0).getTrafficGenerator().getPhase();
+        int currentPhase = cluster.getIpCores().get(0).get(0).get(0).getTrafficGenerator().getPhase();
         for(int i = 0; i < sizeZ; i++) {
             for (int j = 0; j < sizeY; j++) {
                 for (int k = 0; k < sizeX; k++) {
@@ -294,9 +658,9 @@ public class ClusteredMesh {
                     int y = clusterY*sizeY + j;
                     int x = clusterX*sizeX + k;
                     if(z >= radix || y >= radix || x >= radix) {
-                        physicalCluster.getIpCores().get(i).get(j).get(k).getTrafficGenerator().setPhase(TrafficGenerator.DRAIN_PHASE);
+                        cluster.getIpCores().get(i).get(j).get(k).getTrafficGenerator().setPhase(TrafficGenerator.DRAIN_PHASE);
                     } else {
-                        physicalCluster.getIpCores().get(i).get(j).get(k).getTrafficGenerator().setPhase(currentPhase);
+                        cluster.getIpCores().get(i).get(j).get(k).getTrafficGenerator().setPhase(currentPhase);
                     }
                 }
             }
@@ -318,14 +682,14 @@ public class ClusteredMesh {
                         for(int n = 0; n < sizeY; n++){
                             if(k != numClusters[2] -1) {
                                 MemoryInterCluster eastMem = this.memoryInterClusters.get(i).get(j).get(k + 1);
-                                currentMem.getInterClusterInputChannels().get(0).get(m).get(n).addFlit(eastMem.getInterClusterOutputChannels().get(2).get(m).get(n).removeFlit());
+                                currentMem.getInterClusterInputChannels().get(0).get(m).get(n).transferFlit(eastMem.getInterClusterOutputChannels().get(2).get(m).get(n));
                                 currentMem.getInterClusterOutputCreditChannels().get(0).get(m).get(n).addCredit(eastMem.getInterClusterInputCreditChannels().get(2).get(m).get(n).removeCredit());
 
 
                             }
                             if(k != 0) {
                                 MemoryInterCluster westMem = this.memoryInterClusters.get(i).get(j).get(k - 1);
-                                currentMem.getInterClusterInputChannels().get(2).get(m).get(n).addFlit(westMem.getInterClusterOutputChannels().get(0).get(m).get(n).removeFlit());
+                                currentMem.getInterClusterInputChannels().get(2).get(m).get(n).transferFlit(westMem.getInterClusterOutputChannels().get(0).get(m).get(n));
                                 currentMem.getInterClusterOutputCreditChannels().get(2).get(m).get(n).addCredit(westMem.getInterClusterInputCreditChannels().get(0).get(m).get(n).removeCredit());
                             }
                         }
@@ -333,12 +697,12 @@ public class ClusteredMesh {
                         for(int n = 0; n < sizeX; n++){
                             if(j != 0) {
                                 MemoryInterCluster southMem = this.memoryInterClusters.get(i).get(j - 1).get(k);
-                                currentMem.getInterClusterInputChannels().get(1).get(m).get(n).addFlit(southMem.getInterClusterOutputChannels().get(3).get(m).get(n).removeFlit());
+                                currentMem.getInterClusterInputChannels().get(1).get(m).get(n).transferFlit(southMem.getInterClusterOutputChannels().get(3).get(m).get(n));
                                 currentMem.getInterClusterOutputCreditChannels().get(1).get(m).get(n).addCredit(southMem.getInterClusterInputCreditChannels().get(3).get(m).get(n).removeCredit());
                             }
                             if( j != numClusters[1] -1) {
                                 MemoryInterCluster northMem = this.memoryInterClusters.get(i).get(j + 1).get(k);
-                                currentMem.getInterClusterInputChannels().get(3).get(m).get(n).addFlit(northMem.getInterClusterOutputChannels().get(1).get(m).get(n).removeFlit());
+                                currentMem.getInterClusterInputChannels().get(3).get(m).get(n).transferFlit(northMem.getInterClusterOutputChannels().get(1).get(m).get(n));
                                 currentMem.getInterClusterOutputCreditChannels().get(3).get(m).get(n).addCredit(northMem.getInterClusterInputCreditChannels().get(1).get(m).get(n).removeCredit());
                             }
                         }
@@ -349,12 +713,12 @@ public class ClusteredMesh {
                         for(int n = 0; n < sizeX; n++){
                             if(i != numClusters[0] - 1) {
                                 MemoryInterCluster upMem = this.memoryInterClusters.get(i + 1).get(j).get(k);
-                                currentMem.getInterClusterInputChannels().get(4).get(m).get(n).addFlit(upMem.getInterClusterOutputChannels().get(5).get(m).get(n).removeFlit());
+                                currentMem.getInterClusterInputChannels().get(4).get(m).get(n).transferFlit(upMem.getInterClusterOutputChannels().get(5).get(m).get(n));
                                 currentMem.getInterClusterOutputCreditChannels().get(4).get(m).get(n).addCredit(upMem.getInterClusterInputCreditChannels().get(5).get(m).get(n).removeCredit());
                             }
                             if(i != 0) {
                                 MemoryInterCluster downMem = this.memoryInterClusters.get(i - 1).get(j).get(k);
-                                currentMem.getInterClusterInputChannels().get(5).get(m).get(n).addFlit(downMem.getInterClusterOutputChannels().get(4).get(m).get(n).removeFlit());
+                                currentMem.getInterClusterInputChannels().get(5).get(m).get(n).transferFlit(downMem.getInterClusterOutputChannels().get(4).get(m).get(n));
                                 currentMem.getInterClusterOutputCreditChannels().get(5).get(m).get(n).addCredit(downMem.getInterClusterInputCreditChannels().get(4).get(m).get(n).removeCredit());
                             }
                         }
@@ -370,10 +734,13 @@ public class ClusteredMesh {
      * Start measurement phase
      */
     public void startMeasurement(){
-        for(int i = 0; i < sizeZ; i++){
-            for(int j = 0; j < sizeY; j++){
-                for(int k = 0; k < sizeX; k++) {
-                    this.physicalCluster.getIpCores().get(i).get(j).get(k).startMeasurement();
+        for(Cluster cluster : workerClusters) {
+            cluster.getStatistics().resetPackets();
+            for (int i = 0; i < sizeZ; i++) {
+                for (int j = 0; j < sizeY; j++) {
+                    for (int k = 0; k < sizeX; k++) {
+                        cluster.getIpCores().get(i).get(j).get(k).startMeasurement();
+                    }
                 }
             }
         }
@@ -400,14 +767,16 @@ public class ClusteredMesh {
      * Start Drain phase
      */
     public void startDrain(){
-        for(int i = 0; i < sizeZ; i++){
-            for(int j = 0; j < sizeY; j++){
-                for(int k = 0; k < sizeX; k++) {
-                    this.physicalCluster.getIpCores().get(i).get(j).get(k).startDrain();
+        this.drain = true;
+        for(Cluster cluster : workerClusters) {
+            for (int i = 0; i < sizeZ; i++) {
+                for (int j = 0; j < sizeY; j++) {
+                    for (int k = 0; k < sizeX; k++) {
+                        cluster.getIpCores().get(i).get(j).get(k).startDrain();
+                    }
                 }
             }
         }
-
     }
 
     /**
@@ -415,22 +784,11 @@ public class ClusteredMesh {
      * @return true if all routers are idle
      */
     public boolean isIdle(){
-        boolean idle = true;
-        for(int i = 0; i < numClusters[0] && idle; i++){
-            for(int j = 0; j < numClusters[1] && idle; j++){
-                for(int k = 0; k < numClusters[2] && idle; k++){
-                    MemoryCluster memoryCluster = memoryClusters.get(i).get(j).get(k);
-                    for(int m = 0; m < sizeZ && idle; m++){
-                        for(int n = 0; n < sizeY && idle; n++){
-                            for(int p = 0; p < sizeX && idle; p++) {
-                                idle = memoryCluster.getMemoryRouter(m,n,p).isIdle();
-                            }
-                        }
-                    }
-                }
-            }
+        int busyRouters = 0;
+        for(Cluster cluster : workerClusters){
+            busyRouters += cluster.getStatistics().getBusyRouters();
         }
-        return idle;
+        return busyRouters == 0;
     }
 
 
@@ -439,29 +797,37 @@ public class ClusteredMesh {
      * @return average packet latency
      */
     public double calculateAveragePacketLatency(){
-        double totalPacketLatency = 0.0;
-        double averagePacketLatency = 0.0;
-        int totalReceivedPackets = 0;
-        for(int i = 0; i < numClusters[0]; i++){
-            for(int j = 0; j < numClusters[1]; j++){
-                for(int k = 0; k < numClusters[2]; k++){
-                    MemoryCluster memoryCluster = memoryClusters.get(i).get(j).get(k);
-                    for(int m = 0; m < sizeZ; m++){
-                        for(int n = 0; n < sizeY; n++){
-                            for(int p = 0; p < sizeX; p++) {
-                                int numReceivedPackets = memoryCluster.getMemoryIPCore(m,n,p).getTrafficReceiver().getNumReceivedPackets();
-                                totalReceivedPackets += numReceivedPackets;
-                                totalPacketLatency += memoryCluster.getMemoryIPCore(m,n,p).getTrafficReceiver().getAveragePacketLatency() * numReceivedPackets;
-                            }
-                        }
-                    }
-                }
-            }
+        long totalPacketLatency = 0;
+        long totalReceivedPackets = 0;
+        for(Cluster cluster : workerClusters){
+            totalPacketLatency += cluster.getStatistics().getTotalPacketLatency();
+            totalReceivedPackets += cluster.getStatistics().getNumReceivedPackets();
         }
+        return (double) totalPacketLatency / totalReceivedPackets;
+    }
 
-        averagePacketLatency = totalPacketLatency / totalReceivedPackets;
-        return averagePacketLatency;
+    /**
+     * Sum of the latencies of all received packets at all nodes (since the start of the measurement)
+     * @return total packet latency
+     */
+    public long getTotalPacketLatency(){
+        long totalPacketLatency = 0;
+        for(Cluster cluster : workerClusters){
+            totalPacketLatency += cluster.getStatistics().getTotalPacketLatency();
+        }
+        return totalPacketLatency;
+    }
 
+    /**
+     * Number of received packets at all nodes (since the start of the measurement)
+     * @return number of received packets
+     */
+    public long getNumReceivedPackets(){
+        long totalReceivedPackets = 0;
+        for(Cluster cluster : workerClusters){
+            totalReceivedPackets += cluster.getStatistics().getNumReceivedPackets();
+        }
+        return totalReceivedPackets;
     }
 
     /**
@@ -469,27 +835,13 @@ public class ClusteredMesh {
      * @return: average hop count
      */
     public double calculateAverageHops(){
-        double totalHops = 0.0;
-        double averageHops = 0.0;
-        int totalReceivedPackets = 0;
-        for(int i = 0; i < numClusters[0]; i++){
-            for(int j = 0; j < numClusters[1]; j++){
-                for(int k = 0; k < numClusters[2]; k++){
-                    MemoryCluster memoryCluster = memoryClusters.get(i).get(j).get(k);
-                    for(int m = 0; m < sizeZ; m++){
-                        for(int n = 0; n < sizeY; n++){
-                            for(int p = 0; p < sizeX; p++) {
-                                int numReceivedPackets = memoryCluster.getMemoryIPCore(m,n,p).getTrafficReceiver().getNumReceivedPackets();
-                                totalReceivedPackets += numReceivedPackets;
-                                totalHops += memoryCluster.getMemoryIPCore(m,n,p).getTrafficReceiver().getAverageHops() * numReceivedPackets;
-                            }
-                        }
-                    }
-                }
-            }
+        long totalHops = 0;
+        long totalReceivedPackets = 0;
+        for(Cluster cluster : workerClusters){
+            totalHops += cluster.getStatistics().getTotalHops();
+            totalReceivedPackets += cluster.getStatistics().getNumReceivedPackets();
         }
-        averageHops = totalHops / totalReceivedPackets;
-        return averageHops;
+        return (double) totalHops / totalReceivedPackets;
     }
 
     /**
@@ -545,6 +897,61 @@ public class ClusteredMesh {
      *                              GETTERS AND SETTERS                             *
      ******************************************************************************** */
 
+    public NetworkState getNetworkState() {
+        return networkState;
+    }
+
+    public DestinationSampler getDestinationSampler() {
+        return destinationSampler;
+    }
+
+    public RoutingTable getRoutingTable() {
+        return routingTable;
+    }
+
+    public Cluster getPhysicalCluster() {
+        return physicalCluster;
+    }
+
+    public List<List<List<MemoryCluster>>> getMemoryClusters() {
+        return memoryClusters;
+    }
+
+    public List<List<List<MemoryInterCluster>>> getMemoryInterClusters() {
+        return memoryInterClusters;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    public boolean isStateBinding() {
+        return stateBinding;
+    }
+
+    /**
+     * Select how the physical clusters access the memory clusters. Has to be set before the first simulated cycle.
+     * @param stateBinding: true to bind the memory state by reference (default), false to copy it on every load and store
+     */
+    public void setStateBinding(boolean stateBinding) {
+        this.stateBinding = stateBinding;
+        for(Cluster cluster : workerClusters){
+            cluster.setStateBinding(stateBinding);
+        }
+    }
+
+    public boolean isFastForward() {
+        return fastForward;
+    }
+
+    /**
+     * Enable the fast-forward over globally idle cycles (see fastForward). Has to be set before the first simulated cycle.
+     * @param fastForward: true to track the quiescent clusters in every phase
+     */
+    public void setFastForward(boolean fastForward) {
+        this.fastForward = fastForward;
+    }
+
     public int getNetworkTime() {
         return this.memoryClusters.get(0).get(0).get(0).getMemoryIPCore(0,0,0).getTrafficReceiver().getNetworkTime();
     }
@@ -0,0 +1,312 @@
+/*
+File:           DirectMesh.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package mesh;
+
+import building_blocks.CreditChannel;
+import building_blocks.FlitChannel;
+import building_blocks.PackedFlit;
+import ipCore.DestinationSampler;
+import ipCore.IPCore;
+import ipCore.RandomStream;
+import ipCore.TrafficGenerator;
+import router.RoutingTable;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class DirectMesh implements Mesh {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Direct (non-TDM) simulation of the whole network: a single cluster of radix x radix x radix routers and
+            IP cores is created, wired with real channels, and simulated in place. There is no memory: nothing is
+            loaded, stored or exchanged in between clusters.
+            The channels in between clusters of ClusteredMesh hold the same number of flits and credits as the channels
+            inside a cluster, so both engines simulate the same network cycle by cycle. The inter-cluster channels of
+            the single cluster are all at the edge of the network.
+            Use it when the whole network fits in memory; ClusteredMesh emulates the FPGA (and is needed for checkpoints).
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* Shared tables */
+    private DestinationSampler destinationSampler;
+    private RoutingTable routingTable;
+
+    /* Complete network */
+    private Cluster network;
+
+    /* Network variables */
+    private int radix;
+
+    /* Network stalling variables */
+    private boolean stallNext;
+    private boolean stallNetwork;
+
+    private boolean fastForward;                                // Globally idle cycles can be skipped (see fastForward)
+
+    /* Loggers */
+    private final static Logger debugLogger = Logger.getLogger("debugLogger");
+    private final static Logger resultLogger = Logger.getLogger("resultLogger");
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Constructor for a directly simulated mesh, the parameters are those of ClusteredMesh (without cluster size and threads)
+     */
+    public DirectMesh(int radix, int numPorts, int numVCs, int bufferSize, int sourceQueueSize, boolean adaptive,
+                      int flitsPerPacket, int prob, int precision, int[] hotspots, double hotSpotFactor, double rentExponent){
+        /* Flits are packed into two longs: check that the configuration fits */
+        PackedFlit.checkLimits(radix, numVCs, flitsPerPacket);
+
+        /* Destination tables and routing lookup tables */
+        this.destinationSampler = new DestinationSampler(radix, hotspots, hotSpotFactor, rentExponent);
+        this.routingTable = new RoutingTable(radix);
+
+        /* Create the whole network as one cluster and close it at the edges of the mesh */
+        this.network = new Cluster(radix, radix, radix, radix, adaptive, numPorts, numVCs, bufferSize, sourceQueueSize, flitsPerPacket, prob, precision, hotspots, hotSpotFactor, rentExponent, destinationSampler, routingTable);
+        this.setEdges(network.getInterClusterInputChannels(), network.getInterClusterInputCreditChannels());
+        this.setEdges(network.getInterClusterOutputChannels(), network.getInterClusterOutputCreditChannels());
+
+        this.radix = radix;
+
+        /* Network stalling variables */
+        stallNext = false;
+        stallNetwork = false;
+
+        this.fastForward = false;
+    }
+
+
+    /* ********************************************************************************
+     *                         CONSTRUCTOR HELP FUNCTIONS                           *
+     ******************************************************************************** */
+
+    /**
+     * Help function that marks a group of inter-cluster channels as edge channels
+     * @param flitChannels: flit channels of the group
+     * @param creditChannels: credit channels of the group
+     */
+    private void setEdges(List<List<List<FlitChannel>>> flitChannels, List<List<List<CreditChannel>>> creditChannels){
+        for(int i = 0; i < flitChannels.size(); i++){
+            for(int j = 0; j < flitChannels.get(i).size(); j++){
+                for(int k = 0; k < flitChannels.get(i).get(j).size(); k++){
+                    flitChannels.get(i).get(j).get(k).setEdge(true);
+                    creditChannels.get(i).get(j).get(k).setEdge(true);
+                }
+            }
+        }
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                              *
+     ******************************************************************************** */
+
+    /**
+     * Simulate the complete network: all routers and IP cores are simulated in place
+     */
+    public void simulateMesh(){
+        /* Network stalling variables */
+        stallNetwork = stallNext;
+        network.getStatistics().resetStallVotes();
+
+        network.simulateCluster(stallNetwork);
+
+        /* Check if the network needs to be stalled */
+        stallNext = network.checkNetworkStalling();
+    }
+
+    /**
+     * Skip the cycles in which the network stays globally empty, see ClusteredMesh.fastForward
+     * @param maxTime: the network time is not advanced beyond this time
+     * @return number of skipped cycles
+     */
+    public int fastForward(int maxTime){
+        TrafficGenerator first = network.getIpCores().get(0).get(0).get(0).getTrafficGenerator();
+        if(!fastForward || first.getPhase() == TrafficGenerator.DRAIN_PHASE || stallNext || !network.isQuiescent())
+            return 0;
+
+        /* Earliest next packet of all TGs */
+        int time = this.getNetworkTime();
+        int target = maxTime;
+        for(int i = 0; i < radix; i++){
+            for(int j = 0; j < radix; j++){
+                for(int k = 0; k < radix; k++){
+                    target = Math.min(target, network.getIpCores().get(i).get(j).get(k).getTrafficGenerator().scheduleNextPacket());
+                }
+            }
+        }
+
+        /* Jump */
+        int cycles = target - time;
+        if(cycles <= 0)
+            return 0;
+        for(int i = 0; i < radix; i++){
+            for(int j = 0; j < radix; j++){
+                for(int k = 0; k < radix; k++){
+                    network.getIpCores().get(i).get(j).get(k).advanceIdleCycles(cycles);
+                }
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Restart the random streams of all nodes from the seed of the experiment, see ClusteredMesh.setSeed
+     * @param seed: seed of the experiment
+     */
+    public void setSeed(long seed){
+        for(int i = 0; i < radix; i++){
+            for(int j = 0; j < radix; j++){
+                for(int k = 0; k < radix; k++){
+                    network.getIpCores().get(i).get(j).get(k).getTrafficGenerator().setSeed(seed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Start measurement phase
+     */
+    public void startMeasurement(){
+        network.getStatistics().resetPackets();
+        for(int i = 0; i < radix; i++){
+            for(int j = 0; j < radix; j++){
+                for(int k = 0; k < radix; k++){
+                    network.getIpCores().get(i).get(j).get(k).startMeasurement();
+                }
+            }
+        }
+    }
+
+    /**
+     * Start Drain phase
+     */
+    public void startDrain(){
+        for(int i = 0; i < radix; i++){
+            for(int j = 0; j < radix; j++){
+                for(int k = 0; k < radix; k++){
+                    network.getIpCores().get(i).get(j).get(k).startDrain();
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if the network is idle
+     * @return true if all routers are idle
+     */
+    public boolean isIdle(){
+        return network.getStatistics().getBusyRouters() == 0;
+    }
+
+    /**
+     * Calculates the average packet latency of all received packets at all nodes.
+     * @return average packet latency
+     */
+    public double calculateAveragePacketLatency(){
+        return (double) network.getStatistics().getTotalPacketLatency() / network.getStatistics().getNumReceivedPackets();
+    }
+
+    /**
+     * Sum of the latencies of all received packets at all nodes (since the start of the measurement)
+     * @return total packet latency
+     */
+    public long getTotalPacketLatency(){
+        return network.getStatistics().getTotalPacketLatency();
+    }
+
+    /**
+     * Number of received packets at all nodes (since the start of the measurement)
+     * @return number of received packets
+     */
+    public long getNumReceivedPackets(){
+        return network.getStatistics().getNumReceivedPackets();
+    }
+
+    /**
+     * Calculates the average hop count of all received packets at all nodes.
+     * @return: average hop count
+     */
+    public double calculateAverageHops(){
+        return (double) network.getStatistics().getTotalHops() / network.getStatistics().getNumReceivedPackets();
+    }
+
+    /**
+     * Print out the number of received packets at each node.
+     */
+    public void printNumReceivedPackets(){
+        for(int i = 0; i < radix; i++){
+            for(int j = 0; j < radix; j++){
+                for(int k = 0; k < radix; k++){
+                    IPCore ipCore = network.getIpCores().get(i).get(j).get(k);
+                    System.out.println("R[" + i + "," + j + "," + k + "]: " + ipCore.getTrafficReceiver().getNumReceivedPackets());
+                }
+            }
+        }
+    }
+
+    /**
+     * Print the number of received packets at each node to the debugging file.
+     */
+    public void logNumReceivedPackets(){
+        for(int i = 0; i < radix; i++){
+            for(int j = 0; j < radix; j++){
+                for(int k = 0; k < radix; k++){
+                    IPCore ipCore = network.getIpCores().get(i).get(j).get(k);
+                    debugLogger.log(Level.INFO, "R[" + i + "," + j + "," + k + "]: " + ipCore.getTrafficReceiver().getNumReceivedPackets());
+                }
+            }
+        }
+    }
+
+    /**
+     * Nothing to release: the direct engine is simulated on the calling thread
+     */
+    public void shutdown(){
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                             *
+     ******************************************************************************** */
+
+    public Cluster getNetwork() {
+        return network;
+    }
+
+    public DestinationSampler getDestinationSampler() {
+        return destinationSampler;
+    }
+
+    public RoutingTable getRoutingTable() {
+        return routingTable;
+    }
+
+    public boolean isFastForward() {
+        return fastForward;
+    }
+
+    /**
+     * Enable the fast-forward over globally idle cycles (see fastForward)
+     * @param fastForward: true to skip globally idle cycles
+     */
+    public void setFastForward(boolean fastForward) {
+        this.fastForward = fastForward;
+    }
+
+    public int getNetworkTime() {
+        return network.getIpCores().get(0).get(0).get(0).getTrafficReceiver().getNetworkTime();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+File:           Mesh.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package mesh;
+
+public interface Mesh {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Simulation engine of a radix x radix x radix mesh, as used by the tests (see MeshTest):
+                ClusteredMesh:  emulates the FPGA, the network is simulated cluster by cluster on a physical cluster (TDM)
+                DirectMesh:     every router and IP core is instantiated once and simulated in place
+            Both engines simulate the same cycle-accurate network and report the same statistics.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+
+    /**
+     * Simulate one cycle of the complete network
+     */
+    void simulateMesh();
+
+    /**
+     * Skip the cycles in which the network stays globally empty (no flits, credits or queued packets anywhere),
+     * in between two calls of simulateMesh
+     * @param maxTime: the network time is not advanced beyond this time
+     * @return number of skipped cycles (0 if the network is not empty or the fast-forward is disabled)
+     */
+    int fastForward(int maxTime);
+
+    /**
+     * Enable the fast-forward over globally idle cycles, before the first simulated cycle
+     * @param fastForward: true to enable
+     */
+    void setFastForward(boolean fastForward);
+
+    /**
+     * Restart the random streams of all nodes, before the first simulated cycle. Both engines give bit-identical
+     * results for the same seed.
+     * @param seed: seed of the experiment
+     */
+    void setSeed(long seed);
+
+    /**
+     * Start measurement phase: the packet statistics are reset
+     */
+    void startMeasurement();
+
+    /**
+     * Start drain phase: no new packets are generated
+     */
+    void startDrain();
+
+    /**
+     * Check if the network is idle
+     * @return true if all routers are idle
+     */
+    boolean isIdle();
+
+    /**
+     * Calculates the average packet latency of all received packets at all nodes.
+     * @return average packet latency
+     */
+    double calculateAveragePacketLatency();
+
+    /**
+     * Sum of the latencies of all received packets at all nodes (since the start of the measurement)
+     * @return total packet latency
+     */
+    long getTotalPacketLatency();
+
+    /**
+     * Number of received packets at all nodes (since the start of the measurement)
+     * @return number of received packets
+     */
+    long getNumReceivedPackets();
+
+    /**
+     * Calculates the average hop count of all received packets at all nodes.
+     * @return: average hop count
+     */
+    double calculateAverageHops();
+
+    /**
+     * Print out the number of received packets at each node.
+     */
+    void printNumReceivedPackets();
+
+    /**
+     * Print the number of received packets at each node to the debugging file.
+     */
+    void logNumReceivedPackets();
+
+    /**
+     * Release the worker threads of the engine (if any)
+     */
+    void shutdown();
+
+    int getNetworkTime();
+}
@@ -16,8 +16,8 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 
 package router;
 
-import building_blocks.Flit;
 import building_blocks.FlitChannel;
+import building_blocks.PackedFlit;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,9 +28,10 @@ public class Crossbar {
     /* ********************************************************************************
      *                                  VARIABLES                                   *
      ******************************************************************************** */
-    private List<Flit> inputFlits;                    // List of buffers containing flits that need to traverse the switch
+    private long[] inputControls;                       // Control words of the (packed) flits that need to traverse the switch, per input port
+    private long[] inputNodes;                          // Node words of the (packed) flits that need to traverse the switch, per input port
     private List<FlitChannel> outputChannels;           // List containing all the output channels
-    private List<Integer> configuration;                // Current configuration of the switch
+    private int[] configuration;                        // Current configuration of the switch: input port of every output port (-1 if none)
     private int numPorts;                               // Number of input/output ports connected to the switch
 
 
@@ -51,13 +52,13 @@ public class Crossbar {
     public Crossbar(int numPorts, List<FlitChannel> channels){
         this.numPorts = numPorts;
 
-        this.inputFlits = new ArrayList<Flit>();
+        this.inputControls = new long[numPorts];
+        this.inputNodes = new long[numPorts];
         this.outputChannels = new ArrayList<FlitChannel>();
-        this.configuration = new ArrayList<Integer>();
+        this.configuration = new int[numPorts];
         for(int i = 0; i < numPorts; i++){
-            this.inputFlits.add(new Flit());
             this.outputChannels.add(channels.get(i));
-            this.configuration.add(-1);
+            this.configuration[i] = -1;
         }
 
     }
@@ -71,11 +72,14 @@ public class Crossbar {
     /**
      * Add flit to the buffer of the corresponding input port
      * @param input: number of the input port
-     * @param flit: flit that needs to traverse switch
+     * @param control: control word of the flit that needs to traverse switch
+     * @param nodes: node word of the flit that needs to traverse switch
+     * @param output: number of the output port
      */
-    public void addFlit(int input, Flit flit, int output){
-        this.inputFlits.set(input, flit);
-        this.configuration.set(output, input);
+    public void addFlit(int input, long control, long nodes, int output){
+        this.inputControls[input] = control;
+        this.inputNodes[input] = nodes;
+        this.configuration[output] = input;
     }
 
     /**
@@ -84,18 +88,19 @@ public class Crossbar {
      */
     public void traverseSwitch(){
         for(int output = 0; output < numPorts; output++){
-            int input = configuration.get(output);
-            Flit flit = new Flit();
+            int input = configuration[output];
             if(input != -1){
-                flit = inputFlits.get(input);
-                debugLogger.log(Level.FINER, flit.toString() + " is added to channel at output " + output);
+                if(debugLogger.isLoggable(Level.FINER))
+                    debugLogger.log(Level.FINER, PackedFlit.toString(inputControls[input], inputNodes[input]) + " is added to channel at output " + output);
+                this.outputChannels.get(output).addFlit(inputControls[input], inputNodes[input]);
+            } else {
+                this.outputChannels.get(output).addZeroFlit();
             }
-            this.outputChannels.get(output).addFlit(flit);
 
 
 
             /* Reset configuration and input buffer */
-            this.configuration.set(output, -1);
+            this.configuration[output] = -1;
         }
     }
 
@@ -104,12 +109,17 @@ public class Crossbar {
      *                              GETTERS AND SETTERS                             *
      ******************************************************************************** */
 
-    public List<Flit> getInputFlits() {
-        return inputFlits;
+    public long[] getInputControls() {
+        return inputControls;
     }
 
-    public void setInputFlits(List<Flit> inputFlits) {
-        this.inputFlits = inputFlits;
+    public long[] getInputNodes() {
+        return inputNodes;
+    }
+
+    public void setInputFlits(long[] inputControls, long[] inputNodes) {
+        this.inputControls = inputControls;
+        this.inputNodes = inputNodes;
     }
 
     public List<FlitChannel> getOutputChannels() {
@@ -120,11 +130,11 @@ public class Crossbar {
         this.outputChannels = outputChannels;
     }
 
-    public List<Integer> getConfiguration() {
+    public int[] getConfiguration() {
         return configuration;
     }
 
-    public void setConfiguration(List<Integer> configuration) {
+    public void setConfiguration(int[] configuration) {
         this.configuration = configuration;
     }
 
@@ -20,6 +20,9 @@ import building_blocks.Credit;
 import building_blocks.CreditChannel;
 import building_blocks.Flit;
 import building_blocks.FlitChannel;
+import building_blocks.PackedFlit;
+import building_blocks.RingBuffer;
+import memory.NetworkState;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,7 +37,7 @@ public class InputPort {
     private List<InputUnit> inputUnits;         // List of all the input VC units
     private int numInputUnits;                  // Number of input VC units
 
-    private List<Credit> creditBuffer;          // Buffer used for storing credits
+    private RingBuffer<Credit> creditBuffer;    // Buffer used for storing credits
 
     /* Flit and credit channel */
     private FlitChannel inputChannel;            // Channel used for receiving flit from upstream router
@@ -57,8 +60,10 @@ public class InputPort {
      * @param inputChannel: channel used for receiving flit from upstream router
      * @param creditChannel: channel used for sending credit to upstream router
      * @param ID: identifier for debugging purposes.
+     * @param state: network state holding the state variables of the input units
+     * @param unitIndex: unit index of the first input unit of this port in the network state
      */
-    public InputPort(int numInputUnits, int bufferSize, FlitChannel inputChannel, CreditChannel creditChannel, String ID){
+    public InputPort(int numInputUnits, int bufferSize, FlitChannel inputChannel, CreditChannel creditChannel, String ID, NetworkState state, int unitIndex){
         /* ID variable */
         this.ID = ID;
 
@@ -67,15 +72,15 @@ public class InputPort {
         this.numInputUnits = numInputUnits;
         for(int i = 0; i < numInputUnits; i++){
             String unitID = this.ID + "U" + i;
-            this.inputUnits.add(new InputUnit(bufferSize, unitID));
+            this.inputUnits.add(new InputUnit(bufferSize, unitID, state, unitIndex + i));
         }
 
         /* Channels */
         this.inputChannel = inputChannel;
         this.creditChannel = creditChannel;
 
-        /* Credit buffer */
-        this.creditBuffer = new ArrayList<Credit>();
+        /* Credit buffer: at most one credit is stored and one is sent every cycle, one entry per VC is a safe bound */
+        this.creditBuffer = new RingBuffer<Credit>(numInputUnits);
 
     }
 
@@ -90,7 +95,8 @@ public class InputPort {
      */
     public void storeCredit(Credit credit){
         this.creditBuffer.add(credit);
-        debugLogger.log(Level.FINE,"Credit (VC = " + credit.getVC() + ") added to credit BUFFER at " + this.toString() );
+        if(debugLogger.isLoggable(Level.FINE))
+            debugLogger.log(Level.FINE,"Credit (VC = " + credit.getVC() + ") added to credit BUFFER at " + this.toString() );
     }
 
     /**
@@ -98,10 +104,11 @@ public class InputPort {
      * If the credit buffer is empty, a dummy credit is added.
      */
     public void sendCredit(){
-        Credit credit = new Credit();
+        Credit credit = Credit.ZERO;
         if(this.creditBuffer.size() > 0){
-            credit = creditBuffer.remove(0);
-            debugLogger.log(Level.FINE, "Credit (VC = " + credit.getVC() + ") added to credit CHANNEL at " + this.toString());
+            credit = creditBuffer.remove();
+            if(debugLogger.isLoggable(Level.FINE))
+                debugLogger.log(Level.FINE, "Credit (VC = " + credit.getVC() + ") added to credit CHANNEL at " + this.toString());
         }
         this.creditChannel.addCredit(credit);
 
@@ -116,20 +123,22 @@ public class InputPort {
         }
 
         /* Remove flit from channel */
-        Flit receivedFlit = inputChannel.removeFlit();
+        long nodes = inputChannel.getNodes();
+        long receivedFlit = inputChannel.removeFlit();
 
         /* Check if the received flit is an actual flit from upstream router */
-        if(receivedFlit.getType() != Flit.ZERO_FLIT){
+        if(PackedFlit.getType(receivedFlit) != Flit.ZERO_FLIT){
+            /* Update hop count */
+            receivedFlit = PackedFlit.increaseHops(receivedFlit);
+
             /* Add flit to corresponding VC buffer */
-            int VC = receivedFlit.getVC();
+            int VC = PackedFlit.getVC(receivedFlit);
             InputUnit inputUnit = this.inputUnits.get(VC);
-            inputUnit.addFlit(receivedFlit);
-
-            /* Update hop count */
-            receivedFlit.increaseHops();
+            inputUnit.addFlit(receivedFlit, nodes);
 
             // Log to debug file
-            debugLogger.log(Level.FINER, "Received " + receivedFlit + " at " + inputUnit);
+            if(debugLogger.isLoggable(Level.FINER))
+                debugLogger.log(Level.FINER, "Received " + PackedFlit.toString(receivedFlit, nodes) + " at " + inputUnit);
 
             /* If the unit was idle, update the state */
             if(inputUnit.getGlobalState() == InputUnit.IDLE){
@@ -183,11 +192,11 @@ public class InputPort {
         this.numInputUnits = numInputUnits;
     }
 
-    public List<Credit> getCreditBuffer() {
+    public RingBuffer<Credit> getCreditBuffer() {
         return creditBuffer;
     }
 
-    public void setCreditBuffer(List<Credit> creditBuffer) {
+    public void setCreditBuffer(RingBuffer<Credit> creditBuffer) {
         this.creditBuffer = creditBuffer;
     }
 
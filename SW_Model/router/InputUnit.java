@@ -16,10 +16,8 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 
 package router;
 
-import building_blocks.Flit;
-
-import java.util.ArrayList;
-import java.util.List;
+import building_blocks.FlitBuffer;
+import memory.NetworkState;
 
 public class InputUnit {
     /* ********************************************************************************
@@ -33,14 +31,14 @@ public class InputUnit {
     public static final int WAITING_CREDITS = 4;
     public static final int REACHED_DESTINATION = 5;
 
-    /* State Variables */
-    private int globalState;                    // Represents the state of this inputUnit
-    private int nextGlobalState;                // Value of globalState in next cycle
-    private int outputPort;                     // Output port allocated to this inputUnit
-    private int allocatedVC;                    // Virtual channel allocated (at downstream router)
+    /* State Variables: global state, next global state, output port and allocated VC are held in the network state */
+    private NetworkState state;                 // Network state holding the state variables of this inputUnit
+    private int index;                          // Unit index of this inputUnit in the network state
+    private int node;                           // Node of the router in the network state
+    private int unit;                           // Unit of this inputUnit in the router (port * numVCs + VC)
 
     /* Buffer */
-    private List<Flit> buffer;                  // Input buffer: stores incoming flits
+    private FlitBuffer buffer;                  // Input buffer: stores incoming (packed) flits (capacity: bufferSize)
     private int bufferSize;                     // Size (in number of flits) of the buffer
 
     /* Unit variables */
@@ -55,13 +53,12 @@ public class InputUnit {
      * Constructor for creating an input unit
      * @param bufferSize: size (in number of flits) of the buffer
      * @param ID: identifier for debugging purposes
+     * @param state: network state holding the state variables
+     * @param index: unit index of this input unit in the network state
      */
-    public InputUnit(int bufferSize, String ID){
-        this.globalState = IDLE;
-        this.nextGlobalState = IDLE;
-        this.outputPort = -1;
-        this.allocatedVC = -1;
-        this.buffer = new ArrayList<Flit>();
+    public InputUnit(int bufferSize, String ID, NetworkState state, int index){
+        this.bindState(state, index);
+        this.buffer = new FlitBuffer(bufferSize);
         this.bufferSize = bufferSize;
         this.ID = ID;
     }
@@ -75,37 +72,58 @@ public class InputUnit {
      * Updates state of this input unit
      */
     public void updateState(){
-        this.globalState = this.nextGlobalState;
+        state.setUnitState(node, unit, state.getUnitNextStates()[index]);
     }
 
     /**
-     * Return the first flit of the buffer (the flit is NOT removed from the buffer).
-     * @return: first flit of buffer
+     * Bind this input unit to (another) position in the network state
+     * @param state: network state holding the state variables
+     * @param index: unit index of this input unit in the network state
      */
-    public Flit getTopFlit(){
-        return this.buffer.get(0);
+    public void bindState(NetworkState state, int index){
+        this.state = state;
+        this.index = index;
+        this.node = index / state.getNumUnits();
+        this.unit = index - node * state.getNumUnits();
     }
 
     /**
-     * Return the first flit of the buffer (flit is removed from buffer).
-     * @return: first flit of buffer
+     * Return the control word of the first flit of the buffer (the flit is NOT removed from the buffer).
+     * @return: control word of the first flit of buffer
      */
-    public Flit removeTopFlit(){
-        return this.buffer.remove(0);
+    public long getTopFlit(){
+        return this.buffer.getControl(0);
     }
 
+    /**
+     * Return the node word of the first flit of the buffer (the flit is NOT removed from the buffer).
+     * @return: node word of the first flit of buffer
+     */
+    public long getTopNodes(){
+        return this.buffer.getNodes(0);
+    }
 
     /**
-     * Add a flit to the input buffer
-     * @param flit: flit to be added to the buffer
+     * Remove the first flit of the buffer.
+     * @return: control word of the first flit of buffer
      */
-    public void addFlit(Flit flit){
-        this.buffer.add(flit);
+    public long removeTopFlit(){
+        return this.buffer.remove();
+    }
 
+
+    /**
+     * Add a flit to the input buffer
+     * @param control: control word of the flit to be added to the buffer
+     * @param nodes: node word of the flit to be added to the buffer
+     */
+    public void addFlit(long control, long nodes){
         // Check buffer overflow:
-        if(this.buffer.size() > this.bufferSize){
+        if(this.buffer.isFull()){
             throw new RuntimeException("Buffer overflow at " + this.toString());
         }
+
+        this.buffer.add(control, nodes);
     }
 
 
@@ -115,11 +133,11 @@ public class InputUnit {
      ******************************************************************************** */
 
     public int getGlobalState() {
-        return globalState;
+        return state.getUnitStates()[index];
     }
 
     public int getNextGlobalState() {
-        return nextGlobalState;
+        return state.getUnitNextStates()[index];
     }
 
     public String getID() {
@@ -127,35 +145,35 @@ public class InputUnit {
     }
 
     public int getOutputPort() {
-        return outputPort;
+        return state.getUnitOutputPorts()[index];
     }
 
     public int getAllocatedVC() {
-        return allocatedVC;
+        return state.getUnitAllocatedVCs()[index];
     }
 
-    public List<Flit> getBuffer() {
+    public FlitBuffer getBuffer() {
         return buffer;
     }
 
-    public void setBuffer(List<Flit> buffer) {
+    public void setBuffer(FlitBuffer buffer) {
         this.buffer = buffer;
     }
 
     public void setNextGlobalState(int nextGlobalState) {
-        this.nextGlobalState = nextGlobalState;
+        state.setUnitNextState(node, unit, nextGlobalState);
     }
 
     public void setGlobalState(int globalState) {
-        this.globalState = globalState;
+        state.setUnitState(node, unit, globalState);
     }
 
     public void setOutputPort(int outputPort) {
-        this.outputPort = outputPort;
+        state.getUnitOutputPorts()[index] = outputPort;
     }
 
     public void setAllocatedVC(int allocatedVC) {
-        this.allocatedVC = allocatedVC;
+        state.getUnitAllocatedVCs()[index] = allocatedVC;
     }
 
     public void setID(String ID) {
@@ -19,6 +19,7 @@ package router;
 import building_blocks.Credit;
 import building_blocks.CreditChannel;
 import building_blocks.FlitChannel;
+import memory.NetworkState;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,11 +36,13 @@ public class OutputPort {
 
 
     /* Variables to keep track of downstream router virtual channels */
-    private int[] globalStates;                      // State variable (IDLE or ACTIVE) at the current cycle for every VC at the downstream router
+    /* The state variable (IDLE or ACTIVE) at the current cycle and the credit counter for every VC at the downstream router are held in the network state */
+    private NetworkState state;                      // Network state holding the states and credit counters
+    private int index;                               // Unit index of the first output VC of this port in the network state
+    private int numVCs;                              // Number of VCs at the downstream router
     private int[] nextGlobalStates;                  // State variable (IDLE or ACTIVE) at the next cycle for every VC at the downstream router
 
     /* Credit flow */
-    private int[] credits;                          // Credit counters for every VC at the downstream router
     private int[] nextCredits;
     private List<Credit> creditBuffer;              // Buffer that temporarily stores credits
     private int creditToUpdate;                     // Variable used for updating correct credit counter
@@ -66,15 +69,17 @@ public class OutputPort {
      * @param outputChannel: channel used for sending flit to downstream router
      * @param creditChannel: channel used for receiving credits from downstream router
      * @param ID: identifier for debugging purposes.
+     * @param state: network state holding the states and credit counters
+     * @param index: unit index of the first output VC of this port in the network state
      */
-    public OutputPort(int numVCs, int bufferSize, FlitChannel outputChannel, CreditChannel creditChannel, String ID){
+    public OutputPort(int numVCs, int bufferSize, FlitChannel outputChannel, CreditChannel creditChannel, String ID, NetworkState state, int index){
         /* State variables */
-        this.globalStates = new int[numVCs];
+        this.state = state;
+        this.index = index;
+        this.numVCs = numVCs;
         this.nextGlobalStates = new int[numVCs];
-        this.credits = new int[numVCs];
         this.nextCredits = new int[numVCs];
         for(int i = 0; i < numVCs; i++){
-            this.credits[i] = bufferSize;
             this.nextCredits[i] = bufferSize;
         }
 
@@ -99,11 +104,31 @@ public class OutputPort {
      * Update state of this output port
      */
     public void updateStates(){
-        for(int i = 0; i < globalStates.length; i++){
-            this.globalStates[i] = this.nextGlobalStates[i];
+        int[] globalStates = state.getOutputVCStates();
+        for(int i = 0; i < numVCs; i++){
+            globalStates[index + i] = this.nextGlobalStates[i];
         }
     }
 
+    /**
+     * Bind this output port to (another) position in the network state.
+     * The next states are initialized with the current states.
+     * @param state: network state holding the states and credit counters
+     * @param index: unit index of the first output VC of this port in the network state
+     */
+    public void bindState(NetworkState state, int index){
+        this.state = state;
+        this.index = index;
+        this.loadNextGlobalStates();
+    }
+
+    /**
+     * Initialize the next states with the current states (they are equal in between cycles)
+     */
+    public void loadNextGlobalStates(){
+        System.arraycopy(state.getOutputVCStates(), index, this.nextGlobalStates, 0, numVCs);
+    }
+
     /**
      * Set state of the output unit in the next cycle
      * @param VC: Virtual channel that needs to be updated
@@ -114,7 +139,11 @@ public class OutputPort {
     }
 
     public void setGlobalState(int VC, int state){
-        this.globalStates[VC] = state;
+        this.state.getOutputVCStates()[index + VC] = state;
+    }
+
+    public int getGlobalState(int VC){
+        return state.getOutputVCStates()[index + VC];
     }
 
 
@@ -125,7 +154,7 @@ public class OutputPort {
      * @param VC: Virtual Channel of which the credit count needs to be reduced.
      */
     public void decreaseCreditCount(int VC){
-        this.credits[VC]--;
+        state.getOutputVCCredits()[index + VC]--;
     }
 
     /**
@@ -135,14 +164,19 @@ public class OutputPort {
         Credit credit =  this.creditChannel.removeCredit();
         if(credit.getType() != Credit.ZERO_CREDIT){
             int VC = credit.getVC();
-            this.credits[VC]++;
-            debugLogger.log(Level.FINE, "Received credit at " + this.toString() + " VC = " + VC);
+            state.getOutputVCCredits()[index + VC]++;
+            if(debugLogger.isLoggable(Level.FINE))
+                debugLogger.log(Level.FINE, "Received credit at " + this.toString() + " VC = " + VC);
 
         }
     }
 
     public void setCredits(int VC, int creditCount){
-        this.credits[VC] = creditCount;
+        state.getOutputVCCredits()[index + VC] = creditCount;
+    }
+
+    public int getCredits(int VC){
+        return state.getOutputVCCredits()[index + VC];
     }
 
 
@@ -152,14 +186,6 @@ public class OutputPort {
      *                              GETTERS AND SETTERS                             *
      ******************************************************************************** */
 
-        public int[] getGlobalStates() {
-        return globalStates;
-    }
-
-    public void setGlobalStates(int[] globalStates) {
-        this.globalStates = globalStates;
-    }
-
     public int[] getNextGlobalStates() {
         return nextGlobalStates;
     }
@@ -168,14 +194,6 @@ public class OutputPort {
         this.nextGlobalStates = nextGlobalStates;
     }
 
-    public int[] getCredits() {
-        return credits;
-    }
-
-    public void setCredits(int[] credits) {
-        this.credits = credits;
-    }
-
     public int[] getNextCredits() {
         return nextCredits;
     }
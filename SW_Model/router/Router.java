@@ -20,10 +20,11 @@ import building_blocks.Credit;
 import building_blocks.CreditChannel;
 import building_blocks.Flit;
 import building_blocks.FlitChannel;
-import iSLIP.Allocator;
-import iSLIP.Arbiter;
-import memory.MemoryInputUnit;
+import building_blocks.PackedFlit;
+import iSLIP.BitsetAllocator;
 import memory.MemoryRouter;
+import memory.NetworkState;
+import memory.NetworkStatistics;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -57,9 +58,9 @@ public class Router {
 
     /* Router architecture elements */
     private RoutingUnit routingUnit;                            // Implements routing function
-    private Allocator vcAllocator;                              // Implements VC allocation (iSLIP)
-    private Allocator switchAllocator;                          // Implements Switch allocation (iSLIP)
-    private List<Integer> inputUnitPriorities;                  // Priorities used for selecting an input unit during Switch Allocation
+    private BitsetAllocator vcAllocator;                        // Implements VC allocation (iSLIP)
+    private BitsetAllocator switchAllocator;                    // Implements Switch allocation (iSLIP)
+    private int[] inputUnitPriorities;                          // Priorities used for selecting an input unit during Switch Allocation (network state array)
     private Crossbar crossbar;                                      // Implements switch
 
 
@@ -68,6 +69,15 @@ public class Router {
     private int radix;                                          // Radix of the mesh topology (n x n x n mesh has radix n)
     private String ID;                                          // Identifier for debugging purposes
 
+    /* Network state holding the state variables of this router */
+    private NetworkState networkState;
+    private int node;                                           // Node of this router in the network state
+    private int portOffset;                                     // Index of port 0 of this router in the per-port arrays of the network state
+    private int unitWords;                                      // Number of 64-bit words of an input unit state mask
+
+    /* Running statistics (busy routers) */
+    private NetworkStatistics statistics;
+
     /* Adaptive routing variables */
     private boolean adaptive;
     private int[] routerLoads;
@@ -87,13 +97,18 @@ public class Router {
      * @param numVCs: number of virtual channels at each input port
      * @param bufferSize: size (in number of flits) of the buffer of each virtual channel
      * @param position: position (z,y,x) of this router
+     * @param routingTable: routing lookup tables shared by all routers of the mesh
      * @param inputChannels: list that contains all the input channels (one for each input port)
      * @param inputCreditChannels: list that contains all the input credit channels (one for each input port)
      * @param outputChannels: list that contains all the output channels (one for each output port)
      * @param outputCreditChannels: list that contains all the output credit channels (one for each output port)
+     * @param networkState: network state holding the state variables of this router
+     * @param node: node of this router in the network state
+     * @param statistics: running network statistics, updated when this router becomes busy or idle
      */
-    public Router(int numPorts, int numVCs, int bufferSize, int[] position, int radix, boolean adaptive,
-                  List<FlitChannel> inputChannels, List<CreditChannel> inputCreditChannels, List<FlitChannel> outputChannels, List<CreditChannel> outputCreditChannels){
+    public Router(int numPorts, int numVCs, int bufferSize, int[] position, int radix, boolean adaptive, RoutingTable routingTable,
+                  List<FlitChannel> inputChannels, List<CreditChannel> inputCreditChannels, List<FlitChannel> outputChannels, List<CreditChannel> outputCreditChannels,
+                  NetworkState networkState, int node, NetworkStatistics statistics){
         /* Router variables */
         this.position = position;
         this.ID = "R[" + position[0] + "," + position[1] + "," + position[2] + "]";
@@ -101,6 +116,7 @@ public class Router {
         this.numPorts = numPorts;
         this.numPorts = numPorts;
         this.numVCs = numVCs;
+        this.statistics = statistics;
 
         /* Adaptive routing variables */
         this.adaptive = adaptive;
@@ -114,25 +130,24 @@ public class Router {
             FlitChannel inputChannel = inputChannels.get(i);
             CreditChannel inputCreditChannel = inputCreditChannels.get(i);
             String inputPortID = ID + "IP" + i;
-            this.inputPorts.add(new InputPort(numVCs, bufferSize, inputChannel, inputCreditChannel, inputPortID));
+            this.inputPorts.add(new InputPort(numVCs, bufferSize, inputChannel, inputCreditChannel, inputPortID, networkState, networkState.unitIndex(node, i, 0)));
 
             /* Add output port */
             FlitChannel outputChannel = outputChannels.get(i);
             CreditChannel outputCreditChannel = outputCreditChannels.get(i);
             String outputPortID = ID + "OP" + i;
-            this.outputPorts.add(new OutputPort(numVCs, bufferSize, outputChannel, outputCreditChannel, outputPortID));
+            this.outputPorts.add(new OutputPort(numVCs, bufferSize, outputChannel, outputCreditChannel, outputPortID, networkState, networkState.unitIndex(node, i, 0)));
         }
 
         /* Initialize router architecture elements */
-        this.routingUnit = new RoutingUnit(position, radix);
-        this.vcAllocator = new Allocator(numPorts * numVCs, numPorts*numVCs);
-        this.switchAllocator = new Allocator(numPorts, numPorts);
-        this.inputUnitPriorities = new ArrayList<Integer>();
-        for(int i = 0; i < numPorts; i++){
-            this.inputUnitPriorities.add(0);
-        }
+        this.routingUnit = new RoutingUnit(position, radix, routingTable);
+        this.vcAllocator = new BitsetAllocator(numPorts * numVCs, numPorts*numVCs);
+        this.switchAllocator = new BitsetAllocator(numPorts, numPorts);
         this.crossbar = new Crossbar(numPorts, outputChannels);
 
+        /* Bind state variables to the network state */
+        this.bindNode(networkState, node);
+
     }
 
 
@@ -150,8 +165,9 @@ public class Router {
         /* Sending of credits */
         this.creditSending();
 
-        /* Load receiving, updating and sending */
-        this.loadUpdater();
+        /* Load receiving, updating and sending (loads are only used by adaptive routing) */
+        if(adaptive)
+            this.loadUpdater();
 
         /* Switch traversal */
         this.crossbar.traverseSwitch();
@@ -171,7 +187,13 @@ public class Router {
         /* Update states */
         this.updateStates();
 
-
+        /* Keep track of the number of busy routers */
+        boolean busy = !this.isIdle();
+        int[] routerBusy = networkState.getRouterBusy();
+        if(busy != (routerBusy[node] == 1)){
+            routerBusy[node] = busy ? 1 : 0;
+            statistics.updateBusyRouters(busy);
+        }
     }
 
 
@@ -182,35 +204,43 @@ public class Router {
      * Input units who are not in the ROUTING state will be ignored.
      */
     private void routeComputation(){
-        for(int i = 0; i < numPorts; i++){
-            for(int j = 0; j < numVCs; j++){
+        /* Only visit the units in the ROUTING state */
+        long[] stateMasks = networkState.getUnitStateMasks();
+        int maskStart = networkState.stateMaskIndex(node, InputUnit.ROUTING);
+        for(int w = 0; w < unitWords; w++){
+            long units = stateMasks[maskStart + w];
+            while(units != 0){
+                int unit = (w << 6) + Long.numberOfTrailingZeros(units);
+                units &= units - 1;
+                int i = unit / numVCs;
+                int j = unit - i * numVCs;
                 InputUnit currentUnit = this.getInputUnit(i,j);
 
-                /* Check if routing needs to be computed */
-                if(currentUnit.getGlobalState() == InputUnit.ROUTING){
-                    Flit headerFlit = currentUnit.getTopFlit();
-                    debugLogger.log(Level.FINER, "ROUTING at " + currentUnit + " of " + headerFlit);
-
-                    /* Compute output port */
-                    int outputPort;
-                    if(adaptive){
-                        outputPort = this.routingUnit.minimalAdaptiveRouting(headerFlit, this.routerLoads);
-                    } else {
-                        outputPort = this.routingUnit.xyzRouting(headerFlit);
-                    }
-
-                    /* Update state fields */
-                    currentUnit.setOutputPort(outputPort);
-                    currentUnit.setNextGlobalState(InputUnit.WAITING_VC);
+                /* Compute route */
+                long headerFlit = currentUnit.getTopFlit();
+                long nodes = currentUnit.getTopNodes();
+                if(debugLogger.isLoggable(Level.FINER))
+                    debugLogger.log(Level.FINER, "ROUTING at " + currentUnit + " of " + PackedFlit.toString(headerFlit, nodes));
+
+                /* Compute output port */
+                int outputPort;
+                if(adaptive){
+                    outputPort = this.routingUnit.minimalAdaptiveRouting(nodes, this.routerLoads);
+                } else {
+                    outputPort = this.routingUnit.xyzRouting(headerFlit, nodes);
+                }
 
-                    /* Add request for VC allocation: request all VCs at the output port */
-                    int input = i*numVCs + j;
-                    for(int k = 0; k < numVCs; k++){
-                        int output = outputPort*numVCs + k;
-                        this.vcAllocator.addRequest(input, output);
-                    }
+                /* Update state fields */
+                currentUnit.setOutputPort(outputPort);
+                currentUnit.setNextGlobalState(InputUnit.WAITING_VC);
 
+                /* Add request for VC allocation: request all VCs at the output port */
+                int input = i*numVCs + j;
+                for(int k = 0; k < numVCs; k++){
+                    int output = outputPort*numVCs + k;
+                    this.vcAllocator.addRequest(input, output);
                 }
+
             }
         }
     }
@@ -226,11 +256,15 @@ public class Router {
          * If a request has resulted in a grant, the request needs to be removed.
          * If the request does not result in a grant, it needs to be applied again */
 
+        /* Only units in the WAITING_VC state have pending requests: nothing to allocate if there are none */
+        if(!networkState.hasUnits(node, InputUnit.WAITING_VC))
+            return;
+
         /* First update the states for the output arbitration */
         for(int i = 0; i < numPorts; i++){
             for(int j = 0; j < numVCs; j++){
                 int output = i*numVCs + j;
-                int state = outputPorts.get(i).getGlobalStates()[j];
+                int state = outputPorts.get(i).getGlobalState(j);
                 this.vcAllocator.updateState(output,state);
             }
         }
@@ -238,15 +272,19 @@ public class Router {
         /* iSLIP allocation to allocate outputs to inputs */
         this.vcAllocator.simulate();
 
-        List<List<Boolean>> grants = vcAllocator.getGrants();
-
-        /* Update field variables of granted inputs */
-        for(int i = 0; i < numPorts; i++){
-            for(int j = 0; j < numVCs; j++){
-                int input = i*numVCs + j;
+        /* Update field variables of granted inputs (only requesting units, in the WAITING_VC state, can get a grant) */
+        long[] stateMasks = networkState.getUnitStateMasks();
+        int maskStart = networkState.stateMaskIndex(node, InputUnit.WAITING_VC);
+        for(int w = 0; w < unitWords; w++){
+            long units = stateMasks[maskStart + w];
+            while(units != 0){
+                int input = (w << 6) + Long.numberOfTrailingZeros(units);
+                units &= units - 1;
+                int i = input / numVCs;
+                int j = input - i * numVCs;
 
                 /* Check if this input is granted access to an output VC */
-                int output = grants.get(input).indexOf(true);
+                int output = vcAllocator.getGrant(input);
                 if(output != -1){
                     InputUnit inputUnit = this.getInputUnit(i,j);
                     int outputVC = output % numVCs;
@@ -264,8 +302,10 @@ public class Router {
                     vcAllocator.resetAllRequests(input);
 
                     /* Debug logging */
-                    String outputUnit = outputPort.toString() + "U" + j;
-                    debugLogger.log(Level.FINER, "VC ALLOCATION at " + inputUnit + " of " + inputUnit.getTopFlit() + ". Assigned unit: " + outputUnit);
+                    if(debugLogger.isLoggable(Level.FINER)) {
+                        String outputUnit = outputPort.toString() + "U" + j;
+                        debugLogger.log(Level.FINER, "VC ALLOCATION at " + inputUnit + " of " + PackedFlit.toString(inputUnit.getTopFlit(), inputUnit.getTopNodes()) + ". Assigned unit: " + outputUnit);
+                    }
 
 
                 }
@@ -278,12 +318,22 @@ public class Router {
      * Switch allocation stage.
      */
     private void switchAllocation(){
-        /* Make requests */
-        for(int i = 0; i < numPorts; i++){
-            for(int j = 0; j < numVCs; j++){
-                InputUnit currentUnit = this.getInputUnit(i,j);
+        /* Only units in the ACTIVE state can request the switch */
+        if(!networkState.hasUnits(node, InputUnit.ACTIVE))
+            return;
 
-                if(currentUnit.getGlobalState() == InputUnit.ACTIVE && currentUnit.getBuffer().size() > 0 && this.getCredits(currentUnit) > 0 ){
+        /* Make requests */
+        long[] stateMasks = networkState.getUnitStateMasks();
+        int maskStart = networkState.stateMaskIndex(node, InputUnit.ACTIVE);
+        for(int w = 0; w < unitWords; w++){
+            long units = stateMasks[maskStart + w];
+            while(units != 0){
+                int unit = (w << 6) + Long.numberOfTrailingZeros(units);
+                units &= units - 1;
+                int i = unit / numVCs;
+                InputUnit currentUnit = this.getInputUnit(i, unit - i * numVCs);
+
+                if(currentUnit.getBuffer().size() > 0 && this.getCredits(currentUnit) > 0 ){
                         int input = i;      // This input PORT requests access to the switch
                         int output =  currentUnit.getOutputPort();
                         this.switchAllocator.addRequest(input, output);
@@ -298,43 +348,44 @@ public class Router {
         /* iSLIP allocation */
         this.switchAllocator.simulate();
 
-        List<List<Boolean>> grants = this.switchAllocator.getGrants();
-
         /* Find input PORT that has been granted access to switch */
         for(int i = 0; i < numPorts; i++){
-            int output = grants.get(i).indexOf(true);
+            int output = this.switchAllocator.getGrant(i);
             if(output != -1){
                 /* Input port i is granted access to the switch, select 1 of the VCs to send a flit */
                 for(int j = 0; j < numVCs; j++){
-                    int VC = (inputUnitPriorities.get(i) + j) % numVCs;
+                    int VC = (inputUnitPriorities[portOffset + i] + j) % numVCs;
                     InputUnit inputUnit = this.getInputUnit(i,VC);
                     if(inputUnit.getOutputPort() == output && inputUnit.getGlobalState() == InputUnit.ACTIVE && inputUnit.getBuffer().size() > 0 && this.getCredits(inputUnit) > 0){
 
                         /* Apply flit to the switch */
-                        Flit flit = inputUnit.removeTopFlit();
-                        flit.setVC(inputUnit.getAllocatedVC());
-                        this.crossbar.addFlit(i, flit, output);
+                        long nodes = inputUnit.getTopNodes();
+                        long flit = PackedFlit.setVC(inputUnit.removeTopFlit(), inputUnit.getAllocatedVC());
+                        this.crossbar.addFlit(i, flit, nodes, output);
 
-                        debugLogger.log(Level.FINER, "SWITCH ALLOCATION at " + inputUnit + " of " + flit);
+                        if(debugLogger.isLoggable(Level.FINER))
+                            debugLogger.log(Level.FINER, "SWITCH ALLOCATION at " + inputUnit + " of " + PackedFlit.toString(flit, nodes));
 
                         /* Update credit counter for this output VC */
                         this.outputPorts.get(output).decreaseCreditCount(inputUnit.getAllocatedVC());
 
                         /* Send credit to upstream router */
-                        inputPorts.get(i).storeCredit(new Credit(VC));
+                        inputPorts.get(i).storeCredit(Credit.forVC(VC));
 
                         /* Update priority for selecting VC at input port */
                         int newPriority = (VC + 1) % numVCs;
-                        this.inputUnitPriorities.set(i, newPriority);
+                        this.inputUnitPriorities[portOffset + i] = newPriority;
 
                         /* If this flit is a TAIL flit, the resources need te be released again! */
-                        if(flit.getType() == Flit.TAIL_FLIT){
+                        if(PackedFlit.getType(flit) == Flit.TAIL_FLIT){
                             /* Set output VC state back to idle */
                             outputPorts.get(output).setNextGlobalState(inputUnit.getAllocatedVC(), OutputPort.IDLE);
 
                             /* Debug logging */
-                            String outputUnit = outputPorts.get(output).toString() + "U" + inputUnit.getAllocatedVC();
-                            debugLogger.log(Level.FINER, "Tail flit releases " + outputUnit + " at " + inputUnit);
+                            if(debugLogger.isLoggable(Level.FINER)) {
+                                String outputUnit = outputPorts.get(output).toString() + "U" + inputUnit.getAllocatedVC();
+                                debugLogger.log(Level.FINER, "Tail flit releases " + outputUnit + " at " + inputUnit);
+                            }
 
                             /* Reset input unit fields */
                             inputUnit.setOutputPort(-1);
@@ -370,7 +421,7 @@ public class Router {
         for(int i = 0; i < numPorts-1; i++){
             int load = 0;
             for(int j = 0; j < numVCs; j++) {
-                load += this.getOutputPort(i).getGlobalStates()[j];
+                load += this.getOutputPort(i).getGlobalState(j);
             }
             this.routerLoads[i] = load;
         }
@@ -381,14 +432,11 @@ public class Router {
      * Updating of states of the input and output units.
      */
     private void updateStates(){
-        for(int i = 0; i < numPorts; i++){
-            /* Update input unit states */
-            for(int j = 0; j < numVCs; j++){
-                InputUnit inputUnit = this.getInputUnit(i,j);
-                inputUnit.updateState();
-            }
+        /* Update input unit states (only the units of which the next state was set in this cycle) */
+        networkState.updateUnitStates(node);
 
-            /* Update output unit states */
+        /* Update output unit states */
+        for(int i = 0; i < numPorts; i++){
             outputPorts.get(i).updateStates();
         }
     }
@@ -398,17 +446,27 @@ public class Router {
      * @return boolean idle: indicates state of router
      */
     public boolean isIdle(){
-        boolean idle = true;
-        for(int i = 0; i < numPorts && idle; i++){
+        /* As soon as 1 element is not idle, the router itself is not idle (input units are checked on their state masks) */
+        return networkState.isRouterIdle(node);
+    }
+
+    /**
+     * Determines whether or not this router is quiescent: idle, without buffered flits or credits and without flits in the switch.
+     * Simulating a quiescent router with idle input channels does not change its state.
+     * @return true if the router is quiescent
+     */
+    public boolean isQuiescent(){
+        if(!this.isIdle())
+            return false;
+        for(int i = 0; i < numPorts; i++){
+            if(this.inputPorts.get(i).getCreditBuffer().size() > 0 || this.crossbar.getConfiguration()[i] != -1)
+                return false;
             for(int j = 0; j < numVCs; j++){
-                /* As soon as 1 element is not idle, the router itself is not idle */
-                if(getInputUnit(i,j).getGlobalState() != InputUnit.IDLE || outputPorts.get(i).getGlobalStates()[j] != OutputPort.IDLE) {
-                    idle = false;
-                    break;
-                }
+                if(this.getInputUnit(i,j).getBuffer().size() > 0)
+                    return false;
             }
         }
-        return idle;
+        return true;
     }
 
     /**
@@ -451,76 +509,95 @@ public class Router {
 
         this.routingUnit.setPosition(this.position);
 
-        /* Load states into input units */
+        /* Load input unit states, output VC states, credit counters, allocator requests and priorities */
+        memoryRouter.getNetworkState().copyRouterState(memoryRouter.getNode(), this.networkState, this.node);
+
         for(int i = 0; i < numPorts; i++){
+            /* Load buffers into input units */
             for(int j = 0; j < numVCs; j++){
-                MemoryInputUnit loadUnit = memoryRouter.getInputUnits().get(i).get(j);
-                InputUnit currentUnit = this.getInputUnit(i,j);
-                currentUnit.setGlobalState(loadUnit.getGlobalState());
-                currentUnit.setNextGlobalState(loadUnit.getNextGlobalState());
-                currentUnit.setAllocatedVC(loadUnit.getAllocatedVC());
-                currentUnit.setOutputPort(loadUnit.getOutputPort());
-                currentUnit.setBuffer(loadUnit.getBuffer());
+                this.getInputUnit(i,j).getBuffer().copyFrom(memoryRouter.getInputBuffer(i,j));
             }
-        }
 
-        /* Load Credit buffers at input ports */
-        for(int i = 0; i < numPorts; i++){
-            this.inputPorts.get(i).getCreditBuffer().clear();
-            for(int j = 0; j < memoryRouter.getCreditBuffers().get(i).size(); j++){
-                this.inputPorts.get(i).getCreditBuffer().add(memoryRouter.getCreditBuffers().get(i).get(j));
-            }
+            /* Load Credit buffers at input ports */
+            this.inputPorts.get(i).getCreditBuffer().copyFrom(memoryRouter.getCreditBuffers().get(i));
+
+            /* Next states of output VCs are equal to the current states */
+            this.outputPorts.get(i).loadNextGlobalStates();
         }
 
-        /* Load VC allocator priorities */
-        for(int i = 0; i < numPorts*numVCs; i++){
-            int inputPriority = memoryRouter.getVcAllocatorInputPriorities().get(i);
-            Arbiter currentInputArbiter = this.vcAllocator.getInputArbiters().get(i);
-            currentInputArbiter.setPriority(inputPriority);
+        /* Load crossbar inputs and configuration (copied in place) */
+        System.arraycopy(memoryRouter.getCrossbarConfiguration(), 0, this.crossbar.getConfiguration(), 0, numPorts);
+        System.arraycopy(memoryRouter.getCrossbarInputControls(), 0, this.crossbar.getInputControls(), 0, numPorts);
+        System.arraycopy(memoryRouter.getCrossbarInputNodes(), 0, this.crossbar.getInputNodes(), 0, numPorts);
 
-            int outputPriority = memoryRouter.getVcAllocatorOutputPriorities().get(i);
-            Arbiter currentOutputArbiter = this.vcAllocator.getOutputArbiters().get(i);
-            currentOutputArbiter.setPriority(outputPriority);
-        }
 
-        /* Load VC allocator requests */
-        for(int i = 0; i < numPorts*numVCs; i++){
-            vcAllocator.resetAllRequests(i);
-            for(int j = 0; j < numPorts*numVCs; j++){
-                if(memoryRouter.getVcAllocatorRequests().get(i).get(j)){
-                    vcAllocator.addRequest(i,j);
-                }
-            }
-        }
+        /* Set IDs */
+        this.updateIDs();
+    }
 
-        /* Update states from output VCS */
-        for (int i = 0; i < numPorts; i++){
-            for(int j = 0; j < numVCs; j++){
-                int state = memoryRouter.getOutputStates().get(i)[j];
-                int creditCount = memoryRouter.getCreditCounters().get(i)[j];
-                this.outputPorts.get(i).setCredits(j, creditCount);
-                this.outputPorts.get(i).setGlobalState(j, state);
-                this.outputPorts.get(i).setNextGlobalState(j, state);
-            }
-        }
+    /**
+     * Bind this router to the state held in memory (zero-copy alternative to loadState).
+     * The router works directly on the node of the memory element in the network state, and the buffers
+     * and crossbar arrays of the memory element are used by reference. Nothing has to be stored afterwards.
+     * @param memoryRouter: memory element containing information for this router
+     */
+    public void bindState(MemoryRouter memoryRouter){
+
+        this.position = memoryRouter.getPosition();
+
+        this.routingUnit.setPosition(this.position);
+
+        /* Bind input unit states, output VC states, credit counters, allocator requests and priorities */
+        this.bindNode(memoryRouter.getNetworkState(), memoryRouter.getNode());
 
-        /* Load Switch Allocator priorities */
         for(int i = 0; i < numPorts; i++){
-            int inputPriority = memoryRouter.getSwitchAllocatorInputPriorities().get(i);
-            Arbiter currentInputArbiter = this.switchAllocator.getInputArbiters().get(i);
-            currentInputArbiter.setPriority(inputPriority);
+            /* Bind buffers of input units */
+            for(int j = 0; j < numVCs; j++){
+                this.getInputUnit(i,j).setBuffer(memoryRouter.getInputBuffer(i,j));
+            }
 
-            int outputPriority = memoryRouter.getSwitchAllocatorOutputPriorities().get(i);
-            Arbiter currentOutputArbiter = this.switchAllocator.getOutputArbiters().get(i);
-            currentOutputArbiter.setPriority(outputPriority);
+            /* Credit buffer at input port */
+            this.inputPorts.get(i).setCreditBuffer(memoryRouter.getCreditBuffers().get(i));
         }
 
-        /* Load crossbar inputs and configuration */
+        /* Bind crossbar inputs and configuration */
         this.crossbar.setConfiguration(memoryRouter.getCrossbarConfiguration());
-        this.crossbar.setInputFlits(memoryRouter.getCrossbarInputs());
+        this.crossbar.setInputFlits(memoryRouter.getCrossbarInputControls(), memoryRouter.getCrossbarInputNodes());
 
+        /* IDs are only needed for debug logging */
+        if(debugLogger.isLoggable(Level.FINE))
+            this.updateIDs();
+    }
 
-        /* Set IDs */
+    /**
+     * Bind all state variables of this router (input units, output ports, allocators) to a node in the network state
+     * @param networkState: network state holding the state variables
+     * @param node: node in the network state
+     */
+    private void bindNode(NetworkState networkState, int node){
+        this.networkState = networkState;
+        this.node = node;
+        this.portOffset = networkState.portIndex(node, 0);
+        this.unitWords = networkState.getUnitWords();
+        this.inputUnitPriorities = networkState.getInputUnitPriorities();
+
+        for(int i = 0; i < numPorts; i++){
+            for(int j = 0; j < numVCs; j++){
+                this.getInputUnit(i,j).bindState(networkState, networkState.unitIndex(node, i, j));
+            }
+            this.outputPorts.get(i).bindState(networkState, networkState.unitIndex(node, i, 0));
+        }
+
+        int unitOffset = networkState.unitIndex(node, 0, 0);
+        this.vcAllocator.bindRequests(networkState.getVcRequests(), networkState.requestIndex(node, 0));
+        this.vcAllocator.bindPriorities(networkState.getVcInputPriorities(), unitOffset, networkState.getVcOutputPriorities(), unitOffset);
+        this.switchAllocator.bindPriorities(networkState.getSwitchInputPriorities(), portOffset, networkState.getSwitchOutputPriorities(), portOffset);
+    }
+
+    /**
+     * Rebuild the identifiers of this router and its elements from the current position
+     */
+    private void updateIDs(){
         this.ID = "R[" + position[0] + "," + position[1] + "," + position[2] + "]";
         for(int i = 0; i < numPorts; i++){
             this.inputPorts.get(i).setID(ID + "IP" + i);
@@ -547,17 +624,25 @@ public class Router {
 
     public int getCredits(InputUnit inputUnit){
         OutputPort outputPort = outputPorts.get(inputUnit.getOutputPort());
-        return outputPort.getCredits()[inputUnit.getAllocatedVC()];
+        return outputPort.getCredits(inputUnit.getAllocatedVC());
     }
 
-    public Allocator getVcAllocator(){
+    public BitsetAllocator getVcAllocator(){
         return this.vcAllocator;
     }
 
-    public Allocator getSwitchAllocator(){
+    public BitsetAllocator getSwitchAllocator(){
         return this.switchAllocator;
     }
 
+    public NetworkState getNetworkState(){
+        return this.networkState;
+    }
+
+    public int getNode(){
+        return this.node;
+    }
+
     public OutputPort getOutputPort(int i){
         return this.outputPorts.get(i);
     }
@@ -0,0 +1,249 @@
+/*
+File:           RoutingTable.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package router;
+
+public class RoutingTable {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Routing lookup tables, built once per mesh and shared by all routing units.
+            The minimal directions (output ports 0-5 that bring the packet closer to the destination) split by axis:
+            for every axis a radix x radix table holds the direction bits of a (current, destination) coordinate pair,
+            and the coordinates of every node are stored. The minimal directions of a header are the OR of three
+            table lookups, the XYZ output port follows from them through a table of 64 entries.
+            The candidates of minimal adaptive routing are the minimal directions of which the neighbour lies on the
+            Hamiltonian path between the current node and the destination: one label lookup per minimal direction.
+            Routing a header takes a few array loads, without division or allocation, at every radix.
+            Memory: O(radix^2 + numNodes).
+
+            Nodes are numbered as node = x + radix * y + radix * radix * z (see DestinationSampler).
+            Port numbering: 0 EAST, 1 SOUTH, 2 WEST, 3 NORTH, 4 UP, 5 DOWN, 6 IPCORE (see RoutingUnit).
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final int CANDIDATE_SHIFT = 8;                    // Position of the candidate bits in a mask
+    public static final int DIRECTION_BITS = 0x3F;                  // Bits of the (minimal or candidate) directions of a mask
+    private static final int[] XYZ_PORTS = buildXYZPorts();         // XYZ output port for every mask of minimal directions
+
+    private int radix;                                              // Radix of the mesh topology
+    private int numNodes;                                           // Number of nodes in the mesh
+    private int[] labels;                                           // Hamiltonian label of every node
+    private int[] neighbourOffsets;                                 // Node offset of the neighbour at output ports 0-5
+    private int[] xOffsets;                                         // x coordinate of every node, times radix (row of xDirections)
+    private int[] yOffsets;                                         // y coordinate of every node, times radix (row of yDirections)
+    private int[] zOffsets;                                         // z coordinate of every node, times radix (row of zDirections)
+    private int[] xCoordinates;                                     // x coordinate of every node
+    private int[] yCoordinates;                                     // y coordinate of every node
+    private int[] zCoordinates;                                     // z coordinate of every node
+    private byte[] xDirections;                                     // EAST/WEST bits of a (current x, destination x) pair: [current * radix + destination]
+    private byte[] yDirections;                                     // NORTH/SOUTH bits of a (current y, destination y) pair
+    private byte[] zDirections;                                     // UP/DOWN bits of a (current z, destination z) pair
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Constructor: builds the Hamiltonian labels, the node coordinates and the direction tables of the mesh
+     * @param radix: radix of the mesh (n x n x n mesh has radix n)
+     */
+    public RoutingTable(int radix){
+        this.radix = radix;
+        this.numNodes = radix * radix * radix;
+        this.neighbourOffsets = new int[]{1, -radix, -1, radix, radix * radix, -radix * radix};
+
+        /* Hamiltonian labels and coordinates */
+        this.labels = new int[numNodes];
+        this.xCoordinates = new int[numNodes];
+        this.yCoordinates = new int[numNodes];
+        this.zCoordinates = new int[numNodes];
+        this.xOffsets = new int[numNodes];
+        this.yOffsets = new int[numNodes];
+        this.zOffsets = new int[numNodes];
+        for(int z = 0; z < radix; z++){
+            for(int y = 0; y < radix; y++){
+                for(int x = 0; x < radix; x++){
+                    int node = nodeIndex(z, y, x);
+                    labels[node] = hamiltonianLabel(z, y, x);
+                    xCoordinates[node] = x;
+                    yCoordinates[node] = y;
+                    zCoordinates[node] = z;
+                    xOffsets[node] = x * radix;
+                    yOffsets[node] = y * radix;
+                    zOffsets[node] = z * radix;
+                }
+            }
+        }
+
+        /* Minimal directions per axis */
+        this.xDirections = buildDirections(radix, 0, 2);            /* EAST / WEST */
+        this.yDirections = buildDirections(radix, 3, 1);            /* NORTH / SOUTH */
+        this.zDirections = buildDirections(radix, 4, 5);            /* UP / DOWN */
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Node number of a position in the mesh
+     * @param z: z coordinate
+     * @param y: y coordinate
+     * @param x: x coordinate
+     * @return node number
+     */
+    public int nodeIndex(int z, int y, int x){
+        return (z * radix + y) * radix + x;
+    }
+
+    /**
+     * Minimal directions of a (current, destination) pair: output ports 0-5 that bring the packet closer to the destination
+     * @param current: node number of the current router
+     * @param destination: node number of the destination router
+     * @return mask of the minimal directions
+     */
+    public int getDirections(int current, int destination){
+        return xDirections[xOffsets[current] + xCoordinates[destination]]
+                | yDirections[yOffsets[current] + yCoordinates[destination]]
+                | zDirections[zOffsets[current] + zCoordinates[destination]];
+    }
+
+    /**
+     * Routing mask of a (current, destination) pair: minimal directions in bits 0-5 and adaptive candidates in bits 8-13
+     * @param current: node number of the current router
+     * @param destination: node number of the destination router
+     * @return routing mask
+     */
+    public int getMask(int current, int destination){
+        return getDirections(current, destination) | (getCandidates(current, destination) << CANDIDATE_SHIFT);
+    }
+
+    /**
+     * Dimension order (xyz) output port
+     * @param current: node number of the current router
+     * @param destination: node number of the destination router
+     * @return output port (6 if the current router is the destination)
+     */
+    public int getXYZPort(int current, int destination){
+        return XYZ_PORTS[getDirections(current, destination)];
+    }
+
+    /**
+     * Candidate output ports of minimal adaptive routing (minimal directions towards a neighbour on the Hamiltonian path)
+     * @param current: node number of the current router
+     * @param destination: node number of the destination router
+     * @return mask of the candidate output ports 0-5
+     */
+    public int getCandidates(int current, int destination){
+        int sourceLabel = labels[current];
+        int destLabel = labels[destination];
+        int candidates = 0;
+        /* At most one direction per axis: iterate over the set bits only */
+        for(int directions = getDirections(current, destination); directions != 0; directions &= directions - 1){
+            int port = Integer.numberOfTrailingZeros(directions);
+            int candLabel = labels[current + neighbourOffsets[port]];
+            boolean onPath;
+            if(sourceLabel < destLabel)
+                onPath = candLabel <= destLabel && candLabel > sourceLabel;
+            else
+                onPath = candLabel >= destLabel && candLabel < sourceLabel;
+            if(onPath)
+                candidates |= 1 << port;
+        }
+        return candidates;
+    }
+
+    /**
+     * Determines the hamiltonian label of a node
+     * @param z: z coordinate of the node
+     * @param y: y coordinate of the node
+     * @param x: x coordinate of the node
+     * @return: Hamiltonian label
+     */
+    private int hamiltonianLabel(int z, int y, int x){
+        if(z % 2 == 0){
+            if(y % 2 == 0){
+                // z even and y even
+                return radix*radix*z + radix*y + x + 1;
+            } else {
+                // z even and y odd
+                return radix*radix*z + radix*y + radix - x;
+            }
+        } else{
+            if(y % 2 == 0){
+                // z odd and y even
+                return radix*radix*z + radix * (radix - y - 1) + radix - x;
+            } else {
+                // z odd and y odd
+                return radix*radix*z + radix * (radix - y - 1) + x + 1;
+            }
+        }
+    }
+
+    /**
+     * Direction bits of one axis for every (current, destination) coordinate pair
+     * @param radix: radix of the mesh
+     * @param higherPort: output port towards higher coordinates
+     * @param lowerPort: output port towards lower coordinates
+     * @return table of radix x radix direction bits: [current * radix + destination]
+     */
+    private static byte[] buildDirections(int radix, int higherPort, int lowerPort){
+        byte[] directions = new byte[radix * radix];
+        for(int current = 0; current < radix; current++){
+            for(int destination = 0; destination < radix; destination++){
+                if(destination > current)
+                    directions[current * radix + destination] = (byte) (1 << higherPort);
+                else if(destination < current)
+                    directions[current * radix + destination] = (byte) (1 << lowerPort);
+            }
+        }
+        return directions;
+    }
+
+    /**
+     * XYZ output port for every mask of minimal directions: first x (EAST/WEST), then y (NORTH/SOUTH), then z (UP/DOWN)
+     * @return table of 64 output ports
+     */
+    private static int[] buildXYZPorts(){
+        int[] ports = new int[DIRECTION_BITS + 1];
+        for(int directions = 0; directions <= DIRECTION_BITS; directions++){
+            int port = 6;                               /* Destination is ipCore */
+            int[] order = {0, 2, 3, 1, 4, 5};
+            for(int i = 0; i < order.length; i++){
+                if((directions & (1 << order[i])) != 0){
+                    port = order[i];
+                    break;
+                }
+            }
+            ports[directions] = port;
+        }
+        return ports;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public int getRadix() {
+        return radix;
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    public int getLabel(int node) {
+        return labels[node];
+    }
+}
@@ -17,9 +17,8 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 package router;
 
 import building_blocks.Flit;
+import building_blocks.PackedFlit;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,13 +32,19 @@ public class RoutingUnit {
             4 : UP
             5 : DOWN
             6 : IPCORE
+            Routing decisions are looked up in the routing table shared by all routers of the mesh (see RoutingTable).
         - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
 
     /* ********************************************************************************
      *                                  VARIABLES                                   *
      ******************************************************************************** */
+    /* CONSTANTS */
+    private static final int[] CANDIDATE_ORDER = {0, 2, 3, 1, 4, 5};      // Order in which adaptive candidates are considered (x, y, z)
+
     private int[] position;                         // Position of the current router: (z,y,x) coordinates
     private int radix;                              // Radix of the mesh topology (n x n x n mesh has radix n)
+    private int node;                               // Node number of the current router in the routing table
+    private RoutingTable routingTable;              // Routing lookup tables shared by all routers of the mesh
 
     private String ID;                              // ID for debugging purposes
 
@@ -52,11 +57,14 @@ public class RoutingUnit {
      *                                   CONSTRUCTORS                               *
      ******************************************************************************** */
     /**
-     * @param position: position of the current router: (y,x) coordinates
+     * @param position: position of the current router: (z,y,x) coordinates
+     * @param radix: radix of the mesh topology
+     * @param routingTable: routing lookup tables shared by all routers of the mesh
      */
-    public RoutingUnit(int[] position, int radix){
-        this.position = position;
+    public RoutingUnit(int[] position, int radix, RoutingTable routingTable){
         this.radix = radix;
+        this.routingTable = routingTable;
+        this.setPosition(position);
         this.ID = "RoutingUnit@[" + position[0] + "," + position[1] + "," + position[2] + "]";
     }
 
@@ -65,46 +73,17 @@ public class RoutingUnit {
      ******************************************************************************** */
     /**
      * Dimension order (xyz) routing; using the destination field in the header Flit, the flit is routed to correct output port.
-     * @param headerFlit: header flit containing information about destination router
+     * @param headerFlit: control word of the header flit
+     * @param nodes: node word of the header flit, containing information about destination router
      * @return output port to which the packet needs to be routed
      */
-    public int xyzRouting(Flit headerFlit){
+    public int xyzRouting(long headerFlit, long nodes){
         int outputPort = -1;
 
         /* Safety check */
-        if(headerFlit.getType() == Flit.HEADER_FLIT){
-            int[] destination = headerFlit.getDestination();
-            int zd = destination[0];
-            int yd = destination[1];
-            int xd = destination[2];
-            int zp = this.position[0];
-            int yp = this.position[1];
-            int xp = this.position[2];
-
-            /* First Routing in x-direction */
-            if(xd > xp){                                /* Destination to the EAST */
-                outputPort = 0;
-            } else if(xd < xp){                         /* Destination to the WEST */
-                outputPort = 2;
-            }
-            /* Routing in y-direction */
-            else if(yd > yp){                           /* Destination NORTH  */
-                outputPort = 3;
-            } else if(yd < yp){                         /* Destination SOUTH  */
-                outputPort = 1;
-            }
-            /* Routing in z-direction */
-            else if(zd > zp){                           /* Destination UP (in 3D plane) */
-                outputPort = 4;
-            } else if(zd < zp){                         /* Destination DOWN (in 3D plane) */
-                outputPort = 5;
-            }
-            /* Current router is destination */
-            else {
-                outputPort = 6;                         /* Destination is ipCore */
-            }
-
-
+        if(PackedFlit.getType(headerFlit) == Flit.HEADER_FLIT){
+            /* First routing in x-direction, then y-direction, then z-direction, ipCore at the destination */
+            outputPort = routingTable.getXYZPort(node, this.destinationNode(nodes));
         } else {    /* Not a header flit */
             String errorMsg = "Error: non-header flit being routed by " + this.ID;
             System.out.println(errorMsg);
@@ -122,117 +101,42 @@ public class RoutingUnit {
      *      M. Ebrahimi, M. Daneshtalab, P. Liljeberg, J. Plosila, J. Flich, and H. Tenhunen,
      *      “Path-based partitioning methods for 3d networks-on-chip with minimal adaptive routing,”
      *      IEEE Transactions on Computers, vol. 63, no. 3, pp. 718–733, 2012.
-     * @param headerFlit
-     * @param routerLoads
-     * @return
+     * @param nodes: node word of the header flit, containing information about destination router
+     * @param routerLoads: loads of the neighbouring routers at output ports 0-5
+     * @return output port to which the packet needs to be routed
      */
-    public int minimalAdaptiveRouting(Flit headerFlit, int[] routerLoads){
+    public int minimalAdaptiveRouting(long nodes, int[] routerLoads){
         int outputPort = -1;
 
-        List<Integer> candidates = new ArrayList<Integer>();
-
-        int[] destination = headerFlit.getDestination();
-        int zd = destination[0];
-        int yd = destination[1];
-        int xd = destination[2];
-        int zp = this.position[0];
-        int yp = this.position[1];
-        int xp = this.position[2];
+        int destination = this.destinationNode(nodes);
 
         /* If current router is destination, send to IP core */
-        if(xd == xp && yd == yp && zd == zp){
+        if(destination == node){
             return 6;
         }
 
-        /* Determine candidate output ports on minimal path */
-        if(xd > xp){                                /* Destination to the EAST */
-            if(isOnHamiltonianPath(position, destination, new int[]{zp,yp,xp+1}))
-                candidates.add(0);
-        } else if(xd < xp){                         /* Destination to the WEST */
-            if(isOnHamiltonianPath(position, destination, new int[]{zp,yp,xp-1}))
-                candidates.add(2);
-        }
-        if(yd > yp){                                /* Destination NORTH  */
-            if(isOnHamiltonianPath(position, destination, new int[]{zp,yp+1,xp}))
-                candidates.add(3);
-        } else if(yd < yp){                         /* Destination SOUTH  */
-            if(isOnHamiltonianPath(position, destination, new int[]{zp,yp-1,xp}))
-                candidates.add(1);
-        }
-       if(zd > zp){                                 /* Destination UP (in 3D plane) */
-           if(isOnHamiltonianPath(position, destination, new int[]{zp+1,yp,xp}))
-               candidates.add(4);
-        } else if(zd < zp){                         /* Destination DOWN (in 3D plane) */
-           if(isOnHamiltonianPath(position, destination, new int[]{zp-1,yp,xp}))
-               candidates.add(5);
-        }
-
+        /* Candidate output ports on minimal path towards a neighbour on the Hamiltonian path */
+        int candidates = routingTable.getCandidates(node, destination);
 
-       /* Check network loads at each output port and select candidate with lowest load */
+        /* Check network loads at each output port and select candidate with lowest load */
         int minLoad = 1000;
-        for(int i = 0; i < candidates.size(); i++){
-            if(routerLoads[candidates.get(i)] < minLoad){
-                minLoad = routerLoads[candidates.get(i)];
-                outputPort = candidates.get(i);
+        for(int i = 0; i < CANDIDATE_ORDER.length; i++){
+            int candidate = CANDIDATE_ORDER[i];
+            if((candidates & (1 << candidate)) != 0 && routerLoads[candidate] < minLoad){
+                minLoad = routerLoads[candidate];
+                outputPort = candidate;
             }
         }
         return outputPort;
     }
 
     /**
-     * Checks if the candidate node is on the HamiltonianPath between source and destination.
-     * @param source: coordinates of the source node
-     * @param destination: coordinates of the destination node
-     * @param candidate: coordinates of the candidate node
-     * @return: true if candidate is on hamiltonian path
+     * Node number of the destination router of a packet
+     * @param nodes: node word of the header flit
+     * @return node number in the routing table
      */
-    private boolean isOnHamiltonianPath(int[] source, int[] destination, int[] candidate){
-        int sourceLabel = hamiltonianLabel(source);
-        int destLabel = hamiltonianLabel(destination);
-        int candLabel = hamiltonianLabel(candidate);
-
-        if(sourceLabel < destLabel){
-            return (candLabel <= destLabel && candLabel > sourceLabel);
-        }
-        else{
-            return (candLabel >= destLabel && candLabel < sourceLabel);
-        }
-    }
-
-    /**
-     * Determines the hamiltonian label of a node
-     * @param position: coordinates of the node
-     * @return: Hamiltonian label
-     */
-    private int hamiltonianLabel(int[] position){
-        int label = 0;
-
-        int z = position[0];
-        int y = position[1];
-        int x = position[2];
-
-        if(z % 2 == 0){
-            if(y % 2 == 0){
-                // z even and y even
-                label = radix*radix*z + radix*y + x + 1;
-            } else {
-                // z even and y odd
-                label = radix*radix*z + radix*y + radix - x;
-            }
-        } else{
-            if(y % 2 == 0){
-                // z odd and y even
-                label = radix*radix*z + radix * (radix - y - 1) + radix - x;
-            } else {
-                // z odd and y odd
-                label = radix*radix*z + radix * (radix - y - 1) + x + 1;
-            }
-
-        }
-
-
-        return label;
-
+    private int destinationNode(long nodes){
+        return routingTable.nodeIndex(PackedFlit.getDestinationZ(nodes), PackedFlit.getDestinationY(nodes), PackedFlit.getDestinationX(nodes));
     }
 
 
@@ -245,6 +149,7 @@ public class RoutingUnit {
 
     public void setPosition(int[] position) {
         this.position = position;
+        this.node = routingTable.nodeIndex(position[0], position[1], position[2]);
     }
 
     public String getID() {
@@ -0,0 +1,242 @@
+/*
+File:           BatchJob.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package testing;
+
+import ipCore.RandomStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchJob {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            One independent job of a batch experiment: a single load point of one mesh configuration,
+            simulated headless by a MeshTest (see MeshTest.simulateLoadPoint).
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final String CSV_HEADER = "radix,cluster_x,cluster_y,cluster_z,pattern,hotspot_factor,rent_exponent,routing,vcs,buffer_size,flits_per_packet,load,prob,latency,avg_hops,alpha,time_ms,saturated,ci_half_width,ci_relative,warmup_cycles,measured_cycles";
+    public static final String SATURATION_CSV_HEADER = CSV_HEADER + ",saturation_prob,saturation_flit_rate,probes";
+
+    /* Mesh configuration */
+    private int radix;
+    private int sizeX;
+    private int sizeY;
+    private int sizeZ;
+    private int numVCs;
+    private int bufferSize;
+    private int flitsPerPacket;
+    private int sourceQueueSize;
+    private int precision;
+    private boolean adaptive;
+
+    /* Traffic */
+    private String pattern;                         // "uniform", "hotspot" or "rent"
+    private double hotSpotFactor;
+    private double rentExponent;
+    private int load;                               // Traffic load (out of the precision)
+
+    /* Simulation engine */
+    private int numThreads;                         // Worker threads of the mesh of this job
+    private int engine;                             // MeshTest.CLUSTERED_ENGINE or MeshTest.DIRECT_ENGINE
+    private boolean fastForward;                    // Globally idle cycles are skipped
+    private long seed;                              // Seed of the random streams of the nodes
+    private int checkpointInterval;                 // Network cycles between two checkpoints (0: no checkpoints)
+    private String checkpointDir;                   // Directory of the checkpoint files
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * @param radix: radix of the mesh
+     * @param clusterSize: size of the clusters: (x,y,z)
+     * @param numVCs: number of virtual channels
+     * @param bufferSize: size (in number of flits) of the VC buffers
+     * @param flitsPerPacket: number of flits per packet
+     * @param sourceQueueSize: size (in number of packets) of the source queues
+     * @param precision: precision of the traffic load
+     * @param adaptive: true for minimal adaptive routing, false for XYZ routing
+     * @param pattern: traffic pattern ("uniform", "hotspot" or "rent")
+     * @param hotSpotFactor: hotspot factor (hotspot traffic only)
+     * @param rentExponent: Rent exponent (Rent traffic only)
+     * @param load: traffic load (out of the precision)
+     * @param numThreads: number of worker threads of the mesh
+     */
+    public BatchJob(int radix, int[] clusterSize, int numVCs, int bufferSize, int flitsPerPacket, int sourceQueueSize, int precision, boolean adaptive,
+                    String pattern, double hotSpotFactor, double rentExponent, int load, int numThreads){
+        this.radix = radix;
+        this.sizeX = Math.min(radix, clusterSize[0]);
+        this.sizeY = Math.min(radix, clusterSize[1]);
+        this.sizeZ = Math.min(radix, clusterSize[2]);
+        this.numVCs = numVCs;
+        this.bufferSize = bufferSize;
+        this.flitsPerPacket = flitsPerPacket;
+        this.sourceQueueSize = sourceQueueSize;
+        this.precision = precision;
+        this.adaptive = adaptive;
+        this.pattern = pattern;
+        this.hotSpotFactor = pattern.equals("hotspot") ? hotSpotFactor : 1.0;
+        this.rentExponent = pattern.equals("rent") ? rentExponent : 1.0;
+        this.load = load;
+        this.numThreads = numThreads;
+        this.engine = MeshTest.CLUSTERED_ENGINE;
+        this.fastForward = true;
+        this.seed = RandomStream.DEFAULT_SEED;
+        this.checkpointInterval = 0;
+        this.checkpointDir = null;
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Simulate this job (headless)
+     * @return results of the load point
+     */
+    public LoadPointResult run(){
+        MeshTest test = new MeshTest(radix, numVCs, bufferSize, sourceQueueSize, adaptive, flitsPerPacket, precision, hotSpotFactor, rentExponent, false);
+        test.setNumThreads(numThreads);
+        test.setEngine(engine);
+        test.setFastForward(fastForward);
+        test.setSeed(seed);
+        test.setCheckpoints(checkpointInterval, checkpointDir);
+        test.configureRadix(radix, sizeX, sizeY, sizeZ);
+        return test.simulateLoadPoint(load);
+    }
+
+    /**
+     * Search the saturation point of this configuration (headless), see MeshTest.saturationSearch.
+     * The load of this job is the minimal load of the search.
+     * @param maxLoad: maximum traffic load
+     * @param resolution: resolution of the saturation load
+     * @param forkWarmup: true to fork the load points around the knee from one warmed-up snapshot
+     * @return saturation point and the results of the load points around the knee
+     */
+    public SaturationSearchResult runSaturationSearch(int maxLoad, int resolution, boolean forkWarmup){
+        MeshTest test = new MeshTest(radix, numVCs, bufferSize, sourceQueueSize, adaptive, flitsPerPacket, precision, hotSpotFactor, rentExponent, false);
+        test.setNumThreads(numThreads);
+        test.setLoadWorkers(1);
+        test.setEngine(engine);
+        test.setForkWarmup(forkWarmup);
+        test.setFastForward(fastForward);
+        test.setSeed(seed);
+        test.setCheckpoints(checkpointInterval, checkpointDir);
+        test.configureRadix(radix, sizeX, sizeY, sizeZ);
+        return test.saturationSearch(load, maxLoad, resolution);
+    }
+
+    /**
+     * Result row of this job
+     * @param result: results of the load point
+     * @return CSV row (see CSV_HEADER)
+     */
+    public String toCSV(LoadPointResult result){
+        String routing = adaptive ? "adaptive" : "xyz";
+        return radix + "," + sizeX + "," + sizeY + "," + sizeZ + "," + pattern + "," + hotSpotFactor + "," + rentExponent + "," + routing + ","
+                + numVCs + "," + bufferSize + "," + flitsPerPacket + "," + result.getLoad() + "," + result.getProb() + "," + result.getLatency() + ","
+                + result.getAverageHops() + "," + result.getAlpha() + "," + result.getDuration() + "," + result.isSaturated() + ","
+                + result.getHalfWidth() + "," + result.getRelativePrecision() + "," + result.getWarmupTime() + "," + result.getMeasurementTime();
+    }
+
+    /**
+     * Result rows of a saturation search of this job: one row per load point around the knee
+     * @param search: result of the saturation search
+     * @return CSV rows (see SATURATION_CSV_HEADER)
+     */
+    public List<String> toCSV(SaturationSearchResult search){
+        List<String> rows = new ArrayList<String>();
+        String saturation = "," + search.getSaturationRate() + "," + search.getSaturationFlitRate() + "," + search.getNumProbes();
+        for(LoadPointResult result : search.getPoints()){
+            rows.add(this.toCSV(result) + saturation);
+        }
+        return rows;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public int getRadix() {
+        return radix;
+    }
+
+    public int getLoad() {
+        return load;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    public int getEngine() {
+        return engine;
+    }
+
+    /**
+     * Select the simulation engine of this job. The DIRECT engine simulates the whole network as one cluster:
+     * the cluster size of the job (and of its result row) becomes the radix.
+     * @param engine: MeshTest.CLUSTERED_ENGINE or MeshTest.DIRECT_ENGINE
+     */
+    public void setEngine(int engine) {
+        this.engine = engine;
+        if(engine == MeshTest.DIRECT_ENGINE){
+            this.sizeX = radix;
+            this.sizeY = radix;
+            this.sizeZ = radix;
+        }
+    }
+
+    public boolean isFastForward() {
+        return fastForward;
+    }
+
+    public void setFastForward(boolean fastForward) {
+        this.fastForward = fastForward;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Save a checkpoint of the load points of this job (CLUSTERED engine only), see MeshTest.setCheckpoints
+     * @param checkpointInterval: network cycles between two checkpoints, 0 to disable the checkpoints
+     * @param checkpointDir: directory of the checkpoint files
+     */
+    public void setCheckpoints(int checkpointInterval, String checkpointDir) {
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointDir = checkpointDir;
+    }
+
+    @Override
+    public String toString() {
+        return "radix " + radix + ", cluster " + sizeX + "x" + sizeY + "x" + sizeZ + ", " + pattern + ", " + (adaptive ? "adaptive" : "xyz")
+                + ", " + numVCs + " VCs, buffer " + bufferSize + ", p = " + load + "/" + precision;
+    }
+}
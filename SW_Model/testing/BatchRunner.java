@@ -0,0 +1,341 @@
+/*
+File:           BatchRunner.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package testing;
+
+import ipCore.RandomStream;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class BatchRunner {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Headless batch experiment runner. An experiment file (java.util.Properties format) is expanded into
+            independent jobs (one per load point of every configuration, see BatchJob), which are simulated on a
+            worker pool. Every finished job writes one CSV row to the output file (see BatchJob.CSV_HEADER).
+
+            Keys of the experiment file (lists are comma separated, ranges are written as min:step:max):
+                radix           radix list or range                       default 7
+                cluster         cluster sizes: n (n x n x n) or XxYxZ      default 3
+                load            traffic load list or range (out of precision)  default 5:5:200
+                pattern         uniform, hotspot and/or rent              default uniform
+                hotspotFactor   hotspot factor of hotspot traffic         default 4.0
+                rentExponent    Rent exponent of Rent traffic             default 0.7
+                routing         xyz and/or adaptive                       default xyz
+                vcs             numbers of virtual channels               default 4
+                bufferSize      buffer sizes (in number of flits)         default 4
+                flitsPerPacket  flits per packet                          default 8
+                sourceQueueSize source queue size (in number of packets)  default 200
+                precision       precision of the traffic load             default 1000
+                threadsPerJob   worker threads of the mesh of one job     default 1
+                workers         number of jobs simulated in parallel      default: available processors / threadsPerJob
+                output          result file                               default results.csv
+                sweep           points: one job per load point            default points
+                                saturation: one job per configuration, which searches the saturation load
+                                between the smallest and largest load (see MeshTest.saturationSearch)
+                resolution      resolution of the saturation load         default 5
+                engine          clustered: TDM emulation (ClusteredMesh)  default clustered
+                                direct: whole network simulated in place (DirectMesh), the cluster size is ignored
+                fork            true: the load points around the knee of a saturation search are forked
+                                from one warmed-up snapshot (see MeshTest.warmUpSnapshot)  default false
+                fastForward     true: globally idle cycles are skipped (see Mesh.fastForward)  default true
+                seed            seed of the random streams of the nodes (all jobs)   default 1
+                checkpointInterval  network cycles between two checkpoints of a load point  default 0 (no checkpoints)
+                checkpointDir   directory of the checkpoint files (clustered engine only)  default checkpoints
+                                a load point of which the checkpoint exists resumes from it (e.g. after a killed run),
+                                the checkpoint is removed when the load point is finished
+
+            Unlike MeshTest.variableLoadTest, the load points are independent: a load point above saturation
+            is stopped on its own (latency threshold) and reported with saturated = true.
+            A saturation job writes one row per load point around the knee, extended with the saturation throughput.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    private List<BatchJob> jobs;                    // Jobs of the experiment
+    private int numWorkers;                         // Number of jobs simulated in parallel
+    private String outputFile;                      // File to which the result rows are written
+    private boolean saturationSweep;                // True: every job searches the saturation load of its configuration
+    private int maxLoad;                            // Maximum load of a saturation search
+    private int resolution;                         // Resolution of a saturation search
+    private boolean forkWarmup;                     // Load points of a saturation search are forked from one warmed-up snapshot
+
+    /* Loggers */
+    private final static Logger debugLogger = Logger.getLogger("debugLogger");
+    private final static Logger resultLogger = Logger.getLogger("resultLogger");
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * Constructor: expands the experiment into jobs
+     * @param experiment: parameters of the experiment (see keys above)
+     */
+    public BatchRunner(Properties experiment){
+        List<Integer> radices = parseIntegers(experiment.getProperty("radix", "7"));
+        List<int[]> clusterSizes = parseClusterSizes(experiment.getProperty("cluster", "3"));
+        List<Integer> loads = parseIntegers(experiment.getProperty("load", "5:5:200"));
+        List<String> patterns = parseList(experiment.getProperty("pattern", "uniform"));
+        double hotSpotFactor = Double.parseDouble(experiment.getProperty("hotspotFactor", "4.0").trim());
+        double rentExponent = Double.parseDouble(experiment.getProperty("rentExponent", "0.7").trim());
+        List<String> routings = parseList(experiment.getProperty("routing", "xyz"));
+        List<Integer> vcs = parseIntegers(experiment.getProperty("vcs", "4"));
+        List<Integer> bufferSizes = parseIntegers(experiment.getProperty("bufferSize", "4"));
+        int flitsPerPacket = Integer.parseInt(experiment.getProperty("flitsPerPacket", "8").trim());
+        int sourceQueueSize = Integer.parseInt(experiment.getProperty("sourceQueueSize", "200").trim());
+        int precision = Integer.parseInt(experiment.getProperty("precision", "1000").trim());
+        int threadsPerJob = Integer.parseInt(experiment.getProperty("threadsPerJob", "1").trim());
+
+        int defaultWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / threadsPerJob);
+        this.numWorkers = Integer.parseInt(experiment.getProperty("workers", Integer.toString(defaultWorkers)).trim());
+        this.outputFile = experiment.getProperty("output", "results.csv").trim();
+        String sweep = experiment.getProperty("sweep", "points").trim().toLowerCase();
+        this.resolution = Integer.parseInt(experiment.getProperty("resolution", "5").trim());
+        this.forkWarmup = Boolean.parseBoolean(experiment.getProperty("fork", "false").trim());
+        String engine = experiment.getProperty("engine", "clustered").trim().toLowerCase();
+        boolean fastForward = Boolean.parseBoolean(experiment.getProperty("fastForward", "true").trim());
+        long seed = Long.parseLong(experiment.getProperty("seed", Long.toString(RandomStream.DEFAULT_SEED)).trim());
+        int checkpointInterval = Integer.parseInt(experiment.getProperty("checkpointInterval", "0").trim());
+        String checkpointDir = experiment.getProperty("checkpointDir", "checkpoints").trim();
+
+        /* Check the values that are not checked by the simulator */
+        for(String pattern : patterns){
+            if(!pattern.equals("uniform") && !pattern.equals("hotspot") && !pattern.equals("rent"))
+                throw new RuntimeException("Unknown traffic pattern in experiment: " + pattern);
+        }
+        for(String routing : routings){
+            if(!routing.equals("xyz") && !routing.equals("adaptive"))
+                throw new RuntimeException("Unknown routing algorithm in experiment: " + routing);
+        }
+        if(!sweep.equals("points") && !sweep.equals("saturation"))
+            throw new RuntimeException("Unknown sweep in experiment: " + sweep);
+        if(!engine.equals("clustered") && !engine.equals("direct"))
+            throw new RuntimeException("Unknown engine in experiment: " + engine);
+        if(loads.isEmpty())
+            throw new RuntimeException("No traffic load in experiment");
+        if(checkpointInterval < 0)
+            throw new RuntimeException("Negative checkpoint interval in experiment: " + checkpointInterval);
+        if(checkpointInterval > 0 && engine.equals("direct"))
+            throw new RuntimeException("Checkpoints are only supported by the clustered engine");
+
+        /* Saturation search: a single job per configuration, starting from the smallest load */
+        this.saturationSweep = sweep.equals("saturation");
+        this.maxLoad = loads.stream().mapToInt(Integer::intValue).max().getAsInt();
+        if(saturationSweep)
+            loads = Collections.singletonList(loads.stream().mapToInt(Integer::intValue).min().getAsInt());
+
+        /* Direct engine: the cluster size is the radix, a single job per configuration */
+        if(engine.equals("direct") && !clusterSizes.isEmpty())
+            clusterSizes = Collections.singletonList(clusterSizes.get(0));
+
+        /* Expand into jobs: largest meshes first, such that they do not end up last on the pool */
+        this.jobs = new ArrayList<BatchJob>();
+        List<Integer> sortedRadices = new ArrayList<Integer>(radices);
+        sortedRadices.sort((a, b) -> b - a);
+        for(int radix : sortedRadices){
+            for(int[] clusterSize : clusterSizes){
+                for(String pattern : patterns){
+                    for(String routing : routings){
+                        for(int numVCs : vcs){
+                            for(int bufferSize : bufferSizes){
+                                for(int load : loads){
+                                    BatchJob job = new BatchJob(radix, clusterSize, numVCs, bufferSize, flitsPerPacket, sourceQueueSize, precision,
+                                            routing.equals("adaptive"), pattern, hotSpotFactor, rentExponent, load, threadsPerJob);
+                                    job.setEngine(engine.equals("direct") ? MeshTest.DIRECT_ENGINE : MeshTest.CLUSTERED_ENGINE);
+                                    job.setFastForward(fastForward);
+                                    job.setSeed(seed);
+                                    job.setCheckpoints(checkpointInterval, checkpointDir);
+                                    this.jobs.add(job);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Read an experiment file and run it
+     * @param experimentFile: path of the experiment file
+     */
+    public static void runExperiment(String experimentFile){
+        Properties experiment = new Properties();
+        try(Reader reader = new FileReader(experimentFile)){
+            experiment.load(reader);
+        } catch (IOException e){
+            throw new RuntimeException("Could not read experiment file " + experimentFile, e);
+        }
+        new BatchRunner(experiment).run();
+    }
+
+    /**
+     * Run all jobs on the worker pool and write one result row per job
+     */
+    public void run(){
+        System.out.println("Batch experiment: " + jobs.size() + " jobs on " + numWorkers + " workers, results in " + outputFile);
+
+        ExecutorService pool = Executors.newFixedThreadPool(numWorkers);
+        try(PrintWriter writer = new PrintWriter(new FileWriter(outputFile))){
+            writer.println(saturationSweep ? BatchJob.SATURATION_CSV_HEADER : BatchJob.CSV_HEADER);
+            writer.flush();
+
+            /* Submit all jobs: rows are written as soon as a job is finished */
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for(final BatchJob job : jobs){
+                futures.add(pool.submit(() -> {
+                    List<String> rows;
+                    String summary;
+                    if(saturationSweep){
+                        SaturationSearchResult search = job.runSaturationSearch(maxLoad, resolution, forkWarmup);
+                        rows = job.toCSV(search);
+                        summary = search.toString();
+                    } else {
+                        LoadPointResult result = job.run();
+                        rows = Collections.singletonList(job.toCSV(result));
+                        summary = result.toString();
+                    }
+                    synchronized (writer) {
+                        for(String row : rows){
+                            writer.println(row);
+                        }
+                        writer.flush();
+                    }
+                    System.out.println("Finished job (" + job + "): " + summary);
+                }));
+            }
+
+            /* Wait for all jobs, a failing job does not stop the others */
+            int failedJobs = 0;
+            for(int i = 0; i < futures.size(); i++){
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failedJobs++;
+                    String errorMsg = "Job (" + jobs.get(i) + ") failed: " + e.getCause();
+                    System.out.println(errorMsg);
+                    debugLogger.log(Level.SEVERE, errorMsg, e.getCause());
+                }
+            }
+            System.out.println("Batch experiment finished: " + (jobs.size() - failedJobs) + " of " + jobs.size() + " jobs succeeded");
+            resultLogger.log(Level.INFO, "Batch experiment: " + (jobs.size() - failedJobs) + " of " + jobs.size() + " jobs written to " + outputFile);
+        } catch (IOException e){
+            throw new RuntimeException("Could not write results to " + outputFile, e);
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch experiment was interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse a comma separated list of values
+     * @param value: comma separated list
+     * @return trimmed, lower case values
+     */
+    private static List<String> parseList(String value){
+        List<String> values = new ArrayList<String>();
+        for(String element : value.split(",")){
+            if(element.trim().length() > 0)
+                values.add(element.trim().toLowerCase());
+        }
+        return values;
+    }
+
+    /**
+     * Parse a comma separated list of integers and integer ranges (min:step:max, max included)
+     * @param value: list of integers and ranges
+     * @return all integers
+     */
+    private static List<Integer> parseIntegers(String value){
+        List<Integer> values = new ArrayList<Integer>();
+        for(String element : parseList(value)){
+            String[] range = element.split(":");
+            if(range.length == 1){
+                values.add(Integer.parseInt(range[0].trim()));
+            } else if(range.length == 3){
+                int min = Integer.parseInt(range[0].trim());
+                int step = Integer.parseInt(range[1].trim());
+                int max = Integer.parseInt(range[2].trim());
+                if(step <= 0)
+                    throw new RuntimeException("Step of range " + element + " must be positive");
+                for(int i = min; i <= max; i += step){
+                    values.add(i);
+                }
+            } else {
+                throw new RuntimeException("Invalid range in experiment: " + element + " (expected min:step:max)");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Parse a comma separated list of cluster sizes: n (n x n x n) or XxYxZ
+     * @param value: list of cluster sizes
+     * @return cluster sizes (x,y,z)
+     */
+    private static List<int[]> parseClusterSizes(String value){
+        List<int[]> sizes = new ArrayList<int[]>();
+        for(String element : parseList(value)){
+            String[] split = element.split("x");
+            if(split.length == 1){
+                int size = Integer.parseInt(split[0].trim());
+                sizes.add(new int[]{size, size, size});
+            } else if(split.length == 3){
+                sizes.add(new int[]{Integer.parseInt(split[0].trim()), Integer.parseInt(split[1].trim()), Integer.parseInt(split[2].trim())});
+            } else {
+                throw new RuntimeException("Invalid cluster size in experiment: " + element + " (expected n or XxYxZ)");
+            }
+        }
+        return sizes;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public List<BatchJob> getJobs() {
+        return jobs;
+    }
+
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public boolean isSaturationSweep() {
+        return saturationSweep;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+File:           LatencyEstimator.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package testing;
+
+import memory.CheckpointReader;
+import memory.CheckpointWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LatencyEstimator {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Output analysis of the packet latency of one simulation run. The simulation samples the cumulative
+            packet counters of the mesh every sample interval; the estimator turns them into interval observations
+            (average latency of the packets received in the interval, intervals without packets are skipped).
+
+            Warm-up (MSER-5): the observations are grouped in batches of 5. For every truncation point d in the first
+            half of the batches, MSER(d) = sum_{i>d} (Z_i - mean_d)^2 / (m - d)^2. The warm-up is over when the
+            truncation point d* that minimises MSER lies in the first half: the second half is then in steady state.
+
+            Measurement (batch means): the measured intervals are collected in batches of batchLength observations,
+            every batch keeps the sum of latencies L_i and the number of packets N_i. The latency is the ratio
+            estimator R = sum L_i / sum N_i (packet weighted, the same estimator as the average packet latency of the
+            mesh). Its 95% confidence interval follows from the delta method over the k batches:
+            R +- t(k-1) * sqrt(sum (L_i - R * N_i)^2 / (k - 1) / k) / mean(N_i). When MAX_BATCHES batches
+            are collected, adjacent batches are merged (the batch length doubles), such that the batches stay long
+            compared to the correlation time of the latency as the run gets longer.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final int MSER_BATCH = 5;                 // Observations per batch of MSER-5
+    public static final int MIN_MSER_BATCHES = 10;          // Minimal number of MSER batches before the warm-up can end
+    public static final int MAX_BATCHES = 64;               // Adjacent batches are merged when this number of batches is reached
+    /* Two-sided 95% quantiles of the t distribution, for 1 to 30 degrees of freedom */
+    private static final double[] T_QUANTILES = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+
+    private int batchLength;                        // Observations per measurement batch (doubles when batches are merged)
+    private int minBatches;                         // Minimal number of batches before the precision is checked
+    private double targetPrecision;                 // Target relative half width of the confidence interval
+
+    /* Cumulative counters at the previous sample */
+    private long prevLatency;
+    private long prevPackets;
+
+    /* Warm-up */
+    private List<Double> observations;              // Interval observations of the warm-up
+
+    /* Measurement */
+    private boolean measuring;
+    private List<Long> batchLatencies;              // Sum of the packet latencies per complete batch
+    private List<Long> batchPackets;                // Number of packets per complete batch
+    private long currentLatency;                    // Sum of the packet latencies of the current batch
+    private long currentPackets;                    // Number of packets of the current batch
+    private int currentObservations;                // Observations in the current batch
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * @param batchLength: initial number of observations per measurement batch
+     * @param minBatches: minimal number of batches before the precision is checked
+     * @param targetPrecision: target relative half width of the 95% confidence interval
+     */
+    public LatencyEstimator(int batchLength, int minBatches, double targetPrecision){
+        this.batchLength = batchLength;
+        this.minBatches = Math.max(2, minBatches);
+        this.targetPrecision = targetPrecision;
+        this.observations = new ArrayList<Double>();
+        this.batchLatencies = new ArrayList<Long>();
+        this.batchPackets = new ArrayList<Long>();
+        this.measuring = false;
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Add a sample of the cumulative packet counters of the mesh
+     * @param totalLatency: sum of the latencies of the received packets since the last reset of the counters
+     * @param numPackets: number of received packets since the last reset of the counters
+     */
+    public void addSample(long totalLatency, long numPackets){
+        long latency = totalLatency - prevLatency;
+        long packets = numPackets - prevPackets;
+        prevLatency = totalLatency;
+        prevPackets = numPackets;
+
+        if(!measuring){
+            if(packets > 0)
+                observations.add((1.0 * latency) / packets);
+            return;
+        }
+
+        currentLatency += latency;
+        currentPackets += packets;
+        currentObservations++;
+        if(currentObservations == batchLength){
+            if(currentPackets > 0){
+                batchLatencies.add(currentLatency);
+                batchPackets.add(currentPackets);
+            }
+            currentLatency = 0;
+            currentPackets = 0;
+            currentObservations = 0;
+            if(batchLatencies.size() == MAX_BATCHES)
+                this.mergeBatches();
+        }
+    }
+
+    /**
+     * MSER-5 truncation point of the warm-up observations
+     * @return truncation point (in observations), -1 if the warm-up is not over yet
+     */
+    public int getTruncationPoint(){
+        int m = observations.size() / MSER_BATCH;
+        if(m < MIN_MSER_BATCHES)
+            return -1;
+
+        /* MSER-5 batch means: the oldest observations are dropped when they do not fill a batch */
+        int offset = observations.size() - m * MSER_BATCH;
+        double[] z = new double[m];
+        for(int i = 0; i < m; i++){
+            double sum = 0.0;
+            for(int k = 0; k < MSER_BATCH; k++){
+                sum += observations.get(offset + i * MSER_BATCH + k);
+            }
+            z[i] = sum / MSER_BATCH;
+        }
+
+        /* MSER(d) for every d in the first half, using suffix sums */
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        double bestMSER = Double.MAX_VALUE;
+        int bestD = m;
+        for(int d = m - 1; d >= 0; d--){
+            sum += z[d];
+            sumSquares += z[d] * z[d];
+            if(d <= m / 2){
+                int n = m - d;
+                double mser = (sumSquares - sum * sum / n) / ((double) n * n);
+                if(mser <= bestMSER){
+                    bestMSER = mser;
+                    bestD = d;
+                }
+            }
+        }
+
+        /* Minimum at the edge of the first half: the run is still in transient */
+        if(bestD >= m / 2)
+            return -1;
+        return offset + bestD * MSER_BATCH;
+    }
+
+    /**
+     * Start the measurement: the cumulative counters of the mesh are reset
+     */
+    public void startMeasurement(){
+        this.measuring = true;
+        this.prevLatency = 0;
+        this.prevPackets = 0;
+        this.batchLatencies.clear();
+        this.batchPackets.clear();
+        this.currentLatency = 0;
+        this.currentPackets = 0;
+        this.currentObservations = 0;
+    }
+
+    /**
+     * Merge adjacent batches, doubling the batch length
+     */
+    private void mergeBatches(){
+        List<Long> latencies = new ArrayList<Long>();
+        List<Long> packets = new ArrayList<Long>();
+        for(int i = 0; i + 1 < batchLatencies.size(); i += 2){
+            latencies.add(batchLatencies.get(i) + batchLatencies.get(i + 1));
+            packets.add(batchPackets.get(i) + batchPackets.get(i + 1));
+        }
+        this.batchLatencies = latencies;
+        this.batchPackets = packets;
+        this.batchLength *= 2;
+    }
+
+    /**
+     * Mean packet latency of the complete batches (ratio of sums)
+     * @return sum of the latencies divided by the number of packets of the batches, NaN without batches
+     */
+    public double getMean(){
+        int k = batchLatencies.size();
+        if(k == 0)
+            return Double.NaN;
+        long latency = 0;
+        long packets = 0;
+        for(int i = 0; i < k; i++){
+            latency += batchLatencies.get(i);
+            packets += batchPackets.get(i);
+        }
+        return (1.0 * latency) / packets;
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the packet latency (delta method for the ratio estimator)
+     * @return half width, NaN with less than 2 batches
+     */
+    public double getHalfWidth(){
+        int k = batchLatencies.size();
+        if(k < 2)
+            return Double.NaN;
+        double mean = this.getMean();
+        long packets = 0;
+        double sumSquares = 0.0;
+        for(int i = 0; i < k; i++){
+            double residual = batchLatencies.get(i) - mean * batchPackets.get(i);
+            sumSquares += residual * residual;
+            packets += batchPackets.get(i);
+        }
+        double meanPackets = (1.0 * packets) / k;
+        double variance = sumSquares / (k - 1) / (meanPackets * meanPackets);
+        return tQuantile(k - 1) * Math.sqrt(variance / k);
+    }
+
+    /**
+     * Relative half width of the 95% confidence interval
+     * @return half width divided by the mean, NaN with less than 2 batches
+     */
+    public double getRelativePrecision(){
+        return this.getHalfWidth() / this.getMean();
+    }
+
+    /**
+     * Check if the measurement reached the target precision
+     * @return true if there are at least minBatches batches and the relative half width is below the target
+     */
+    public boolean isPrecise(){
+        return batchLatencies.size() >= minBatches && this.getRelativePrecision() <= targetPrecision;
+    }
+
+    /**
+     * Write the state of the estimator to a checkpoint (see MeshTest.simulateLoadPoint)
+     * @param out: checkpoint file
+     */
+    public void writeState(CheckpointWriter out){
+        out.writeInt(batchLength);
+        out.writeLong(prevLatency);
+        out.writeLong(prevPackets);
+        out.writeInt(observations.size());
+        for(double observation : observations){
+            out.writeDouble(observation);
+        }
+        out.writeBoolean(measuring);
+        out.writeInt(batchLatencies.size());
+        for(int i = 0; i < batchLatencies.size(); i++){
+            out.writeLong(batchLatencies.get(i));
+            out.writeLong(batchPackets.get(i));
+        }
+        out.writeLong(currentLatency);
+        out.writeLong(currentPackets);
+        out.writeInt(currentObservations);
+    }
+
+    /**
+     * Restore the state of the estimator from a checkpoint written by writeState
+     * @param in: checkpoint file
+     */
+    public void readState(CheckpointReader in){
+        this.batchLength = in.readInt();
+        this.prevLatency = in.readLong();
+        this.prevPackets = in.readLong();
+        int numObservations = in.readInt();
+        this.observations.clear();
+        for(int i = 0; i < numObservations; i++){
+            observations.add(in.readDouble());
+        }
+        this.measuring = in.readBoolean();
+        int numBatches = in.readInt();
+        this.batchLatencies.clear();
+        this.batchPackets.clear();
+        for(int i = 0; i < numBatches; i++){
+            batchLatencies.add(in.readLong());
+            batchPackets.add(in.readLong());
+        }
+        this.currentLatency = in.readLong();
+        this.currentPackets = in.readLong();
+        this.currentObservations = in.readInt();
+    }
+
+    /**
+     * Two-sided 95% quantile of the t distribution (Cornish-Fisher approximation above 30 degrees of freedom)
+     * @param degreesOfFreedom: degrees of freedom
+     * @return quantile
+     */
+    private static double tQuantile(int degreesOfFreedom){
+        if(degreesOfFreedom <= T_QUANTILES.length)
+            return T_QUANTILES[degreesOfFreedom - 1];
+        double z = 1.959964;
+        return z + (z * z * z + z) / (4.0 * degreesOfFreedom);
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public int getNumBatches() {
+        return batchLatencies.size();
+    }
+
+    public int getBatchLength() {
+        return batchLength;
+    }
+
+    public int getNumObservations() {
+        return observations.size();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+File:           LoadPointResult.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package testing;
+
+public class LoadPointResult {
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    private int load;                               // Traffic load (out of the precision)
+    private double prob;                            // Injection probability (PACKETS/cycle/core)
+    private double latency;                         // Average packet latency
+    private double averageHops;                     // Average hop count
+    private double alpha;                           // TDM alpha: network cycles per simulated mesh cycle
+    private long duration;                          // Execution time in ms
+    private boolean saturated;                      // True if the simulation was stopped because the latency exceeded the threshold
+    private double halfWidth;                       // Half width of the 95% confidence interval of the latency (ratio of sums over the batches)
+    private double relativePrecision;               // Half width relative to the packet weighted mean latency
+    private int warmupTime;                         // Network time at which the measurement started
+    private int measurementTime;                    // Measured network cycles
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * @param load: traffic load (out of the precision)
+     * @param prob: injection probability (PACKETS/cycle/core)
+     * @param latency: average packet latency
+     * @param averageHops: average hop count
+     * @param alpha: TDM alpha
+     * @param duration: execution time in ms
+     * @param saturated: true if the simulation was stopped because the latency exceeded the threshold
+     * @param halfWidth: half width of the 95% confidence interval of the latency
+     * @param relativePrecision: relative half width of the confidence interval
+     * @param warmupTime: network time at which the measurement started
+     * @param measurementTime: measured network cycles
+     */
+    public LoadPointResult(int load, double prob, double latency, double averageHops, double alpha, long duration, boolean saturated,
+                           double halfWidth, double relativePrecision, int warmupTime, int measurementTime){
+        this.load = load;
+        this.prob = prob;
+        this.latency = latency;
+        this.averageHops = averageHops;
+        this.alpha = alpha;
+        this.duration = duration;
+        this.saturated = saturated;
+        this.halfWidth = halfWidth;
+        this.relativePrecision = relativePrecision;
+        this.warmupTime = warmupTime;
+        this.measurementTime = measurementTime;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public int getLoad() {
+        return load;
+    }
+
+    public double getProb() {
+        return prob;
+    }
+
+    public double getLatency() {
+        return latency;
+    }
+
+    public double getAverageHops() {
+        return averageHops;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    public double getHalfWidth() {
+        return halfWidth;
+    }
+
+    public double getRelativePrecision() {
+        return relativePrecision;
+    }
+
+    public int getWarmupTime() {
+        return warmupTime;
+    }
+
+    public int getMeasurementTime() {
+        return measurementTime;
+    }
+
+    @Override
+    public String toString() {
+        return "p = " + prob + ": latency = " + latency + " +- " + halfWidth + ", hops = " + averageHops + ", alpha = " + alpha + (saturated ? " (saturated)" : "");
+    }
+}
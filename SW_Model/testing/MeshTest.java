@@ -16,8 +16,26 @@ In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect P
 
 package testing;
 
+import ipCore.RandomStream;
+import memory.CheckpointReader;
+import memory.CheckpointWriter;
 import mesh.ClusteredMesh;
-
+import mesh.DirectMesh;
+import mesh.Mesh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,6 +44,22 @@ public class MeshTest {
     /* ********************************************************************************
      *                                  VARIABLES                                     *
      ******************************************************************************** */
+    /* CONSTANTS */
+    public static final int CLUSTERED_ENGINE = 0;                   // ClusteredMesh: TDM emulation of the FPGA
+    public static final int DIRECT_ENGINE = 1;                      // DirectMesh: whole network simulated in place
+    public static final int LINEAR_SWEEP = 0;                       // Load is stepped linearly until the network saturates
+    public static final int SATURATION_SEARCH = 1;                  // Saturation load is searched with probe runs, full runs around the knee
+    public static final int DEFAULT_LOAD_WORKERS = 2;               // Load points simulated concurrently by default (each one holds a complete mesh)
+    public static final double MAX_LATENCY = 750;                   // Latency threshold at which a simulation is stopped (saturated)
+    public static final int PROBE_WARMUP_TIME = 1000;               // Warm-up time of a probe run
+    public static final int PROBE_MEASUREMENT_TIME = 2000;          // Measurement time of a probe run
+    public static final double SATURATION_LATENCY_FACTOR = 3.0;     // A probe is saturated above this factor times the zero-load latency
+    public static final double[] KNEE_FRACTIONS = {0.25, 0.5, 0.75, 0.9, 1.0};     // Loads of the full runs, as fraction of the saturation load
+    public static final int SAMPLE_INTERVAL = 100;                  // Network cycles per latency observation (see LatencyEstimator)
+    public static final int BATCH_LENGTH = 5;                       // Initial observations per measurement batch
+    public static final int MIN_BATCHES = 20;                       // Minimal number of measurement batches
+    public static final int FORK_WARMUP_TIME = 1000;                // Re-convergence time of a load point forked from a warmed-up snapshot
+
     private int radix;
     private int numPorts;
     private int numVCs;
@@ -33,9 +67,10 @@ public class MeshTest {
     private int flitsPerPacket;
     private int precision;
 
-    private int minWarmupTime;
-    private double convConst;
-    private int measurementTime;
+    private int minWarmupTime;                      // Warm-up time before the MSER-5 truncation point is checked
+    private int maxWarmupTime;                      // Measurement starts after this time, also without steady state
+    private double targetPrecision;                 // Target relative half width of the 95% confidence interval of the latency
+    private int maxMeasurementTime;                 // Measurement stops after this time, also without target precision
 
     private boolean adaptive;
 
@@ -51,6 +86,20 @@ public class MeshTest {
 
     private double rentExponent;
 
+    private int engine;                             // CLUSTERED_ENGINE or DIRECT_ENGINE
+    private int numThreads;
+    private boolean stateBinding;
+
+    /* Load sweep */
+    private int sweepMode;                          // LINEAR_SWEEP or SATURATION_SEARCH
+    private int loadWorkers;                        // Number of load points simulated concurrently
+    private boolean forkWarmup;                     // Load points are forked from one warmed-up snapshot instead of warming up from an empty network
+    private boolean fastForward;                    // Globally idle cycles are skipped (see Mesh.fastForward)
+    private long seed;                              // Seed of the random streams of the nodes (same for every load point)
+    private int checkpointInterval;                 // Network cycles between two checkpoints of a load point (0: no checkpoints)
+    private String checkpointDir;                   // Directory of the checkpoint files of the load points
+    private AtomicInteger saturationLoad;           // Lowest load that saturated in the current sweep (load points above it are cancelled)
+
     private SimpleGUI gui;
 
     private final static Logger debugLogger = Logger.getLogger("debugLogger");
@@ -61,6 +110,14 @@ public class MeshTest {
      ******************************************************************************** */
 
     public MeshTest(int radix, int numVCs, int bufferSize, int sourceQueueSize, boolean adaptive, int flitsPerPacket, int precision, double hotSpotFactor, double rentExponent){
+        this(radix, numVCs, bufferSize, sourceQueueSize, adaptive, flitsPerPacket, precision, hotSpotFactor, rentExponent, true);
+    }
+
+    /**
+     * Constructor for a (headless) mesh test
+     * @param useGUI: true to show the progress in a SimpleGUI frame, false to run headless (e.g. on compute nodes)
+     */
+    public MeshTest(int radix, int numVCs, int bufferSize, int sourceQueueSize, boolean adaptive, int flitsPerPacket, int precision, double hotSpotFactor, double rentExponent, boolean useGUI){
         this.radix = radix;
         this.numPorts = 7;
         this.numVCs = numVCs;
@@ -73,13 +130,28 @@ public class MeshTest {
         this.sourceQueueSize = sourceQueueSize;
 
         minWarmupTime = 1000;
-        convConst = 0.001;
-        measurementTime = 15000;
+        maxWarmupTime = 50000;
+        targetPrecision = 0.02;
+        maxMeasurementTime = 200000;
 
         this.hotSpotFactor = hotSpotFactor;
         this.rentExponent = rentExponent;
 
-        gui = new SimpleGUI();
+        this.engine = CLUSTERED_ENGINE;
+        this.numThreads = 1;
+        this.stateBinding = true;
+        this.sweepMode = LINEAR_SWEEP;
+        this.forkWarmup = false;
+        this.fastForward = true;
+        this.seed = RandomStream.DEFAULT_SEED;
+        this.loadWorkers = DEFAULT_LOAD_WORKERS;
+        this.checkpointInterval = 0;
+        this.checkpointDir = null;
+        this.saturationLoad = new AtomicInteger(Integer.MAX_VALUE);
+
+        if(useGUI)
+            gui = new SimpleGUI();
+        this.configureRadix(radix, radix, radix, radix);
     }
 
 
@@ -102,159 +174,572 @@ public class MeshTest {
      */
     public void radixTest(int minRadix, int radixStep, int maxRadix, int minLoad, int loadStep, int maxLoad, int sizeX, int sizeY, int sizeZ){
         for(int i = minRadix; i <= maxRadix; i +=radixStep){
-            gui.updateRadix(i);
+            if(gui != null)
+                gui.updateRadix(i);
             System.out.println("/ ---------------------- TEST FOR RADIX " + i + " ---------------------- /");
-            this.radix = i;
-            this.sizeX = Math.min(this.radix, sizeX);
-            this.sizeY = Math.min(this.radix, sizeY);
-            this.sizeZ = Math.min(this.radix, sizeZ);
-            this.gui.setClusterLabel(this.sizeX, this.sizeY, this.sizeZ);
-            if(hotSpotFactor != 1) {
-                /* Create 1 hotspot at center of network */
-                int middle = ((i * i * i) - 1) / 2;
-                this.hotspots = new int[]{middle};
-
-                // 4 hotspots created (static)
-                this.hotspots = new int[]{8, middle, middle + 8, (radix*radix*radix)-5 };
-            } else {
-                this.hotspots = new int[]{};
-            }
-            this.variableLoadTest(minLoad, loadStep, maxLoad);
+            this.configureRadix(i, sizeX, sizeY, sizeZ);
+            if(gui != null)
+                this.gui.setClusterLabel(this.sizeX, this.sizeY, this.sizeZ);
+            if(sweepMode == SATURATION_SEARCH)
+                this.saturationSearch(minLoad, maxLoad, loadStep);
+            else
+                this.variableLoadTest(minLoad, loadStep, maxLoad);
+        }
+    }
+
+    /**
+     * Set the radix of the mesh, the cluster size (limited by the radix) and the hotspots
+     * @param radix: radix of the mesh
+     * @param sizeX: size of the cluster along x direction
+     * @param sizeY: size of cluster along y direction
+     * @param sizeZ: size of cluster along z direction
+     */
+    public void configureRadix(int radix, int sizeX, int sizeY, int sizeZ){
+        this.radix = radix;
+        this.sizeX = Math.min(this.radix, sizeX);
+        this.sizeY = Math.min(this.radix, sizeY);
+        this.sizeZ = Math.min(this.radix, sizeZ);
+        if(hotSpotFactor != 1) {
+            /* Create 1 hotspot at center of network */
+            int middle = ((radix * radix * radix) - 1) / 2;
+            this.hotspots = new int[]{middle};
+
+            // 4 hotspots created (static)
+            this.hotspots = new int[]{8, middle, middle + 8, (radix*radix*radix)-5 };
+        } else {
+            this.hotspots = new int[]{};
         }
     }
 
 
     /**
-     * Function that varies the traffic load while keeping other simulation parameters constant
+     * Function that varies the traffic load while keeping other simulation parameters constant.
+     * The load points are independent and simulated concurrently (see simulateLoadPoints).
      * @param start: minimal traffic load
      * @param step: step in traffic load
      * @param stop: maximum traffic load
      */
     public void variableLoadTest(int start, int step, int stop){
         this.logParameters();
-        resultLogger.log(Level.INFO, "p \t Packet latency \t avg_hops \t alpha \t time [s]");
+        resultLogger.log(Level.INFO, "p \t Packet latency \t CI 95% \t avg_hops \t alpha \t time [s]");
         double avgHops = 0.0;
 
-        boolean maxLatencyReached = false;
-        for(int j = start; j <= stop && !maxLatencyReached; j+= step) {
-            gui.updateProb(j);
-            System.out.println("--- Simulation for p = " + j + "/" + precision);
-            debugLogger.log(Level.FINER, "Simulation for p = " + j + "/" + precision);
+        List<Integer> loads = new ArrayList<Integer>();
+        for(int j = start; j <= stop; j+= step) {
+            loads.add(j);
+        }
 
-            /* Create CLUSTERED mesh */
-            ClusteredMesh mesh = new ClusteredMesh(radix, this.sizeX, this.sizeY, this.sizeZ, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive,  flitsPerPacket, j, 1000, hotspots, hotSpotFactor, rentExponent);
+        List<LoadPointResult> results = this.simulateLoadPoints(loads);
+        for(LoadPointResult result : results){
+            avgHops = result.getAverageHops();
+            this.logResult(result);
+        }
 
-            /* Simulation initial parameters */
-            boolean idle = false;
-            int phase = 0;
-            int cycle = 0;
-            double prevLatency = 1.0;
-            int warmup = minWarmupTime;
+        /* Report average hop count : */
+        resultLogger.log(Level.INFO, "Average hop count : " + avgHops);
 
-            final long startTime =  System.currentTimeMillis();
+    }
 
+    /**
+     * Sweep that searches the saturation point instead of stepping the load linearly.
+     *  1) Bracketing: short probe runs at doubling loads (starting at minLoad) until a probe saturates or maxLoad is reached
+     *  2) Bisection on probe runs until the bracket is smaller than the resolution
+     *  3) Full simulations (warm-up, measurement and drain) of the load points around the knee: KNEE_FRACTIONS of the saturation load
+     * A probe is saturated when its latency exceeds SATURATION_LATENCY_FACTOR times the latency of the probe at minLoad
+     * (the zero-load latency), or exceeds the latency threshold of 750.
+     * @param minLoad: minimal traffic load, assumed below saturation
+     * @param maxLoad: maximum traffic load
+     * @param resolution: resolution of the saturation load
+     * @return saturation load and the results of the full simulations
+     */
+    public SaturationSearchResult saturationSearch(int minLoad, int maxLoad, int resolution){
+        this.logParameters();
+        final long startTime = System.currentTimeMillis();
+
+        /* Zero-load latency */
+        double zeroLoadLatency = this.probeLoadPoint(minLoad);
+        double threshold = Math.min(SATURATION_LATENCY_FACTOR * zeroLoadLatency, MAX_LATENCY);
+        int numProbes = 1;
+        System.out.println("Zero-load latency (p = " + minLoad + "/" + precision + "): " + zeroLoadLatency + ", saturation threshold: " + threshold);
+
+        int saturation;
+        if(zeroLoadLatency >= MAX_LATENCY){
+            /* Already saturated at the minimal load */
+            saturation = minLoad;
+        } else {
+            /* Bracketing: lower is not saturated, upper is saturated (or maxLoad + 1 if no probe saturates) */
+            int lower = minLoad;
+            int upper = maxLoad + 1;
+            int load = minLoad;
+            while(load < maxLoad){
+                load = Math.min(Math.max(2 * load, load + 1), maxLoad);
+                numProbes++;
+                if(this.probeLoadPoint(load) > threshold){
+                    upper = load;
+                    break;
+                }
+                lower = load;
+            }
+
+            /* Bisection */
+            while(upper <= maxLoad && upper - lower > resolution){
+                int middle = (lower + upper) / 2;
+                numProbes++;
+                if(this.probeLoadPoint(middle) > threshold){
+                    upper = middle;
+                } else {
+                    lower = middle;
+                }
+            }
+            saturation = lower;
+        }
+        System.out.println("Saturation load: p = " + saturation + "/" + precision + " (" + numProbes + " probes)");
+
+        /* Full simulations around the knee */
+        List<Integer> loads = new ArrayList<Integer>();
+        for(int i = 0; i < KNEE_FRACTIONS.length; i++){
+            int load = Math.max(minLoad, (int) Math.round(KNEE_FRACTIONS[i] * saturation));
+            if(!loads.contains(load))
+                loads.add(load);
+        }
+        List<LoadPointResult> results = this.simulateLoadPoints(loads);
+
+        /* Report */
+        double saturationRate = (1.0 * saturation) / precision;
+        long duration = System.currentTimeMillis() - startTime;
+        resultLogger.log(Level.INFO, "p \t Packet latency \t CI 95% \t avg_hops \t alpha \t time [s]");
+        for(LoadPointResult result : results){
+            this.logResult(result);
+        }
+        resultLogger.log(Level.INFO, "Saturation injection rate: " + saturationRate + " packets/cycle/core = " + (saturationRate * flitsPerPacket) + " flits/cycle/core ("
+                + numProbes + " probes, " + Math.round(duration/1000) + " s)");
 
-            while (!idle) {
-                debugLogger.log(Level.FINE, "/ ---------------------- SIMULATION CYCLE " + cycle + "  ---------------------- /");
-                /* Simulate all routers */
-                mesh.simulateMesh();
+        return new SaturationSearchResult(saturation, saturationRate, saturationRate * flitsPerPacket, numProbes, results);
+    }
 
-                /* After minimum warm up time, check if latency of mesh has already converged */
-                if (mesh.getNetworkTime() > minWarmupTime && phase == 0 && mesh.getNetworkTime() % 100 == 0) {
-                    /* Compute packet latency */
-                    double latency = mesh.calculateAveragePacketLatency();
+    /**
+     * Short probe run of a load point: a fixed warm-up and measurement time, without convergence check and drain.
+     * The probe is stopped early when the latency exceeds the latency threshold.
+     * @param load: traffic load (out of the precision)
+     * @return average packet latency of the probe
+     */
+    public double probeLoadPoint(int load){
+        Mesh mesh = this.createMesh(load, precision);
+
+        double latency = 0.0;
+        boolean measuring = false;
+        while(mesh.getNetworkTime() < PROBE_WARMUP_TIME + PROBE_MEASUREMENT_TIME){
+            mesh.fastForward(nextSampleTime(mesh.getNetworkTime()) - 1);
+            mesh.simulateMesh();
+            if(!measuring && mesh.getNetworkTime() >= PROBE_WARMUP_TIME){
+                mesh.startMeasurement();
+                measuring = true;
+            }
+            /* STOP CONDITION */
+            if(mesh.getNetworkTime() % 500 == 0 && mesh.calculateAveragePacketLatency() > MAX_LATENCY)
+                break;
+        }
+        latency = mesh.calculateAveragePacketLatency();
+        mesh.shutdown();
+
+        System.out.println("Probe for p = " + load + "/" + precision + ": latency " + latency);
+        return latency;
+    }
+
+    /**
+     * Create the mesh of a load point with the selected engine
+     * @param load: traffic load
+     * @param precision: precision of the traffic load
+     * @return CLUSTERED mesh (cluster size, threads and state binding of this test) or DIRECT mesh
+     */
+    private Mesh createMesh(int load, int precision){
+        if(engine == DIRECT_ENGINE){
+            DirectMesh mesh = new DirectMesh(radix, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive, flitsPerPacket, load, precision, hotspots, hotSpotFactor, rentExponent);
+            mesh.setFastForward(fastForward);
+            mesh.setSeed(seed);
+            return mesh;
+        }
+        ClusteredMesh mesh = new ClusteredMesh(radix, this.sizeX, this.sizeY, this.sizeZ, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive,  flitsPerPacket, load, precision, hotspots, hotSpotFactor, rentExponent, numThreads);
+        mesh.setStateBinding(stateBinding);
+        mesh.setFastForward(fastForward);
+        mesh.setSeed(seed);
+        return mesh;
+    }
+
+    /**
+     * First sample time after a network time: a fast-forward stops before it, such that no sample (or stop check) is skipped
+     * @param time: network time
+     * @return next multiple of SAMPLE_INTERVAL
+     */
+    private static int nextSampleTime(int time){
+        return (time / SAMPLE_INTERVAL + 1) * SAMPLE_INTERVAL;
+    }
+
+    /**
+     * Checkpoint file of a load point: one file per configuration, seed and load
+     * @param load: traffic load (out of the precision)
+     * @param forked: true for a load point forked from a warmed-up snapshot
+     * @return path of the checkpoint file in the checkpoint directory
+     */
+    private Path checkpointFile(int load, boolean forked){
+        String routing = adaptive ? "adaptive" : "xyz";
+        String name = "r" + radix + "_c" + sizeX + "x" + sizeY + "x" + sizeZ + "_" + routing + "_vc" + numVCs + "_b" + bufferSize
+                + "_f" + flitsPerPacket + "_q" + sourceQueueSize + "_h" + hotSpotFactor + "_e" + rentExponent + "_s" + seed
+                + "_p" + load + "of" + precision + (forked ? "_fork" : "") + ".ckpt";
+        return Paths.get(checkpointDir, name);
+    }
+
+    /**
+     * Save the state of a load point: the mesh, followed by the state of the simulation loop and the latency estimator.
+     * The checkpoint is written to a temporary file first, such that an interrupted write leaves the previous checkpoint intact.
+     * @param checkpoint: checkpoint file
+     * @param mesh: mesh of the load point
+     * @param estimator: latency estimator of the load point
+     * @param loop: phase, cycle, start, warmup and lastSample of the simulation loop
+     * @param elapsed: execution time of the load point so far (ms)
+     */
+    private void saveLoadPoint(Path checkpoint, ClusteredMesh mesh, LatencyEstimator estimator, int[] loop, long elapsed){
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(checkpoint.getParent());
+        } catch (IOException e){
+            throw new RuntimeException("Could not create checkpoint directory " + checkpoint.getParent(), e);
+        }
+        try(CheckpointWriter out = new CheckpointWriter(temporary)){
+            mesh.saveCheckpoint(out);
+            out.writeInts(loop);
+            out.writeLong(elapsed);
+            estimator.writeState(out);
+        }
+        try {
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e){
+            throw new RuntimeException("Could not save checkpoint " + checkpoint, e);
+        }
+    }
+
+    /**
+     * Simulate a list of load points concurrently on a pool of loadWorkers threads.
+     * As soon as a load point saturates (latency higher than 750), the higher load points are cancelled.
+     * With forkWarmup, the network is warmed up once at the lowest load and every load point is forked from that snapshot
+     * (CLUSTERED engine only, snapshots are taken from a ClusteredMesh).
+     * @param loads: traffic loads (out of the precision), in increasing order
+     * @return results in order of load, up to and including the first saturated load point
+     */
+    public List<LoadPointResult> simulateLoadPoints(List<Integer> loads){
+        List<LoadPointResult> results = new ArrayList<LoadPointResult>();
+
+        /* Shared warm-up: the snapshot is read-only, the load points restore it concurrently */
+        final ByteBuffer snapshot = (forkWarmup && engine == CLUSTERED_ENGINE && !loads.isEmpty()) ? this.warmUpSnapshot(loads.get(0)) : null;
+
+        /* Submit all load points, lowest load first */
+        this.saturationLoad = new AtomicInteger(Integer.MAX_VALUE);
+        ExecutorService pool = Executors.newFixedThreadPool(loadWorkers);
+        List<Future<LoadPointResult>> futures = new ArrayList<Future<LoadPointResult>>();
+        for(final int load : loads) {
+            futures.add(pool.submit(() -> {
+                if(gui != null)
+                    gui.updateProb(load);
+                return this.simulateLoadPoint(load, snapshot);
+            }));
+        }
+
+        /* Collect the results in order of load */
+        try {
+            for(int i = 0; i < futures.size(); i++) {
+                if(loads.get(i) > saturationLoad.get()){
+                    /* A lower load point saturated: this load point is not (or no longer) needed */
+                    futures.get(i).cancel(false);
+                    continue;
+                }
+                LoadPointResult result = futures.get(i).get();
+                if(result == null)
+                    continue;
+
+                if(result.isSaturated()){
+                    /* Cancel the higher load points that did not start yet */
+                    for(int k = i + 1; k < futures.size(); k++){
+                        futures.get(k).cancel(false);
+                    }
+                }
+                results.add(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load sweep was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Simulation of a load point failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Print the results of a load point to the result file
+     * @param result: results of the load point
+     */
+    private void logResult(LoadPointResult result){
+        String msg = result.getProb() + "\t" + result.getLatency() + "\t" + result.getHalfWidth() + "\t" + result.getAverageHops() + "\t" + result.getAlpha() + "\t" + Math.round(result.getDuration()/1000);
+        resultLogger.log(Level.INFO, msg);
+    }
+
+
+    /**
+     * Warm up a network until the MSER-5 truncation point (or maxWarmupTime) and take a snapshot of its state.
+     * - - - IMPORTANT - - -
+     *      Load points forked from the snapshot start from a network in steady state at the warm-up load,
+     *      they only need a short re-convergence (FORK_WARMUP_TIME) to the steady state at their own load.
+     *      The routing algorithm is part of the snapshot (the memory layout depends on it): a sweep over routing
+     *      algorithms needs one snapshot per routing algorithm.
+     * @param load: traffic load of the warm-up (out of the precision), below saturation
+     * @return snapshot of the warmed-up network, null if the network saturated during the warm-up
+     */
+    public ByteBuffer warmUpSnapshot(int load){
+        System.out.println("--- Shared warm-up for p = " + load + "/" + precision);
+        ClusteredMesh mesh = new ClusteredMesh(radix, this.sizeX, this.sizeY, this.sizeZ, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive,  flitsPerPacket, load, precision, hotspots, hotSpotFactor, rentExponent, numThreads);
+        mesh.setStateBinding(stateBinding);
+        mesh.setFastForward(fastForward);
+        mesh.setSeed(seed);
+        LatencyEstimator estimator = new LatencyEstimator(BATCH_LENGTH, MIN_BATCHES, targetPrecision);
+
+        int lastSample = 0;
+        while(true){
+            mesh.fastForward(nextSampleTime(mesh.getNetworkTime()) - 1);
+            mesh.simulateMesh();
+            int time = mesh.getNetworkTime();
+            if(time % SAMPLE_INTERVAL != 0 || time == lastSample)
+                continue;
+            lastSample = time;
+
+            if(mesh.calculateAveragePacketLatency() > MAX_LATENCY){
+                mesh.shutdown();
+                System.out.println("Shared warm-up saturated, load points are warmed up separately");
+                return null;
+            }
+            estimator.addSample(mesh.getTotalPacketLatency(), mesh.getNumReceivedPackets());
+            if(time > minWarmupTime && (estimator.getTruncationPoint() >= 0 || time > maxWarmupTime))
+                break;
+        }
+
+        ByteBuffer snapshot = mesh.snapshot();
+        mesh.shutdown();
+        System.out.println("Snapshot taken after " + mesh.getNetworkTime() + " cycles (" + snapshot.remaining() + " bytes)");
+        return snapshot;
+    }
+
+    /**
+     * Simulate one load point from an empty network, see simulateLoadPoint(int, ByteBuffer)
+     * @param j: traffic load (out of the precision)
+     * @return results of the load point, null if the load point was cancelled
+     */
+    public LoadPointResult simulateLoadPoint(int j){
+        return this.simulateLoadPoint(j, null);
+    }
+
+    /**
+     * Simulate one load point: warm up until the MSER-5 truncation point, measure until the 95% confidence interval
+     * of the packet latency (batch means) reaches the target precision and drain the network.
+     * The simulation is stopped early when the average packet latency exceeds 750 cycles (saturation).
+     * In a load sweep, the simulation is cancelled when a lower load point saturated.
+     * A load point forked from a snapshot skips the MSER-5 warm-up: measurement starts after FORK_WARMUP_TIME cycles.
+     * With checkpoints (see setCheckpoints), the load point is saved every checkpointInterval cycles until the drain
+     * and resumes from its checkpoint file if it exists: the restored run continues bit-identically.
+     * @param j: traffic load (out of the precision)
+     * @param snapshot: snapshot of a warmed-up network (see warmUpSnapshot), null to start from an empty network
+     * @return results of the load point, null if the load point was cancelled
+     */
+    public LoadPointResult simulateLoadPoint(int j, ByteBuffer snapshot){
+        System.out.println("--- Simulation for p = " + j + "/" + precision);
+        debugLogger.log(Level.FINER, "Simulation for p = " + j + "/" + precision);
+
+        /* Create mesh (a forked load point is always a CLUSTERED mesh) */
+        Mesh mesh;
+        if(snapshot != null){
+            ClusteredMesh forked = new ClusteredMesh(radix, this.sizeX, this.sizeY, this.sizeZ, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive,  flitsPerPacket, j, precision, hotspots, hotSpotFactor, rentExponent, numThreads);
+            forked.setStateBinding(stateBinding);
+            forked.setFastForward(fastForward);
+            forked.restoreSnapshot(snapshot);
+            mesh = forked;
+        } else {
+            mesh = this.createMesh(j, precision);
+        }
 
+        /* Simulation initial parameters (times are counted from the start of this load point) */
+        boolean idle = false;
+        boolean saturated = false;
+        int phase = 0;
+        int cycle = 0;
+        int start = mesh.getNetworkTime();
+        int warmup = start + minWarmupTime;
+        int measurement = 0;
+        int lastSample = start;
+        LatencyEstimator estimator = new LatencyEstimator(BATCH_LENGTH, MIN_BATCHES, targetPrecision);
+
+        /* Checkpoints (CLUSTERED engine only): resume from the last checkpoint of this load point */
+        Path checkpoint = (checkpointInterval > 0 && checkpointDir != null && mesh instanceof ClusteredMesh) ? this.checkpointFile(j, snapshot != null) : null;
+        long elapsed = 0;
+        if(checkpoint != null && Files.exists(checkpoint)){
+            int[] loop = new int[5];
+            try(CheckpointReader in = new CheckpointReader(checkpoint)){
+                ((ClusteredMesh) mesh).restoreCheckpoint(in);
+                in.readInts(loop);
+                elapsed = in.readLong();
+                estimator.readState(in);
+            }
+            phase = loop[0];
+            cycle = loop[1];
+            start = loop[2];
+            warmup = loop[3];
+            lastSample = loop[4];
+            System.out.println("Resumed from " + checkpoint + " at " + (mesh.getNetworkTime() - start) + " cycles");
+        }
+        int lastCheckpoint = mesh.getNetworkTime();
 
-                    /* Check convergence */
-                    if ((latency - prevLatency) / latency < convConst) {
-                        System.out.println("Measurement started");
+        final long startTime =  System.currentTimeMillis() - elapsed;
+
+
+        while (!idle) {
+            /* CANCELLATION: a lower load point saturated */
+            if(j > saturationLoad.get()){
+                mesh.shutdown();
+                System.out.println("Simulation for p = " + j + "/" + precision + " cancelled: lower load saturated");
+                return null;
+            }
+
+            debugLogger.log(Level.FINE, "/ ---------------------- SIMULATION CYCLE " + cycle + "  ---------------------- /");
+            /* Skip globally idle cycles (not in the drain, counted as cycles such that alpha stays correct) and simulate all routers */
+            cycle += mesh.fastForward(nextSampleTime(mesh.getNetworkTime()) - 1);
+            mesh.simulateMesh();
+            int time = mesh.getNetworkTime();
+
+            /* Sample the packet counters (the network time does not advance in stalled cycles) */
+            if(time % SAMPLE_INTERVAL == 0 && time != lastSample && phase < 2){
+                lastSample = time;
+                estimator.addSample(mesh.getTotalPacketLatency(), mesh.getNumReceivedPackets());
+
+                /* Warm-up: MSER-5 truncation point after the minimum warm up time, a fixed re-convergence time after a fork */
+                if(phase == 0 && snapshot != null){
+                    if(time - start >= FORK_WARMUP_TIME){
+                        System.out.println("Measurement started, re-converged " + (time - start) + " cycles after the fork");
                         mesh.startMeasurement();
+                        estimator.startMeasurement();
                         cycle = 0;
-                        warmup = mesh.getNetworkTime();
+                        warmup = time;
                         phase = 1;
                     }
-                    prevLatency = latency;
                 }
-
-                /* STOP CONDITION */
-                if(mesh.getNetworkTime() % 500 == 0){
-                    double latency = mesh.calculateAveragePacketLatency();
-                    if(latency > 750){
-                        idle = true;
-                        System.out.println("Latency larger than 750, stopped simulation");
-                        maxLatencyReached = true;
+                else if(phase == 0 && time - start > minWarmupTime){
+                    int truncation = estimator.getTruncationPoint();
+                    if(truncation >= 0 || time - start > maxWarmupTime){
+                        if(truncation >= 0)
+                            System.out.println("Measurement started, MSER-5 truncation at " + (truncation * SAMPLE_INTERVAL) + " cycles");
+                        else
+                            System.out.println("Measurement started, no steady state after " + maxWarmupTime + " cycles");
+                        mesh.startMeasurement();
+                        estimator.startMeasurement();
+                        cycle = 0;
+                        warmup = time;
+                        phase = 1;
                     }
                 }
 
-
-                /* After measurement phase, start drain phase */
-                if (mesh.getNetworkTime() > (warmup + measurementTime) && phase == 1) {
+                /* Measurement: until the confidence interval of the latency reaches the target precision */
+                else if(phase == 1 && (estimator.isPrecise() || time - warmup >= maxMeasurementTime)){
                     double latency = mesh.calculateAveragePacketLatency();
-                    System.out.println("Drain started, avg packet latency is now: " + latency );
+                    System.out.println("Drain started, avg packet latency is now: " + latency + " +- " + estimator.getHalfWidth()
+                            + " (" + estimator.getNumBatches() + " batches of " + estimator.getBatchLength() * SAMPLE_INTERVAL + " cycles)");
+                    measurement = time - warmup;
                     phase = 2;
                     mesh.startDrain();
                 }
+            }
 
-                if(mesh.getNetworkTime() % 500 == 0 && mesh.getNetworkTime() > (warmup + measurementTime) && mesh.isIdle()){
-                    idle= true;
+            /* STOP CONDITION */
+            if(time % 500 == 0){
+                double latency = mesh.calculateAveragePacketLatency();
+                if(latency > MAX_LATENCY){
+                    idle = true;
+                    System.out.println("Latency larger than 750, stopped simulation");
+                    saturated = true;
+                    saturationLoad.accumulateAndGet(j, Math::min);
                 }
+            }
 
-                if(mesh.getNetworkTime() > 20*measurementTime){
-                    System.out.println("Process stopped because taking too long, might have to check!");
-                    idle = true;
+            if(time % 500 == 0 && phase == 2 && mesh.isIdle()){
+                idle= true;
+            }
 
-                }
+            if(time - start > maxWarmupTime + 2*maxMeasurementTime){
+                System.out.println("Process stopped because taking too long, might have to check!");
+                idle = true;
 
-                cycle++;
+            }
 
+            /* CHECKPOINT: after a sample, before the drain (the loop resumes at the next cycle) */
+            if(checkpoint != null && !idle && phase < 2 && time == lastSample && time - lastCheckpoint >= checkpointInterval){
+                lastCheckpoint = time;
+                int[] loop = {phase, cycle + 1, start, warmup, lastSample};
+                this.saveLoadPoint(checkpoint, (ClusteredMesh) mesh, estimator, loop, System.currentTimeMillis() - startTime);
             }
 
-            double alpha = (1.0*(mesh.getNetworkTime() - warmup)) / cycle;
-            System.out.println("alpha: " + alpha);
+            cycle++;
+
+        }
+        if(phase == 1)
+            measurement = mesh.getNetworkTime() - warmup;
 
+        mesh.shutdown();
+        double alpha = (1.0*(mesh.getNetworkTime() - warmup)) / cycle;
+        System.out.println("alpha: " + alpha);
 
-            final long endTime = System.currentTimeMillis();
-            long duration = endTime - startTime;
-            System.out.println("Excecution took " + duration + " ms");
 
+        final long endTime = System.currentTimeMillis();
+        long duration = endTime - startTime;
+        System.out.println("Excecution took " + duration + " ms");
 
-            double prob = 1.0*j / precision;
-            double latency = mesh.calculateAveragePacketLatency();
-            avgHops = mesh.calculateAverageHops();
-            String msg = prob + "\t" + latency + "\t" + avgHops + "\t" + alpha + "\t" + Math.round(duration/1000);
-            resultLogger.log(Level.INFO, msg);
 
-            /* Print number of received packets test */
-            //mesh.printNumReceivedPackets();
+        double prob = 1.0*j / precision;
+        double latency = mesh.calculateAveragePacketLatency();
+        double avgHops = mesh.calculateAverageHops();
 
-            debugLogger.log(Level.INFO, "/ - - - - - NUMBER OF RECEIVED PACKETS PER CORE - - - - - /");
-            debugLogger.log(Level.INFO, "PARAMETERS:");
-            debugLogger.log(Level.INFO, "Radix: " + this.radix);
-            debugLogger.log(Level.INFO, "prob: " + prob);
-            mesh.logNumReceivedPackets();
+        /* Print number of received packets test */
+        //mesh.printNumReceivedPackets();
 
+        debugLogger.log(Level.INFO, "/ - - - - - NUMBER OF RECEIVED PACKETS PER CORE - - - - - /");
+        debugLogger.log(Level.INFO, "PARAMETERS:");
+        debugLogger.log(Level.INFO, "Radix: " + this.radix);
+        debugLogger.log(Level.INFO, "prob: " + prob);
+        mesh.logNumReceivedPackets();
 
-             System.out.println("Average hop count: " + avgHops);
-            System.out.println("Latency: " + latency);
 
-        }
+         System.out.println("Average hop count: " + avgHops);
+        System.out.println("Latency: " + latency);
 
-        /* Report average hop count : */
-        resultLogger.log(Level.INFO, "Average hop count : " + avgHops);
+        /* The load point is finished: its checkpoint is no longer needed */
+        if(checkpoint != null){
+            try {
+                Files.deleteIfExists(checkpoint);
+            } catch (IOException e){
+                throw new RuntimeException("Could not remove checkpoint " + checkpoint, e);
+            }
+        }
 
+        return new LoadPointResult(j, prob, latency, avgHops, alpha, duration, saturated, estimator.getHalfWidth(), estimator.getRelativePrecision(), warmup - start, measurement);
     }
 
-
     /**
      * Test used for debugging: testing the traffic pattern
      */
     public void trafficPatternTest(int load, int sizeX, int sizeY, int sizeZ){
-        gui.updateProb(load);
+        if(gui != null)
+            gui.updateProb(load);
         System.out.println("--- Simulation for p = " + load + "/" + precision);
         debugLogger.log(Level.FINER, "Simulation for p = " + load + "/" + precision);
 
         /* Create CLUSTERED mesh */
-        ClusteredMesh mesh = new ClusteredMesh(radix, sizeX, sizeY, sizeZ, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive,  flitsPerPacket, load, 1000, hotspots, hotSpotFactor, rentExponent);
+        ClusteredMesh mesh = new ClusteredMesh(radix, sizeX, sizeY, sizeZ, numPorts, numVCs, bufferSize, sourceQueueSize, adaptive,  flitsPerPacket, load, precision, hotspots, hotSpotFactor, rentExponent, numThreads);
+        mesh.setStateBinding(stateBinding);
 
         /* Simulation initial parameters */
         boolean idle = false;
@@ -290,6 +775,8 @@ public class MeshTest {
         }
 
 
+        mesh.shutdown();
+
         debugLogger.log(Level.INFO, "/ - - - - - NUMBER OF RECEIVED PACKETS PER CORE - - - - - /");
         debugLogger.log(Level.INFO, "PARAMETERS:");
         debugLogger.log(Level.INFO, "Radix: " + this.radix);
@@ -314,23 +801,125 @@ public class MeshTest {
         if(adaptive)
             routing = "Adaptive";
         resultLogger.log(Level.INFO, "Routing algorithm: " + routing);
+        resultLogger.log(Level.INFO, "Threads: " + this.numThreads);
         resultLogger.log(Level.INFO, "/ ****** START SIMULATION  ****** /");
 
     }
 
+    /**
+     * Set the number of worker threads used to simulate the clusters of the mesh
+     * @param numThreads: number of worker threads (1 gives the serial TDM engine)
+     */
+    public void setNumThreads(int numThreads){
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Set the precision at which the measurement of a load point stops
+     * @param targetPrecision: target relative half width of the 95% confidence interval of the packet latency
+     */
+    public void setTargetPrecision(double targetPrecision){
+        this.targetPrecision = targetPrecision;
+    }
+
+    /**
+     * Set the limits of the warm-up and measurement of a load point
+     * @param maxWarmupTime: measurement starts after this time, also if no steady state is detected
+     * @param maxMeasurementTime: measurement stops after this time, also if the target precision is not reached
+     */
+    public void setTimeLimits(int maxWarmupTime, int maxMeasurementTime){
+        this.maxWarmupTime = maxWarmupTime;
+        this.maxMeasurementTime = maxMeasurementTime;
+    }
+
+    /**
+     * Select how the load is varied in radixTest
+     * @param sweepMode: LINEAR_SWEEP (load step) or SATURATION_SEARCH (load step is the resolution of the saturation load)
+     */
+    public void setSweepMode(int sweepMode){
+        this.sweepMode = sweepMode;
+    }
+
+    /**
+     * Select the simulation engine of the load points
+     * @param engine: CLUSTERED_ENGINE (TDM emulation with the cluster size of this test) or DIRECT_ENGINE (whole network in place)
+     */
+    public void setEngine(int engine){
+        this.engine = engine;
+    }
+
+    /**
+     * Select whether the load points of a sweep are forked from one warmed-up snapshot (see warmUpSnapshot)
+     * @param forkWarmup: true to warm up once and fork, false to warm up every load point from an empty network
+     */
+    public void setForkWarmup(boolean forkWarmup){
+        this.forkWarmup = forkWarmup;
+    }
+
+    /**
+     * Select whether globally idle cycles are skipped (see Mesh.fastForward), on by default
+     * @param fastForward: true to fast-forward over idle cycles, false to simulate every cycle
+     */
+    public void setFastForward(boolean fastForward){
+        this.fastForward = fastForward;
+    }
+
+    /**
+     * Set the seed of the random streams of the nodes: the same seed gives bit-identical results for every engine,
+     * cluster size and number of threads. Forked load points continue the streams of the snapshot.
+     * @param seed: seed of the experiment
+     */
+    public void setSeed(long seed){
+        this.seed = seed;
+    }
+
+    /**
+     * Set the number of load points that are simulated concurrently in a load sweep.
+     * Every concurrent load point holds its own mesh: the peak heap grows linearly with this number
+     * (e.g. about 140 MB per load point for a radix 22 mesh, more for saturated load points with full source queues).
+     * @param loadWorkers: number of concurrent load points (1 gives a serial sweep)
+     */
+    public void setLoadWorkers(int loadWorkers){
+        this.loadWorkers = loadWorkers;
+    }
+
+    /**
+     * Save a checkpoint of every load point every checkpointInterval network cycles (CLUSTERED engine only), one file per
+     * configuration, seed and load in checkpointDir. A load point of which the checkpoint file exists resumes from it,
+     * e.g. after the job was killed; the file is removed when the load point is finished.
+     * @param checkpointInterval: network cycles between two checkpoints, 0 to disable the checkpoints
+     * @param checkpointDir: directory of the checkpoint files
+     */
+    public void setCheckpoints(int checkpointInterval, String checkpointDir){
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointDir = checkpointDir;
+    }
+
+    /**
+     * Select whether the memory state is bound by reference (zero-copy) or copied when switching clusters
+     * @param stateBinding: true for state binding, false for copying
+     */
+    public void setStateBinding(boolean stateBinding){
+        this.stateBinding = stateBinding;
+    }
+
     public void stopGUI(){
-        this.gui.finish();
+        if(this.gui != null)
+            this.gui.finish();
     }
 
     public void setGUIClusterSize(int sizeX, int sizeY, int sizeZ){
-        this.gui.setClusterLabel(sizeX, sizeY, sizeZ);
+        if(this.gui != null)
+            this.gui.setClusterLabel(sizeX, sizeY, sizeZ);
     }
 
     public void updateTrafficPattern(int trafficPattern){
-        this.gui.updateTraffic(trafficPattern);
+        if(this.gui != null)
+            this.gui.updateTraffic(trafficPattern);
     }
 
     public void updateAdaptive(boolean adaptive){
-        this.gui.updateAdaptive(adaptive);
+        if(this.gui != null)
+            this.gui.updateAdaptive(adaptive);
     }
 }
@@ -0,0 +1,74 @@
+/*
+File:           SaturationSearchResult.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package testing;
+
+import java.util.List;
+
+public class SaturationSearchResult {
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    private int saturationLoad;                     // Highest probed load that did not saturate (out of the precision)
+    private double saturationRate;                  // Saturation throughput in PACKETS/cycle/core
+    private double saturationFlitRate;              // Saturation throughput in FLITS/cycle/core
+    private int numProbes;                          // Number of probe runs of the search
+    private List<LoadPointResult> points;           // Full simulations around the knee, in order of load
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * @param saturationLoad: highest probed load that did not saturate (out of the precision)
+     * @param saturationRate: saturation throughput in packets/cycle/core
+     * @param saturationFlitRate: saturation throughput in flits/cycle/core
+     * @param numProbes: number of probe runs of the search
+     * @param points: results of the full simulations around the knee
+     */
+    public SaturationSearchResult(int saturationLoad, double saturationRate, double saturationFlitRate, int numProbes, List<LoadPointResult> points){
+        this.saturationLoad = saturationLoad;
+        this.saturationRate = saturationRate;
+        this.saturationFlitRate = saturationFlitRate;
+        this.numProbes = numProbes;
+        this.points = points;
+    }
+
+
+    /* ********************************************************************************
+     *                              GETTERS AND SETTERS                               *
+     ******************************************************************************** */
+
+    public int getSaturationLoad() {
+        return saturationLoad;
+    }
+
+    public double getSaturationRate() {
+        return saturationRate;
+    }
+
+    public double getSaturationFlitRate() {
+        return saturationFlitRate;
+    }
+
+    public int getNumProbes() {
+        return numProbes;
+    }
+
+    public List<LoadPointResult> getPoints() {
+        return points;
+    }
+
+    @Override
+    public String toString() {
+        return "saturation at p = " + saturationRate + " (" + saturationFlitRate + " flits/cycle/core, " + numProbes + " probes, " + points.size() + " full runs)";
+    }
+}
@@ -0,0 +1,230 @@
+/*
+File:           ScenarioBenchmark.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package testing;
+
+import mesh.ClusteredMesh;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ScenarioBenchmark {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Macro-benchmark suite: fixed-length simulations of the ClusteredMesh for every traffic pattern
+            (uniform, hotspot, Rent), mesh configuration (radix / cluster size) and routing algorithm (XYZ, adaptive).
+            Every run simulates 'warmup' cycles, then measures 'cycles' calls of simulateMesh and reports one CSV line:
+                cycles_per_s    : simulated network cycles per wall-clock second (measurement only)
+                peak_heap_bytes : sum of the peak usage of the heap memory pools (peaks are reset before the run)
+                allocated_bytes : bytes allocated by all threads during the measurement (HotSpot thread allocation counters)
+                alpha           : TDM alpha as MeshTest computes it: network cycles per simulateMesh call
+                                  (smaller than 1 when the network is stalled)
+            The measurement is fixed-length (no convergence check and no drain), so every configuration gives one
+            comparable number from release to release.
+
+            Usage: java testing.ScenarioBenchmark [warmup cycles] [measured cycles] [threads] [output file]
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS: simulation parameters of Main */
+    private static final int NUM_PORTS = 7;
+    private static final int NUM_VCS = 4;
+    private static final int BUFFER_SIZE = 4;
+    private static final int FLITS_PER_PACKET = 8;
+    private static final int SOURCE_QUEUE_SIZE = 200;
+    private static final int PRECISION = 1000;
+    private static final int LOAD = 10;                             // Injection probability (out of PRECISION), below saturation for all scenarios
+    private static final double HOTSPOT_FACTOR = 4.0;
+    private static final double RENT_EXPONENT = 0.7;
+
+    /* Scenarios */
+    private static final String[] PATTERNS = {"uniform", "hotspot", "rent"};
+    private static final int[][] CONFIGURATIONS = {{7, 3}, {11, 11}, {22, 11}};      // {radix, cluster size}
+    private static final boolean[] ROUTING = {false, true};                          // XYZ, adaptive
+
+    public static final String HEADER = "pattern,routing,radix,cluster,threads,load,warmup,cycles,wall_ms,cycles_per_s,peak_heap_bytes,allocated_bytes,alpha,latency";
+
+    private int warmupCycles;
+    private int measuredCycles;
+    private int numThreads;
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+
+    /**
+     * @param warmupCycles: number of simulated cycles before the measurement
+     * @param measuredCycles: number of measured calls of simulateMesh
+     * @param numThreads: number of worker threads of the mesh
+     */
+    public ScenarioBenchmark(int warmupCycles, int measuredCycles, int numThreads){
+        this.warmupCycles = warmupCycles;
+        this.measuredCycles = measuredCycles;
+        this.numThreads = numThreads;
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    public static void main(String[] args){
+        int warmupCycles = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int measuredCycles = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int numThreads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        String outputFile = args.length > 3 ? args[3] : null;
+
+        ScenarioBenchmark benchmark = new ScenarioBenchmark(warmupCycles, measuredCycles, numThreads);
+        List<String> lines = benchmark.runAll();
+
+        if(outputFile != null){
+            try(PrintWriter writer = new PrintWriter(new FileWriter(outputFile))){
+                writer.println(HEADER);
+                for(String line : lines){
+                    writer.println(line);
+                }
+            } catch (IOException e){
+                throw new RuntimeException("Could not write benchmark results to " + outputFile, e);
+            }
+        }
+    }
+
+    /**
+     * Run all scenarios. The CSV lines are printed as soon as a scenario is finished.
+     * @return CSV lines of all scenarios (without header)
+     */
+    public List<String> runAll(){
+        List<String> lines = new ArrayList<String>();
+        System.out.println(HEADER);
+        for(int[] configuration : CONFIGURATIONS){
+            for(String pattern : PATTERNS){
+                for(boolean adaptive : ROUTING){
+                    String line = this.run(pattern, configuration[0], configuration[1], adaptive);
+                    System.out.println(line);
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Run one scenario
+     * @param pattern: traffic pattern ("uniform", "hotspot" or "rent")
+     * @param radix: radix of the mesh
+     * @param clusterSize: size of the clusters along every direction
+     * @param adaptive: true for minimal adaptive routing, false for XYZ routing
+     * @return CSV line with the results
+     */
+    public String run(String pattern, int radix, int clusterSize, boolean adaptive){
+        /* Traffic pattern parameters (hotspots placed as in MeshTest.radixTest) */
+        double hotSpotFactor = 1.0;
+        double rentExponent = 1.0;
+        int[] hotspots = new int[]{};
+        if(pattern.equals("hotspot")){
+            int middle = ((radix * radix * radix) - 1) / 2;
+            hotSpotFactor = HOTSPOT_FACTOR;
+            hotspots = new int[]{8, middle, middle + 8, (radix * radix * radix) - 5};
+        } else if(pattern.equals("rent")){
+            rentExponent = RENT_EXPONENT;
+        }
+
+        /* Start from a clean heap such that the peak belongs to this scenario */
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+            if(pool.getType() == MemoryType.HEAP){
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        int size = Math.min(radix, clusterSize);
+        ClusteredMesh mesh = new ClusteredMesh(radix, size, size, size, NUM_PORTS, NUM_VCS, BUFFER_SIZE, SOURCE_QUEUE_SIZE, adaptive,
+                FLITS_PER_PACKET, LOAD, PRECISION, hotspots, hotSpotFactor, rentExponent, numThreads);
+
+        /* Warm up */
+        for(int i = 0; i < warmupCycles; i++){
+            mesh.simulateMesh();
+        }
+        mesh.startMeasurement();
+
+        /* Measurement */
+        Map<Long, Long> startAllocations = allocatedBytes();
+        int startTime = mesh.getNetworkTime();
+        final long startWall = System.nanoTime();
+        for(int i = 0; i < measuredCycles; i++){
+            mesh.simulateMesh();
+        }
+        final long wallNanos = System.nanoTime() - startWall;
+        long allocated = allocatedSince(startAllocations);
+        int simulatedCycles = mesh.getNetworkTime() - startTime;
+
+        double latency = mesh.calculateAveragePacketLatency();
+        mesh.shutdown();
+
+        long peakHeap = 0;
+        for(MemoryPoolMXBean pool : heapPools){
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        double alpha = (1.0 * simulatedCycles) / measuredCycles;
+        double cyclesPerSecond = simulatedCycles / (wallNanos / 1e9);
+        String routing = adaptive ? "adaptive" : "xyz";
+        return pattern + "," + routing + "," + radix + "," + size + "," + numThreads + "," + LOAD + "," + warmupCycles + "," + measuredCycles
+                + "," + (wallNanos / 1000000) + "," + cyclesPerSecond + "," + peakHeap + "," + allocated + "," + alpha + "," + latency;
+    }
+
+    /**
+     * Bytes allocated so far by every live thread
+     * @return allocated bytes per thread ID (empty if the JVM does not support thread allocation counters)
+     */
+    private static Map<Long, Long> allocatedBytes(){
+        Map<Long, Long> allocations = new HashMap<Long, Long>();
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if(!(threadBean instanceof com.sun.management.ThreadMXBean))
+            return allocations;
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        long[] threadIDs = allocationBean.getAllThreadIds();
+        long[] bytes = allocationBean.getThreadAllocatedBytes(threadIDs);
+        for(int i = 0; i < threadIDs.length; i++){
+            if(bytes[i] >= 0)
+                allocations.put(threadIDs[i], bytes[i]);
+        }
+        return allocations;
+    }
+
+    /**
+     * Bytes allocated by all live threads since an earlier measurement (threads started in between count from 0)
+     * @param startAllocations: allocated bytes per thread ID at the start
+     * @return allocated bytes, -1 if the JVM does not support thread allocation counters
+     */
+    private static long allocatedSince(Map<Long, Long> startAllocations){
+        Map<Long, Long> endAllocations = allocatedBytes();
+        if(endAllocations.isEmpty())
+            return -1;
+        long allocated = 0;
+        for(Map.Entry<Long, Long> entry : endAllocations.entrySet()){
+            Long start = startAllocations.get(entry.getKey());
+            allocated += entry.getValue() - (start == null ? 0 : start);
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+File:           AllocatorBenchmark.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package benchmarks;
+
+import iSLIP.Allocator;
+import iSLIP.BitsetAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllocatorBenchmark {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            One iSLIP allocation (requests, simulate, reset) of the switch allocator (7x7: one input per port)
+            and of the VC allocator (28x28: 7 ports with 4 VCs). The requests cycle through NUM_PATTERNS fixed
+            random patterns in which every input requests every output with probability 'density'.
+            BitsetAllocator is the allocator of the routers, Allocator the List-based reference implementation.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* CONSTANTS */
+    private static final int NUM_PATTERNS = 64;
+
+    @Param({"7", "28"})
+    public int size;                                        // Number of inputs and outputs
+
+    @Param({"0.25"})
+    public double density;                                  // Probability that an input requests an output
+
+    private int[][] requestInputs;                          // Inputs of the requests of every pattern
+    private int[][] requestOutputs;                         // Outputs of the requests of every pattern
+    private int pattern;
+
+    private BitsetAllocator bitsetAllocator;
+    private Allocator allocator;
+
+    @Setup
+    public void setup(){
+        Random random = new Random(42);
+        this.requestInputs = new int[NUM_PATTERNS][];
+        this.requestOutputs = new int[NUM_PATTERNS][];
+        for(int p = 0; p < NUM_PATTERNS; p++){
+            int[] inputs = new int[size * size];
+            int[] outputs = new int[size * size];
+            int numRequests = 0;
+            for(int i = 0; i < size; i++){
+                for(int o = 0; o < size; o++){
+                    if(random.nextDouble() < density){
+                        inputs[numRequests] = i;
+                        outputs[numRequests] = o;
+                        numRequests++;
+                    }
+                }
+            }
+            this.requestInputs[p] = Arrays.copyOf(inputs, numRequests);
+            this.requestOutputs[p] = Arrays.copyOf(outputs, numRequests);
+        }
+
+        this.bitsetAllocator = new BitsetAllocator(size, size);
+        this.allocator = new Allocator(size, size);
+        this.pattern = 0;
+    }
+
+    @Benchmark
+    public int bitsetAllocator(){
+        int[] inputs = requestInputs[pattern];
+        int[] outputs = requestOutputs[pattern];
+        pattern = (pattern + 1) % NUM_PATTERNS;
+
+        for(int r = 0; r < inputs.length; r++){
+            bitsetAllocator.addRequest(inputs[r], outputs[r]);
+        }
+        bitsetAllocator.simulate();
+
+        int granted = 0;
+        for(int i = 0; i < size; i++){
+            granted += bitsetAllocator.getGrant(i);
+            bitsetAllocator.resetAllRequests(i);
+        }
+        return granted;
+    }
+
+    @Benchmark
+    public Object allocator(){
+        int[] inputs = requestInputs[pattern];
+        int[] outputs = requestOutputs[pattern];
+        pattern = (pattern + 1) % NUM_PATTERNS;
+
+        for(int r = 0; r < inputs.length; r++){
+            allocator.addRequest(inputs[r], outputs[r]);
+        }
+        allocator.simulate();
+
+        for(int i = 0; i < size; i++){
+            allocator.resetAllRequests(i);
+        }
+        return allocator.getGrants();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+File:           BenchmarkMeshes.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package benchmarks;
+
+import mesh.ClusteredMesh;
+
+public final class BenchmarkMeshes {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Meshes used by the benchmarks. The constant simulation parameters are the defaults of Main
+            (4 VCs, buffers of 4 flits, 8 flits per packet, source queues of 200 packets, precision 1000),
+            hotspots are placed as in MeshTest.radixTest.
+            Traffic patterns: "uniform", "hotspot" (hotspot factor HOTSPOT_FACTOR) and "rent" (Rent exponent RENT_EXPONENT).
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* ********************************************************************************
+     *                                  VARIABLES                                     *
+     ******************************************************************************** */
+    /* CONSTANTS */
+    public static final int NUM_PORTS = 7;
+    public static final int NUM_VCS = 4;
+    public static final int BUFFER_SIZE = 4;
+    public static final int FLITS_PER_PACKET = 8;
+    public static final int SOURCE_QUEUE_SIZE = 200;
+    public static final int PRECISION = 1000;
+    public static final double HOTSPOT_FACTOR = 4.0;
+    public static final double RENT_EXPONENT = 0.7;
+
+
+    /* ********************************************************************************
+     *                                   CONSTRUCTORS                                 *
+     ******************************************************************************** */
+    private BenchmarkMeshes(){
+    }
+
+
+    /* ********************************************************************************
+     *                                 CLASS FUNCTIONS                                *
+     ******************************************************************************** */
+
+    /**
+     * Create a clustered mesh with cubic clusters
+     * @param radix: radix of the mesh
+     * @param clusterSize: size of the clusters along every direction
+     * @param pattern: traffic pattern ("uniform", "hotspot" or "rent")
+     * @param adaptive: true for minimal adaptive routing, false for XYZ routing
+     * @param load: injection probability (out of PRECISION)
+     * @param numThreads: number of worker threads
+     * @return the clustered mesh
+     */
+    public static ClusteredMesh create(int radix, int clusterSize, String pattern, boolean adaptive, int load, int numThreads){
+        double hotSpotFactor = 1.0;
+        double rentExponent = 1.0;
+        int[] hotspots = new int[]{};
+        if(pattern.equals("hotspot")){
+            int middle = ((radix * radix * radix) - 1) / 2;
+            hotSpotFactor = HOTSPOT_FACTOR;
+            hotspots = new int[]{8, middle, middle + 8, (radix * radix * radix) - 5};
+        } else if(pattern.equals("rent")){
+            rentExponent = RENT_EXPONENT;
+        } else if(!pattern.equals("uniform")){
+            throw new RuntimeException("Unknown traffic pattern: " + pattern);
+        }
+
+        int size = Math.min(radix, clusterSize);
+        return new ClusteredMesh(radix, size, size, size, NUM_PORTS, NUM_VCS, BUFFER_SIZE, SOURCE_QUEUE_SIZE, adaptive,
+                FLITS_PER_PACKET, load, PRECISION, hotspots, hotSpotFactor, rentExponent, numThreads);
+    }
+
+    /**
+     * Simulate a number of cycles to fill the network
+     * @param mesh: mesh to be warmed up
+     * @param cycles: number of simulated cycles
+     */
+    public static void warmUp(ClusteredMesh mesh, int cycles){
+        for(int i = 0; i < cycles; i++){
+            mesh.simulateMesh();
+        }
+    }
+}
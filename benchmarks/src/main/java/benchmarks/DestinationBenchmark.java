@@ -0,0 +1,64 @@
+/*
+File:           DestinationBenchmark.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package benchmarks;
+
+import ipCore.TrafficGenerator;
+import mesh.ClusteredMesh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DestinationBenchmark {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            TrafficGenerator.createDestination for every traffic pattern, for the TG of router (0,0,0) of the mesh.
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    @Param({"uniform", "hotspot", "rent"})
+    public String pattern;
+
+    @Param({"7", "11"})
+    public int radix;
+
+    private ClusteredMesh mesh;
+    private TrafficGenerator trafficGenerator;
+
+    @Setup
+    public void setup(){
+        this.mesh = BenchmarkMeshes.create(radix, 1, pattern, false, 10, 1);
+        this.trafficGenerator = mesh.getPhysicalCluster().getIpCores().get(0).get(0).get(0).getTrafficGenerator();
+    }
+
+    @TearDown
+    public void tearDown(){
+        mesh.shutdown();
+    }
+
+    @Benchmark
+    public int[] createDestination(){
+        return trafficGenerator.createDestination();
+    }
+}
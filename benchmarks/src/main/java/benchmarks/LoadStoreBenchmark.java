@@ -0,0 +1,80 @@
+/*
+File:           LoadStoreBenchmark.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package benchmarks;
+
+import memory.MemoryCluster;
+import mesh.Cluster;
+import mesh.ClusteredMesh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadStoreBenchmark {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Cluster.loadCluster and MemoryCluster.storeCluster of the TDM engine, for a 7^3 mesh with 3^3 clusters
+            that is warmed up at a medium load. The central memory cluster is loaded (stored) repeatedly, which is
+            idempotent. stateBinding selects the zero-copy binding (true) or the copying load/store (false).
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* CONSTANTS */
+    private static final int RADIX = 7;
+    private static final int CLUSTER_SIZE = 3;
+    private static final int LOAD = 40;
+    private static final int WARMUP_CYCLES = 1000;
+
+    @Param({"true", "false"})
+    public boolean stateBinding;
+
+    private ClusteredMesh mesh;
+    private Cluster cluster;
+    private MemoryCluster memoryCluster;
+
+    @Setup
+    public void setup(){
+        this.mesh = BenchmarkMeshes.create(RADIX, CLUSTER_SIZE, "uniform", false, LOAD, 1);
+        mesh.setStateBinding(stateBinding);
+        BenchmarkMeshes.warmUp(mesh, WARMUP_CYCLES);
+        this.cluster = mesh.getPhysicalCluster();
+        this.memoryCluster = mesh.getMemoryClusters().get(1).get(1).get(1);
+        cluster.loadCluster(memoryCluster);
+    }
+
+    @TearDown
+    public void tearDown(){
+        mesh.shutdown();
+    }
+
+    @Benchmark
+    public void loadCluster(){
+        cluster.loadCluster(memoryCluster);
+    }
+
+    @Benchmark
+    public void storeCluster(){
+        memoryCluster.storeCluster(cluster);
+    }
+}
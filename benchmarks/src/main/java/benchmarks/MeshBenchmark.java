@@ -0,0 +1,75 @@
+/*
+File:           MeshBenchmark.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package benchmarks;
+
+import mesh.ClusteredMesh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class MeshBenchmark {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            One ClusteredMesh.simulateMesh step (all memory clusters and the inter-cluster channels), after a warm-up
+            at a medium load. The throughput is the number of simulated cycles per second, the gc profiler
+            (gc.alloc.rate.norm) gives the allocated bytes per cycle.
+            config is "radix:clusterSize".
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* CONSTANTS */
+    private static final int LOAD = 40;
+    private static final int WARMUP_CYCLES = 500;
+
+    @Param({"7:3", "11:11", "22:11"})
+    public String config;
+
+    @Param({"false", "true"})
+    public boolean adaptive;
+
+    @Param({"1"})
+    public int numThreads;
+
+    private ClusteredMesh mesh;
+
+    @Setup
+    public void setup(){
+        String[] split = config.split(":");
+        int radix = Integer.parseInt(split[0]);
+        int clusterSize = Integer.parseInt(split[1]);
+        this.mesh = BenchmarkMeshes.create(radix, clusterSize, "uniform", adaptive, LOAD, numThreads);
+        BenchmarkMeshes.warmUp(mesh, WARMUP_CYCLES);
+    }
+
+    @TearDown
+    public void tearDown(){
+        mesh.shutdown();
+    }
+
+    @Benchmark
+    public void simulateMesh(){
+        mesh.simulateMesh();
+    }
+}
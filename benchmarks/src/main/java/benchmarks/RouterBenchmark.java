@@ -0,0 +1,76 @@
+/*
+File:           RouterBenchmark.java
+Created:        2026/10/17
+Last Changed:   2026/10/17
+
+If you use our 3D NoC Emulator in your research, we would appreciate the following citation in any publications to which it has contributed:
+Jonathan D'Hoore, Poona Bahrebar and Dirk Stroobandt, "3D NoC Emulation Model on a Single FPGA,"
+In Proceedings of ACM/IEEE International Workshop on System-Level Interconnect Problems and Pathfinding (SLIPP'20), pp. 1-8, 2020.
+*/
+
+package benchmarks;
+
+import mesh.Cluster;
+import mesh.ClusteredMesh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouterBenchmark {
+    /* - - - - - - - - - - -  - - - IMPORTANT - - - - - - - - - - - - - -
+            Router.simulateRouter under synthetic occupancy: a RADIX^3 mesh that fits in one cluster is warmed up
+            at the given load, after which the physical cluster is simulated on its own (it is bound to the only
+            memory cluster, and its inter-cluster channels are the edges of the mesh).
+            The IP cores are simulated as well, such that the injection keeps the occupancy of the routers at the
+            level of the load. One operation is one router cycle (including its IP core).
+        - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -  */
+    /* CONSTANTS */
+    private static final int RADIX = 7;
+    private static final int NUM_ROUTERS = RADIX * RADIX * RADIX;
+    private static final int WARMUP_CYCLES = 2000;
+
+    @Param({"10", "40", "80"})
+    public int load;                                        // Injection probability (out of 1000): low, medium and close to saturation
+
+    @Param({"false", "true"})
+    public boolean adaptive;
+
+    private ClusteredMesh mesh;
+    private Cluster cluster;
+
+    @Setup
+    public void setup(){
+        this.mesh = BenchmarkMeshes.create(RADIX, RADIX, "uniform", adaptive, load, 1);
+        BenchmarkMeshes.warmUp(mesh, WARMUP_CYCLES);
+        this.cluster = mesh.getPhysicalCluster();
+    }
+
+    @TearDown
+    public void tearDown(){
+        mesh.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROUTERS)
+    public void simulateRouter(){
+        cluster.simulateCluster(false);
+    }
+}